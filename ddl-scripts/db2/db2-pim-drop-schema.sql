@@ -4,6 +4,8 @@ drop table migrations;
 drop table plan_mappings;
 drop table plans;
 drop table process_instance_ids;
+drop table migration_chunks;
+drop table migration_callbacks;
 drop sequence MIG_REP_ID_SEQ restrict;
 drop sequence MIGRATION_ID_SEQ restrict;
 drop sequence PLAN_ID_SEQ restrict;
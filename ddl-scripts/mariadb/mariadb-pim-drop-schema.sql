@@ -16,6 +16,8 @@ drop table if exists migrations;
 drop table if exists plan_mappings;
 drop table if exists plans;
 drop table if exists process_instance_ids;
+drop table if exists migration_chunks;
+drop table if exists migration_callbacks;
 drop sequence MIG_REP_ID_SEQ;
 drop sequence MIGRATION_ID_SEQ;
 drop sequence PLAN_ID_SEQ;
@@ -31,6 +31,26 @@ create table migrations (
     finished_at datetime(6),
     started_at datetime(6),
     status integer,
+    concurrency integer,
+    chunk_size integer,
+    owner varchar(255),
+    lease_expires_at datetime(6),
+    window_start time,
+    window_end time,
+    max_failures integer,
+    max_failure_ratio double precision,
+    retry_attempt integer,
+    retry_max_attempts integer,
+    retry_backoff bigint,
+    query_timeout bigint,
+    admin_timeout bigint,
+    hedge_delay bigint,
+    progress_interval bigint,
+    progress_every integer,
+    total bigint,
+    processed bigint,
+    succeeded bigint,
+    failed bigint,
     primary key (id)
 ) engine=InnoDB;
 
@@ -57,7 +77,37 @@ create table process_instance_ids (
     processInstanceIds bigint
 ) engine=InnoDB;
 
+create table migration_chunks (
+    migration_id bigint not null,
+    chunk_index integer not null,
+    instance_ids longtext,
+    lease_expires_at datetime(6),
+    owner varchar(255),
+    status integer,
+    primary key (migration_id, chunk_index)
+) engine=InnoDB;
+
+create table migration_callbacks (
+    id varchar(255) not null,
+    migration_id bigint,
+    url varchar(255),
+    payload longtext,
+    status integer,
+    attempts integer,
+    created_at datetime(6),
+    next_attempt_at datetime(6),
+    delivered_at datetime(6),
+    last_error varchar(255),
+    owner varchar(255),
+    lease_expires_at datetime(6),
+    callback_type integer,
+    primary key (id)
+) engine=InnoDB;
+
 create index IDX_MigrationReports_Id on migration_reports (migration_id);
+create index IDX_MigrationCallbacks_Status on migration_callbacks (status);
+create index IDX_MigrationCallbacks_Id on migration_callbacks (migration_id);
+create index IDX_MigrationChunks_Status on migration_chunks (status);
 
 alter table migration_report_logs
     add constraint FKj8bsydiucvs2kygnscp1bt1wy
@@ -13,6 +13,8 @@ drop table migrations;
 drop table plan_mappings;
 drop table plans;
 drop table process_instance_ids;
+drop table migration_chunks;
+drop table migration_callbacks;
 
 drop sequence MIG_REP_ID_SEQ;
 drop sequence MIGRATION_ID_SEQ;
@@ -31,6 +31,26 @@ create table migrations (
     finished_at datetime2,
     started_at datetime2,
     status int,
+    concurrency int,
+    chunk_size int,
+    owner varchar(255),
+    lease_expires_at datetime2,
+    window_start time,
+    window_end time,
+    max_failures int,
+    max_failure_ratio float,
+    retry_attempt int,
+    retry_max_attempts int,
+    retry_backoff bigint,
+    query_timeout bigint,
+    admin_timeout bigint,
+    hedge_delay bigint,
+    progress_interval bigint,
+    progress_every int,
+    total bigint,
+    processed bigint,
+    succeeded bigint,
+    failed bigint,
     primary key (id)
 );
 
@@ -56,7 +76,37 @@ create table process_instance_ids (
     migration_definition_id bigint not null,
     processInstanceIds bigint
 );
+create table migration_chunks (
+    migration_id bigint not null,
+    chunk_index int not null,
+    instance_ids varchar(MAX),
+    lease_expires_at datetime2,
+    owner varchar(255),
+    status int,
+    primary key (migration_id, chunk_index)
+);
+
+create table migration_callbacks (
+    id varchar(255) not null,
+    migration_id bigint,
+    url varchar(255),
+    payload varchar(MAX),
+    status int,
+    attempts int,
+    created_at datetime2,
+    next_attempt_at datetime2,
+    delivered_at datetime2,
+    last_error varchar(255),
+    owner varchar(255),
+    lease_expires_at datetime2,
+    callback_type int,
+    primary key (id)
+);
+
 create index IDX_MigrationReports_Id on migration_reports (migration_id);
+create index IDX_MigrationCallbacks_Status on migration_callbacks (status);
+create index IDX_MigrationCallbacks_Id on migration_callbacks (migration_id);
+create index IDX_MigrationChunks_Status on migration_chunks (status);
 
 alter table migration_report_logs
     add constraint FKj8bsydiucvs2kygnscp1bt1wy
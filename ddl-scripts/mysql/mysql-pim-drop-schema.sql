@@ -19,3 +19,5 @@ drop table if exists PLAN_ID_SEQ;
 drop table if exists plan_mappings;
 drop table if exists plans;
 drop table if exists process_instance_ids;
+drop table if exists migration_chunks;
+drop table if exists migration_callbacks;
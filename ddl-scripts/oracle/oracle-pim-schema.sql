@@ -31,6 +31,26 @@ create table migrations (
     finished_at timestamp,
     started_at timestamp,
     status number(10,0),
+    concurrency number(10,0),
+    chunk_size number(10,0),
+    owner varchar2(255 char),
+    lease_expires_at timestamp,
+    window_start timestamp,
+    window_end timestamp,
+    max_failures number(10,0),
+    max_failure_ratio double precision,
+    retry_attempt number(10,0),
+    retry_max_attempts number(10,0),
+    retry_backoff number(19,0),
+    query_timeout number(19,0),
+    admin_timeout number(19,0),
+    hedge_delay number(19,0),
+    progress_interval number(19,0),
+    progress_every number(10,0),
+    total number(19,0),
+    processed number(19,0),
+    succeeded number(19,0),
+    failed number(19,0),
     primary key (id)
 );
 
@@ -57,7 +77,37 @@ create table process_instance_ids (
     processInstanceIds number(19,0)
 );
 
+create table migration_chunks (
+    migration_id number(19,0) not null,
+    chunk_index number(10,0) not null,
+    instance_ids clob,
+    lease_expires_at timestamp,
+    owner varchar2(255 char),
+    status number(10,0),
+    primary key (migration_id, chunk_index)
+);
+
+create table migration_callbacks (
+    id varchar2(255 char) not null,
+    migration_id number(19,0),
+    url varchar2(255 char),
+    payload clob,
+    status number(10,0),
+    attempts number(10,0),
+    created_at timestamp,
+    next_attempt_at timestamp,
+    delivered_at timestamp,
+    last_error varchar2(255 char),
+    owner varchar2(255 char),
+    lease_expires_at timestamp,
+    callback_type number(10,0),
+    primary key (id)
+);
+
 create index IDX_MigrationReports_Id on migration_reports (migration_id);
+create index IDX_MigrationCallbacks_Status on migration_callbacks (status);
+create index IDX_MigrationCallbacks_Id on migration_callbacks (migration_id);
+create index IDX_MigrationChunks_Status on migration_chunks (status);
 
 alter table migration_report_logs
     add constraint FKj8bsydiucvs2kygnscp1bt1wy
@@ -13,6 +13,8 @@ drop table if exists migrations cascade;
 drop table if exists plan_mappings cascade;
 drop table if exists plans cascade;
 drop table if exists process_instance_ids cascade;
+drop table if exists migration_chunks cascade;
+drop table if exists migration_callbacks cascade;
 
 drop sequence if exists MIG_REP_ID_SEQ;
 drop sequence if exists MIGRATION_ID_SEQ;
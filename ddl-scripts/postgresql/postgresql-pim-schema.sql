@@ -31,6 +31,26 @@ create table migrations (
     finished_at timestamp,
     started_at timestamp,
     status int4,
+    concurrency int4,
+    chunk_size int4,
+    owner varchar(255),
+    lease_expires_at timestamp,
+    window_start time,
+    window_end time,
+    max_failures int4,
+    max_failure_ratio float8,
+    retry_attempt int4,
+    retry_max_attempts int4,
+    retry_backoff int8,
+    query_timeout int8,
+    admin_timeout int8,
+    hedge_delay int8,
+    progress_interval int8,
+    progress_every int4,
+    total int8,
+    processed int8,
+    succeeded int8,
+    failed int8,
     primary key (id)
 );
 
@@ -57,7 +77,37 @@ create table process_instance_ids (
     processInstanceIds int8
 );
 
+create table migration_chunks (
+    migration_id int8 not null,
+    chunk_index int4 not null,
+    instance_ids text,
+    lease_expires_at timestamp,
+    owner varchar(255),
+    status int4,
+    primary key (migration_id, chunk_index)
+);
+
+create table migration_callbacks (
+    id varchar(255) not null,
+    migration_id int8,
+    url varchar(255),
+    payload text,
+    status int4,
+    attempts int4,
+    created_at timestamp,
+    next_attempt_at timestamp,
+    delivered_at timestamp,
+    last_error varchar(255),
+    owner varchar(255),
+    lease_expires_at timestamp,
+    callback_type int4,
+    primary key (id)
+);
+
 create index IDX_MigrationReports_Id on migration_reports (migration_id);
+create index IDX_MigrationCallbacks_Status on migration_callbacks (status);
+create index IDX_MigrationCallbacks_Id on migration_callbacks (migration_id);
+create index IDX_MigrationChunks_Status on migration_chunks (status);
 
 alter table if exists migration_report_logs
     add constraint FKj8bsydiucvs2kygnscp1bt1wy
@@ -160,6 +160,27 @@ export default class MigrationDefinitions extends React.Component {
         },
         property: "status"
       },
+      {
+        header: {
+          label: "Progress",
+          formatters: [headerFormat]
+        },
+        cell: {
+          formatters: [
+            (value, { rowData }) => [
+              <Table.Cell key="0">
+                {rowData.processed === undefined
+                  ? ""
+                  : (rowData.total === undefined
+                      ? rowData.processed
+                      : rowData.processed + " / " + rowData.total) +
+                    (rowData.failed > 0 ? " (" + rowData.failed + " failed)" : "")}
+              </Table.Cell>
+            ]
+          ]
+        },
+        property: "processed"
+      },
       {
         header: {
           label: "Created At",
@@ -17,7 +17,10 @@
 package org.kie.processmigration.model;
 
 import java.net.URI;
+import java.time.Duration;
 import java.time.Instant;
+import java.time.LocalTime;
+import java.time.ZonedDateTime;
 
 import javax.persistence.Column;
 import javax.persistence.Embeddable;
@@ -50,7 +53,8 @@ public class Execution {
         COMPLETED,
         FAILED,
         CANCELLED,
-        CREATED
+        CREATED,
+        PAUSED
     }
 
     @Column(name = "execution_type")
@@ -64,4 +68,85 @@ public class Execution {
     @Column(name = "scheduled_start_time")
     private Instant scheduledStartTime;
 
+    @JsonInclude(Include.NON_NULL)
+    @Column(name = "concurrency")
+    private Integer concurrency;
+
+    @JsonInclude(Include.NON_NULL)
+    @Column(name = "chunk_size")
+    private Integer chunkSize;
+
+    @JsonInclude(Include.NON_NULL)
+    @Column(name = "max_failures")
+    private Integer maxFailures;
+
+    @JsonInclude(Include.NON_NULL)
+    @Column(name = "max_failure_ratio")
+    private Double maxFailureRatio;
+
+    @JsonInclude(Include.NON_NULL)
+    @Column(name = "retry_max_attempts")
+    private Integer retryMaxAttempts;
+
+    @JsonInclude(Include.NON_NULL)
+    @Column(name = "retry_backoff")
+    private Duration retryBackoff;
+
+    @JsonInclude(Include.NON_NULL)
+    @Column(name = "query_timeout")
+    private Duration queryTimeout;
+
+    @JsonInclude(Include.NON_NULL)
+    @Column(name = "admin_timeout")
+    private Duration adminTimeout;
+
+    @JsonInclude(Include.NON_NULL)
+    @Column(name = "hedge_delay")
+    private Duration hedgeDelay;
+
+    @JsonInclude(Include.NON_NULL)
+    @Column(name = "progress_interval")
+    private Duration progressInterval;
+
+    @JsonInclude(Include.NON_NULL)
+    @Column(name = "progress_every")
+    private Integer progressEvery;
+
+    @JsonInclude(Include.NON_NULL)
+    @Column(name = "window_start")
+    private LocalTime windowStart;
+
+    @JsonInclude(Include.NON_NULL)
+    @Column(name = "window_end")
+    private LocalTime windowEnd;
+
+    public boolean hasWindow() {
+        return windowStart != null && windowEnd != null;
+    }
+
+    /*
+     * Returns true if there is no execution window or the given time is within it.
+     * A window ending before its start spans midnight, e.g. 22:00 to 04:00.
+     */
+    public boolean isWithinWindow(ZonedDateTime time) {
+        if (!hasWindow()) {
+            return true;
+        }
+        LocalTime localTime = time.toLocalTime();
+        if (windowStart.isBefore(windowEnd)) {
+            return !localTime.isBefore(windowStart) && localTime.isBefore(windowEnd);
+        }
+        return !localTime.isBefore(windowStart) || localTime.isBefore(windowEnd);
+    }
+
+    /*
+     * Returns the given time if it is within the execution window, otherwise the next time the window opens
+     */
+    public ZonedDateTime nextWindowStart(ZonedDateTime time) {
+        if (isWithinWindow(time)) {
+            return time;
+        }
+        ZonedDateTime start = time.with(windowStart).withNano(0);
+        return start.isAfter(time) ? start : start.plusDays(1);
+    }
 }
@@ -16,6 +16,8 @@
 
 package org.kie.processmigration.model;
 
+import java.time.Duration;
+
 import org.kie.server.api.model.KieServerInfo;
 import org.kie.server.api.model.ServiceResponse;
 import org.kie.server.client.CredentialsProvider;
@@ -51,6 +53,21 @@ public class KieServerConfig {
     @JsonIgnore
     private KieServicesClient client;
 
+    @JsonIgnore
+    private String querySource;
+
+    @JsonIgnore
+    private Integer minConcurrency;
+
+    @JsonIgnore
+    private Integer maxConcurrency;
+
+    @JsonIgnore
+    private Duration targetLatency;
+
+    @JsonIgnore
+    private Integer migrationPermits;
+
     public String getId() {
         if (client == null) {
             return null;
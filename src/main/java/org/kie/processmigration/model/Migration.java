@@ -17,6 +17,8 @@
 package org.kie.processmigration.model;
 
 import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 
 import javax.persistence.Column;
 import javax.persistence.Embedded;
@@ -34,6 +36,7 @@ import org.kie.processmigration.model.Execution.ExecutionType;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonInclude.Include;
 
+import io.quarkus.hibernate.orm.panache.Panache;
 import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
@@ -82,6 +85,152 @@ public class Migration extends PanacheEntityBase {
 
     private ExecutionStatus status;
 
+    @JsonInclude(Include.NON_NULL)
+    private String owner;
+
+    @JsonInclude(Include.NON_NULL)
+    @Column(name = "lease_expires_at")
+    private Instant leaseExpiresAt;
+
+    /* Attempt number while retrying the failed instances, null otherwise */
+    @JsonInclude(Include.NON_NULL)
+    @Column(name = "retry_attempt")
+    private Integer retryAttempt;
+
+    /*
+     * Progress counters. They are only updated with the reports that are persisted, from any node, so they are never
+     * written when the migration is merged. Null total when the instances are discovered and the migration is running.
+     */
+    @JsonInclude(Include.NON_NULL)
+    @Column(updatable = false)
+    private Long total;
+
+    @JsonInclude(Include.NON_NULL)
+    @Column(updatable = false)
+    private Long processed;
+
+    @JsonInclude(Include.NON_NULL)
+    @Column(updatable = false)
+    private Long succeeded;
+
+    @JsonInclude(Include.NON_NULL)
+    @Column(updatable = false)
+    private Long failed;
+
+    /*
+     * Makes the given owner responsible for running the migration unless another owner holds a valid lease.
+     * Must be called within a transaction.
+     */
+    public static boolean acquire(Long id, String owner, Instant now, Instant leaseExpiresAt) {
+        return update("owner = ?1, leaseExpiresAt = ?2 where id = ?3 and (owner is null or owner = ?1 or leaseExpiresAt < ?4)",
+                owner, leaseExpiresAt, id, now) > 0;
+    }
+
+    /*
+     * Extends the lease of the given migrations held by the owner. Must be called within a transaction.
+     */
+    public static int renewLeases(String owner, Collection<Long> ids, Instant leaseExpiresAt) {
+        return update("leaseExpiresAt = ?1 where owner = ?2 and id in ?3", leaseExpiresAt, owner, ids);
+    }
+
+    /*
+     * Returns the ids of the given migrations that are still owned by the owner
+     */
+    public static List<Long> listOwnedIds(String owner, Collection<Long> ids) {
+        return Panache.getEntityManager()
+                .createQuery("select m.id from Migration m where m.owner = :owner and m.id in :ids", Long.class)
+                .setParameter("owner", owner)
+                .setParameter("ids", ids)
+                .getResultList();
+    }
+
+    /*
+     * Returns the pending migrations whose owner did not renew the lease in time
+     */
+    public static List<Migration> findStale(Collection<ExecutionStatus> statuses, Instant now) {
+        return list("status in ?1 and owner is not null and leaseExpiresAt < ?2", statuses, now);
+    }
+
+    /*
+     * Marks the migration as cancelled if it is in one of the given statuses. Must be called within a transaction.
+     */
+    public static boolean markCancelled(Long id, Collection<ExecutionStatus> statuses, Instant now) {
+        return update("status = ?1, cancelledAt = ?2 where id = ?3 and status in ?4", ExecutionStatus.CANCELLED, now, id, statuses) > 0;
+    }
+
+    /*
+     * Changes the status of the migration if it is in one of the given statuses. Must be called within a transaction.
+     */
+    public static boolean updateStatus(Long id, Collection<ExecutionStatus> statuses, ExecutionStatus status) {
+        return update("status = ?1 where id = ?2 and status in ?3", status, id, statuses) > 0;
+    }
+
+    /*
+     * Fails the migration with the given reason if it is in one of the given statuses. Must be called within a transaction.
+     */
+    public static boolean markFailed(Long id, Collection<ExecutionStatus> statuses, String errorMessage, Instant now) {
+        return update("status = ?1, errorMessage = ?2, finishedAt = ?3 where id = ?4 and status in ?5",
+                ExecutionStatus.FAILED, errorMessage, now, id, statuses) > 0;
+    }
+
+    /*
+     * Schedules again a paused migration once no node is running it, i.e. its owner released it or did not renew
+     * its lease in time. Must be called within a transaction.
+     */
+    public static boolean markResumed(Long id, Instant now) {
+        return update("status = ?1 where id = ?2 and status = ?3 and (owner is null or leaseExpiresAt < ?4)",
+                ExecutionStatus.SCHEDULED, id, ExecutionStatus.PAUSED, now) > 0;
+    }
+
+    /*
+     * Schedules the first attempt to retry the failed instances of a failed migration once no node is running it, i.e.
+     * its owner released it or did not renew its lease in time. Must be called within a transaction.
+     */
+    public static boolean markRetrying(Long id, Instant now) {
+        return update("status = ?1, retryAttempt = 1, errorMessage = null, finishedAt = null,"
+                + " processed = coalesce(processed, 0) - coalesce(failed, 0), failed = 0"
+                + " where id = ?2 and status = ?3 and (owner is null or leaseExpiresAt < ?4)",
+                ExecutionStatus.SCHEDULED, id, ExecutionStatus.FAILED, now) > 0;
+    }
+
+    /*
+     * Adds the outcome of the given number of migrated instances to the progress counters.
+     * Must be called within a transaction.
+     */
+    public static void addProgress(Long id, long succeeded, long failed) {
+        update("processed = coalesce(processed, 0) + ?1, succeeded = coalesce(succeeded, 0) + ?2, failed = coalesce(failed, 0) + ?3"
+                + " where id = ?4", succeeded + failed, succeeded, failed, id);
+    }
+
+    /*
+     * Discards the failed instances from the progress counters before retrying them. Must be called within a transaction.
+     */
+    public static void resetFailed(Long id) {
+        update("processed = coalesce(processed, 0) - coalesce(failed, 0), failed = 0 where id = ?1", id);
+    }
+
+    /*
+     * Sets the total of a migration whose instances are known, null if they are discovered.
+     * Must be called within a transaction.
+     */
+    public static void updateTotal(Long id, Long total) {
+        update("total = ?1 where id = ?2", total, id);
+    }
+
+    /*
+     * Sets the total of a migration whose instances have all been discovered. Must be called within a transaction.
+     */
+    public static void completeTotal(Long id, long total) {
+        update("total = ?1 where id = ?2 and total is null", total, id);
+    }
+
+    /*
+     * Returns the given migrations that have been cancelled, paused or aborted
+     */
+    public static List<Migration> findInterrupted(Collection<Long> ids) {
+        return list("id in ?1 and status in ?2", ids, List.of(ExecutionStatus.CANCELLED, ExecutionStatus.PAUSED, ExecutionStatus.FAILED));
+    }
+
     public Migration() {
     }
 
@@ -96,10 +245,35 @@ public class Migration extends PanacheEntityBase {
         } else {
             status = Execution.ExecutionStatus.CREATED;
         }
+        total = getTotal(definition);
+        processed = 0L;
+        succeeded = 0L;
+        failed = 0L;
+    }
+
+    /*
+     * Returns the number of instances listed in the definition, or null if they are discovered
+     */
+    public static Long getTotal(MigrationDefinition definition) {
+        List<Long> processInstanceIds = definition.getProcessInstanceIds();
+        return processInstanceIds == null || processInstanceIds.isEmpty() ? null : Long.valueOf(processInstanceIds.size());
+    }
+
+    /*
+     * Copies the progress counters of the given migration, that are not written when this one is merged
+     */
+    public Migration copyProgress(Migration migration) {
+        total = migration.getTotal();
+        processed = migration.getProcessed();
+        succeeded = migration.getSucceeded();
+        failed = migration.getFailed();
+        return this;
     }
 
     public Migration start() {
-        startedAt = Instant.now();
+        if (startedAt == null) {
+            startedAt = Instant.now();
+        }
         status = ExecutionStatus.STARTED;
         return this;
     }
@@ -114,6 +288,16 @@ public class Migration extends PanacheEntityBase {
         return this;
     }
 
+    public Migration pause() {
+        status = ExecutionStatus.PAUSED;
+        return this;
+    }
+
+    public Migration reschedule() {
+        status = ExecutionStatus.SCHEDULED;
+        return this;
+    }
+
     public Migration cancel() {
         cancelledAt = Instant.now();
         status = ExecutionStatus.CANCELLED;
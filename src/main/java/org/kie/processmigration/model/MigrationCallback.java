@@ -0,0 +1,188 @@
+/*
+ * Copyright 2023 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.processmigration.model;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.LockModeType;
+import javax.persistence.Lob;
+import javax.persistence.Table;
+
+import org.hibernate.LockOptions;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+
+import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
+import io.quarkus.panache.common.Sort;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import lombok.experimental.Accessors;
+
+/*
+ * A callback of a migration waiting to be delivered. Callbacks are stored in the same transaction that updates the
+ * migration and are delivered in the background by any node, which holds a lease on the callback while sending it.
+ * Callbacks being sent with an expired lease, e.g. because their node stopped, are claimed again.
+ */
+@Entity
+@Table(name = "migration_callbacks", indexes = {@Index(columnList = "status"), @Index(columnList = "migration_id")})
+@EqualsAndHashCode(callSuper = false)
+@ToString(exclude = "payload")
+@Accessors(chain = true)
+@Getter
+@Setter
+public class MigrationCallback extends PanacheEntityBase {
+
+    private static final String LOCK_TIMEOUT_HINT = "javax.persistence.lock.timeout";
+
+    public enum CallbackType {
+        COMPLETION,
+        PROGRESS
+    }
+
+    public enum CallbackStatus {
+        PENDING,
+        SENDING,
+        DELIVERED,
+        FAILED,
+        /* A progress callback being sent when the completion callback was stored. It is dropped once sent. */
+        SUPERSEDED
+    }
+
+    @Id
+    private String id;
+
+    @Column(name = "migration_id")
+    private Long migrationId;
+
+    @Column(name = "callback_type")
+    private CallbackType type;
+
+    private String url;
+
+    @JsonIgnore
+    @Lob
+    private String payload;
+
+    private CallbackStatus status;
+
+    private Integer attempts;
+
+    @Column(name = "created_at")
+    private Instant createdAt;
+
+    @JsonInclude(Include.NON_NULL)
+    @Column(name = "next_attempt_at")
+    private Instant nextAttemptAt;
+
+    @JsonInclude(Include.NON_NULL)
+    @Column(name = "delivered_at")
+    private Instant deliveredAt;
+
+    @JsonInclude(Include.NON_NULL)
+    @Column(name = "last_error")
+    private String lastError;
+
+    @JsonIgnore
+    private String owner;
+
+    @JsonIgnore
+    @Column(name = "lease_expires_at")
+    private Instant leaseExpiresAt;
+
+    public MigrationCallback() {
+    }
+
+    public MigrationCallback(Long migrationId, CallbackType type, String url, String payload) {
+        this.id = UUID.randomUUID().toString();
+        this.migrationId = migrationId;
+        this.type = type;
+        this.url = url;
+        this.payload = payload;
+        this.status = CallbackStatus.PENDING;
+        this.attempts = 0;
+        this.createdAt = Instant.now();
+        this.nextAttemptAt = createdAt;
+    }
+
+    /*
+     * Claims up to the given number of due callbacks, or callbacks being sent whose lease has expired, skipping the rows
+     * locked by other nodes. A completion callback is not claimed while a superseded progress callback of the same
+     * migration is still being sent, so that it is always the last one received. Must be called within a transaction.
+     */
+    public static List<MigrationCallback> claim(String owner, Instant now, Instant leaseExpiresAt, int maxCallbacks) {
+        List<MigrationCallback> callbacks = MigrationCallback.<MigrationCallback>find(
+                        "from MigrationCallback c where ((c.status = ?1 and c.nextAttemptAt <= ?2) or (c.status = ?3 and c.leaseExpiresAt < ?2))"
+                                + " and (c.type = ?4 or not exists (select p.id from MigrationCallback p where p.migrationId = c.migrationId"
+                                + " and p.status = ?5 and p.leaseExpiresAt >= ?2))",
+                        CallbackStatus.PENDING, now, CallbackStatus.SENDING, CallbackType.PROGRESS, CallbackStatus.SUPERSEDED)
+                .withLock(LockModeType.PESSIMISTIC_WRITE)
+                .withHint(LOCK_TIMEOUT_HINT, LockOptions.SKIP_LOCKED)
+                .page(0, maxCallbacks)
+                .list();
+        callbacks.forEach(callback -> callback.setStatus(CallbackStatus.SENDING).setOwner(owner).setLeaseExpiresAt(leaseExpiresAt));
+        return callbacks;
+    }
+
+    /*
+     * Records the outcome of a delivery attempt if the callback is still owned by the given owner. A callback superseded
+     * while being sent is deleted instead. Must be called within a transaction.
+     */
+    public static boolean complete(String id, String owner, CallbackStatus status, int attempts, Instant nextAttemptAt,
+                                   Instant deliveredAt, String lastError) {
+        if (update("status = ?1, attempts = ?2, nextAttemptAt = ?3, deliveredAt = ?4, lastError = ?5, owner = null,"
+                        + " leaseExpiresAt = null where id = ?6 and owner = ?7 and status = ?8",
+                status, attempts, nextAttemptAt, deliveredAt, lastError, id, owner, CallbackStatus.SENDING) > 0) {
+            return true;
+        }
+        return delete("id = ?1 and owner = ?2 and status = ?3", id, owner, CallbackStatus.SUPERSEDED) > 0;
+    }
+
+    /*
+     * Returns and locks the progress callback of the migration that has not been sent yet, if any.
+     * Must be called within a transaction.
+     */
+    public static MigrationCallback findPendingProgress(Long migrationId) {
+        return MigrationCallback.<MigrationCallback>find("migrationId = ?1 and type = ?2 and status = ?3",
+                migrationId, CallbackType.PROGRESS, CallbackStatus.PENDING)
+                .withLock(LockModeType.PESSIMISTIC_WRITE)
+                .firstResult();
+    }
+
+    /*
+     * Discards the progress callbacks of the migration not sent yet and flags the ones being sent as superseded.
+     * Must be called within a transaction.
+     */
+    public static void supersedeProgress(Long migrationId) {
+        delete("migrationId = ?1 and type = ?2 and status = ?3", migrationId, CallbackType.PROGRESS, CallbackStatus.PENDING);
+        update("status = ?1 where migrationId = ?2 and type = ?3 and status = ?4",
+                CallbackStatus.SUPERSEDED, migrationId, CallbackType.PROGRESS, CallbackStatus.SENDING);
+    }
+
+    public static List<MigrationCallback> listByMigrationId(Long migrationId) {
+        return list("migrationId", Sort.by("createdAt"), migrationId);
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright 2023 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.processmigration.model;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.IdClass;
+import javax.persistence.Index;
+import javax.persistence.LockModeType;
+import javax.persistence.Lob;
+import javax.persistence.Table;
+
+import org.hibernate.LockOptions;
+
+import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import lombok.experimental.Accessors;
+
+/*
+ * A chunk of the process instances of a migration that can be claimed and migrated by any node of the cluster.
+ * The claiming node holds a lease on the chunk that it renews while migrating it. Running chunks with an expired
+ * lease can be claimed again. A chunk that the claiming node fails to migrate is released so that any node can
+ * claim it again right away.
+ */
+@Entity
+@Table(name = "migration_chunks", indexes = {@Index(columnList = "status")})
+@IdClass(MigrationChunk.Key.class)
+@EqualsAndHashCode(callSuper = false)
+@ToString
+@Accessors(chain = true)
+@Getter
+@Setter
+public class MigrationChunk extends PanacheEntityBase {
+
+    private static final String LOCK_TIMEOUT_HINT = "javax.persistence.lock.timeout";
+    private static final String ID_SEPARATOR = ",";
+
+    public enum ChunkStatus {
+        PENDING,
+        RUNNING,
+        COMPLETED
+    }
+
+    @Id
+    @Column(name = "migration_id")
+    private Long migrationId;
+
+    @Id
+    @Column(name = "chunk_index")
+    private Integer chunkIndex;
+
+    private ChunkStatus status;
+
+    private String owner;
+
+    @Column(name = "lease_expires_at")
+    private Instant leaseExpiresAt;
+
+    @Column(name = "instance_ids")
+    @Lob
+    private String instanceIds;
+
+    public MigrationChunk() {
+    }
+
+    public MigrationChunk(Long migrationId, Integer chunkIndex, List<Long> instanceIds) {
+        this.migrationId = migrationId;
+        this.chunkIndex = chunkIndex;
+        this.status = ChunkStatus.PENDING;
+        this.instanceIds = instanceIds.stream().map(String::valueOf).collect(Collectors.joining(ID_SEPARATOR));
+    }
+
+    public List<Long> getInstanceIdList() {
+        if (instanceIds == null || instanceIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return Arrays.stream(instanceIds.split(ID_SEPARATOR)).map(Long::valueOf).collect(Collectors.toList());
+    }
+
+    /*
+     * Claims up to the given number of pending chunks, or running chunks whose lease has expired, of the started
+     * migrations, skipping the rows locked by other nodes. The chunks of paused or rescheduled migrations are kept
+     * until the migration starts again. Must be called within a transaction.
+     */
+    public static List<MigrationChunk> claim(String owner, Instant now, Instant leaseExpiresAt, int maxChunks) {
+        List<MigrationChunk> chunks = MigrationChunk.<MigrationChunk>find("(status = ?1 or (status = ?2 and leaseExpiresAt < ?3))"
+                                + " and migrationId in (select m.id from Migration m where m.status = ?4)",
+                        ChunkStatus.PENDING, ChunkStatus.RUNNING, now, Execution.ExecutionStatus.STARTED)
+                .withLock(LockModeType.PESSIMISTIC_WRITE)
+                .withHint(LOCK_TIMEOUT_HINT, LockOptions.SKIP_LOCKED)
+                .page(0, maxChunks)
+                .list();
+        chunks.forEach(chunk -> chunk.setStatus(ChunkStatus.RUNNING).setOwner(owner).setLeaseExpiresAt(leaseExpiresAt));
+        return chunks;
+    }
+
+    /*
+     * Extends the lease of the given chunk if it is still being migrated by the given owner.
+     * Must be called within a transaction.
+     */
+    public static boolean renewLease(Long migrationId, Integer chunkIndex, String owner, Instant leaseExpiresAt) {
+        return update("leaseExpiresAt = ?1 where migrationId = ?2 and chunkIndex = ?3 and owner = ?4 and status = ?5",
+                leaseExpiresAt, migrationId, chunkIndex, owner, ChunkStatus.RUNNING) > 0;
+    }
+
+    /*
+     * Makes the chunk pending again if it is still owned by the given owner. Must be called within a transaction.
+     */
+    public static boolean release(Long migrationId, Integer chunkIndex, String owner) {
+        return update("status = ?1, owner = null, leaseExpiresAt = null where migrationId = ?2 and chunkIndex = ?3 and owner = ?4 and status = ?5",
+                ChunkStatus.PENDING, migrationId, chunkIndex, owner, ChunkStatus.RUNNING) > 0;
+    }
+
+    /*
+     * Marks the chunk as completed if it is still owned by the given owner. Must be called within a transaction.
+     */
+    public static boolean complete(Long migrationId, Integer chunkIndex, String owner) {
+        return update("status = ?1 where migrationId = ?2 and chunkIndex = ?3 and owner = ?4",
+                ChunkStatus.COMPLETED, migrationId, chunkIndex, owner) > 0;
+    }
+
+    public static long countUnfinished(Long migrationId) {
+        return count("migrationId = ?1 and status <> ?2", migrationId, ChunkStatus.COMPLETED);
+    }
+
+    @Getter
+    @Setter
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private Long migrationId;
+        private Integer chunkIndex;
+
+        public Key() {
+        }
+
+        public Key(Long migrationId, Integer chunkIndex) {
+            this.migrationId = migrationId;
+            this.chunkIndex = chunkIndex;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2023 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.processmigration.model;
+
+import java.time.Instant;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import lombok.experimental.Accessors;
+
+/*
+ * Payload of the progress callbacks of a running migration
+ */
+@EqualsAndHashCode
+@ToString
+@Accessors(chain = true)
+@Getter
+@Setter
+public class MigrationProgress {
+
+    private Long migrationId;
+
+    private Execution.ExecutionStatus status;
+
+    /* Null when the instances are discovered while they are migrated */
+    @JsonInclude(Include.NON_NULL)
+    private Long total;
+
+    private long processed;
+
+    private long succeeded;
+
+    private long failed;
+
+    /* Instances migrated per second since the migration started or was resumed */
+    private double throughput;
+
+    /* Null when the total is not known yet */
+    @JsonInclude(Include.NON_NULL)
+    private Instant estimatedCompletion;
+
+    private Instant startedAt;
+
+    private Instant reportedAt;
+}
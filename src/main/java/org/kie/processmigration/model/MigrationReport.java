@@ -18,7 +18,9 @@ package org.kie.processmigration.model;
 
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 import javax.persistence.CollectionTable;
 import javax.persistence.Column;
@@ -35,8 +37,11 @@ import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
 import javax.transaction.Transactional;
 
+import org.hibernate.Session;
+import org.hibernate.jpa.QueryHints;
 import org.kie.server.api.model.admin.MigrationReportInstance;
 
+import io.quarkus.hibernate.orm.panache.Panache;
 import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
@@ -53,6 +58,10 @@ import lombok.experimental.Accessors;
 @Setter
 public class MigrationReport extends PanacheEntityBase {
 
+    private static final int FETCH_SIZE = 1000;
+    private static final String NOT_MIGRATED = "not exists (select s.id from MigrationReport s where s.migrationId = r.migrationId"
+            + " and s.processInstanceId = r.processInstanceId and s.successful = true)";
+
     @Id
     @GeneratedValue(strategy = GenerationType.AUTO, generator = "migRepIdSeq")
     @SequenceGenerator(name = "migRepIdSeq", sequenceName = "MIG_REP_ID_SEQ")
@@ -83,11 +92,95 @@ public class MigrationReport extends PanacheEntityBase {
     )
     private List<String> logs;
 
+    /*
+     * Persists the given reports sending their inserts in JDBC batches of the same size, so that the JDBC batching
+     * follows the configured report batch size. Must be called within a transaction.
+     */
+    public static void persistBatch(List<MigrationReport> reports) {
+        Panache.getEntityManager().unwrap(Session.class).setJdbcBatchSize(reports.size());
+        reports.forEach(MigrationReport::persist);
+    }
+
     @Transactional
     public static List<MigrationReport> listByMigrationId(Long id) {
         return list("migrationId", id);
     }
 
+    /*
+     * Streams the migrated process instance ids without loading the reports nor their logs.
+     * Must be consumed within a transaction.
+     */
+    public static Stream<Long> streamProcessInstanceIds(Long migrationId) {
+        return Panache.getEntityManager()
+                .createQuery("select r.processInstanceId from MigrationReport r where r.migrationId = :migrationId", Long.class)
+                .setParameter("migrationId", migrationId)
+                .setHint(QueryHints.HINT_FETCH_SIZE, FETCH_SIZE)
+                .getResultStream();
+    }
+
+    /*
+     * Streams the successfully migrated process instance ids without loading the reports nor their logs.
+     * Must be consumed within a transaction.
+     */
+    public static Stream<Long> streamSuccessfulProcessInstanceIds(Long migrationId) {
+        return Panache.getEntityManager()
+                .createQuery("select r.processInstanceId from MigrationReport r where r.migrationId = :migrationId"
+                        + " and r.successful = true", Long.class)
+                .setParameter("migrationId", migrationId)
+                .setHint(QueryHints.HINT_FETCH_SIZE, FETCH_SIZE)
+                .getResultStream();
+    }
+
+    /*
+     * Returns which of the given process instances have already been reported. Must be called within a transaction.
+     */
+    public static List<Long> listProcessInstanceIds(Long migrationId, Collection<Long> processInstanceIds) {
+        return Panache.getEntityManager()
+                .createQuery("select r.processInstanceId from MigrationReport r where r.migrationId = :migrationId"
+                        + " and r.processInstanceId in :processInstanceIds", Long.class)
+                .setParameter("migrationId", migrationId)
+                .setParameter("processInstanceIds", processInstanceIds)
+                .getResultList();
+    }
+
+    /*
+     * Returns which of the given process instances have been successfully migrated. Must be called within a transaction.
+     */
+    public static List<Long> listSuccessfulProcessInstanceIds(Long migrationId, Collection<Long> processInstanceIds) {
+        return Panache.getEntityManager()
+                .createQuery("select r.processInstanceId from MigrationReport r where r.migrationId = :migrationId"
+                        + " and r.processInstanceId in :processInstanceIds and r.successful = true", Long.class)
+                .setParameter("migrationId", migrationId)
+                .setParameter("processInstanceIds", processInstanceIds)
+                .getResultList();
+    }
+
+    /*
+     * Returns the process instances that failed to migrate in every attempt. An instance successfully migrated is
+     * never attempted again, so these are the instances whose latest report is failed. Must be called within a transaction.
+     */
+    public static List<Long> listFailedProcessInstanceIds(Long migrationId) {
+        return Panache.getEntityManager()
+                .createQuery("select distinct r.processInstanceId from MigrationReport r where r.migrationId = :migrationId"
+                        + " and r.successful = false and " + NOT_MIGRATED, Long.class)
+                .setParameter("migrationId", migrationId)
+                .setHint(QueryHints.HINT_FETCH_SIZE, FETCH_SIZE)
+                .getResultList();
+    }
+
+    /*
+     * Returns true if any process instance failed to migrate in every attempt. Must be called within a transaction.
+     */
+    public static boolean hasFailedProcessInstances(Long migrationId) {
+        return !Panache.getEntityManager()
+                .createQuery("select r.id from MigrationReport r where r.migrationId = :migrationId"
+                        + " and r.successful = false and " + NOT_MIGRATED, Long.class)
+                .setParameter("migrationId", migrationId)
+                .setMaxResults(1)
+                .getResultList()
+                .isEmpty();
+    }
+
     public MigrationReport() {
     }
 
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2023 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.processmigration.model.config;
+
+import java.time.Duration;
+
+import io.smallrye.config.ConfigMapping;
+import io.smallrye.config.WithDefault;
+import io.smallrye.config.WithName;
+
+@ConfigMapping(prefix = "pim.callbacks")
+public interface Callbacks {
+
+    @WithDefault("4")
+    int concurrency();
+
+    @WithName("max-attempts")
+    @WithDefault("10")
+    int maxAttempts();
+
+    @WithDefault("5S")
+    Duration backoff();
+
+    @WithName("max-backoff")
+    @WithDefault("10M")
+    Duration maxBackoff();
+
+    @WithDefault("30S")
+    Duration timeout();
+
+    @WithName("poll-interval")
+    @WithDefault("1S")
+    Duration pollInterval();
+
+    @WithDefault("2M")
+    Duration lease();
+
+    @WithName("min-progress-interval")
+    @WithDefault("10S")
+    Duration minProgressInterval();
+}
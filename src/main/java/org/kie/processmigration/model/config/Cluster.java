@@ -0,0 +1,48 @@
+/*
+ * Copyright 2023 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.processmigration.model.config;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import io.smallrye.config.ConfigMapping;
+import io.smallrye.config.WithDefault;
+import io.smallrye.config.WithName;
+
+@ConfigMapping(prefix = "pim.cluster")
+public interface Cluster {
+
+    @WithDefault("false")
+    boolean enabled();
+
+    @WithName("node-id")
+    Optional<String> nodeId();
+
+    @WithName("chunk-size")
+    @WithDefault("500")
+    int chunkSize();
+
+    @WithDefault("1")
+    int workers();
+
+    @WithDefault("2M")
+    Duration lease();
+
+    @WithName("poll-interval")
+    @WithDefault("5S")
+    Duration pollInterval();
+}
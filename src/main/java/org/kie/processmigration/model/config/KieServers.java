@@ -16,6 +16,7 @@
 
 package org.kie.processmigration.model.config;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
 
@@ -41,5 +42,20 @@ public interface KieServers {
 
         @WithName("credentials-provider")
         Optional<String> credentialsProvider();
+
+        @WithName("query-source")
+        Optional<String> querySource();
+
+        @WithName("min-concurrency")
+        Optional<Integer> minConcurrency();
+
+        @WithName("max-concurrency")
+        Optional<Integer> maxConcurrency();
+
+        @WithName("target-latency")
+        Optional<Duration> targetLatency();
+
+        @WithName("migration-permits")
+        Optional<Integer> migrationPermits();
     }
 }
@@ -16,8 +16,8 @@
 package org.kie.processmigration.rest;
 
 import java.util.List;
-import java.util.Map;
-import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
 
 import javax.inject.Inject;
 import javax.ws.rs.DefaultValue;
@@ -29,7 +29,6 @@ import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 
-import org.kie.processmigration.model.ProcessInfo;
 import org.kie.processmigration.model.ProcessRef;
 import org.kie.processmigration.model.RunningInstance;
 import org.kie.processmigration.model.exceptions.InvalidKieServerException;
@@ -55,38 +54,40 @@ public class KieServiceResource {
 
     @GET
     @Path("/{kieServerId}/definitions")
-    public Response getDefinitions(@PathParam("kieServerId") String kieServerId) throws InvalidKieServerException {
-        Map<String, Set<String>> definitions = kieService.getDefinitions(kieServerId);
-        return Response.ok(definitions).build();
+    public CompletionStage<Response> getDefinitions(@PathParam("kieServerId") String kieServerId) throws InvalidKieServerException {
+        return kieService.getDefinitionsAsync(kieServerId).thenApply(definitions -> Response.ok(definitions).build());
     }
 
     @GET
     @Path("/{kieServerId}/definitions/{containerId}/{processId}")
-    public Response getDefinition(
+    public CompletionStage<Response> getDefinition(
             @PathParam("kieServerId") String kieServerId,
             @PathParam("containerId") String containerId,
             @PathParam("processId") String processId
     ) throws InvalidKieServerException {
-        try {
-            ProcessInfo definition = kieService.getDefinition(kieServerId, new ProcessRef().setContainerId(containerId).setProcessId(processId));
-            return Response.ok(definition).build();
-        } catch (ProcessDefinitionNotFoundException e) {
-            return Response.status(Response.Status.NOT_FOUND).entity(e.getMessage()).build();
-        }
+        return kieService.getDefinitionAsync(kieServerId, new ProcessRef().setContainerId(containerId).setProcessId(processId))
+                .thenApply(definition -> Response.ok(definition).build())
+                .exceptionally(e -> {
+                    Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                    if (cause instanceof ProcessDefinitionNotFoundException) {
+                        return Response.status(Response.Status.NOT_FOUND).entity(cause.getMessage()).build();
+                    }
+                    throw e instanceof CompletionException ? (CompletionException) e : new CompletionException(e);
+                });
     }
 
     @GET
     @Path("/{kieServerId}/instances/{containerId}")
-    public Response getRunningInstances(@PathParam("kieServerId") String kieServerId,
-                                        @PathParam("containerId") String containerId,
-                                        @DefaultValue(DEFAULT_PAGE) @QueryParam("page") Integer page,
-                                        @DefaultValue(DEFAULT_PAGE_SIZE) @QueryParam("pageSize") Integer pageSize,
-                                        @DefaultValue(DEFAULT_SORT_COLUMN) @QueryParam("sortBy") String sortBy,
-                                        @DefaultValue(DEFAULT_SORT_ORDER) @QueryParam("orderBy") String orderBy) throws InvalidKieServerException {
-        List<RunningInstance> result = kieService.getRunningInstances(kieServerId, containerId, page, pageSize, sortBy, orderBy);
-        Long total = kieService.countRunningInstances(kieServerId, containerId);
-        return Response.ok(result)
-                .header("X-Total-Count", total)
-                .build();
+    public CompletionStage<Response> getRunningInstances(@PathParam("kieServerId") String kieServerId,
+                                                         @PathParam("containerId") String containerId,
+                                                         @DefaultValue(DEFAULT_PAGE) @QueryParam("page") Integer page,
+                                                         @DefaultValue(DEFAULT_PAGE_SIZE) @QueryParam("pageSize") Integer pageSize,
+                                                         @DefaultValue(DEFAULT_SORT_COLUMN) @QueryParam("sortBy") String sortBy,
+                                                         @DefaultValue(DEFAULT_SORT_ORDER) @QueryParam("orderBy") String orderBy) throws InvalidKieServerException {
+        CompletionStage<List<RunningInstance>> instances = kieService.getRunningInstancesAsync(kieServerId, containerId, page, pageSize, sortBy, orderBy);
+        CompletionStage<Long> total = kieService.countRunningInstancesAsync(kieServerId, containerId);
+        return instances.thenCombine(total, (result, count) -> Response.ok(result)
+                .header("X-Total-Count", count)
+                .build());
     }
 }
@@ -35,6 +35,7 @@ import javax.ws.rs.core.SecurityContext;
 import org.kie.processmigration.model.Execution.ExecutionType;
 import org.kie.processmigration.model.Migration;
 import org.kie.processmigration.model.MigrationDefinition;
+import org.kie.processmigration.model.RetryDefinition;
 import org.kie.processmigration.model.exceptions.InvalidMigrationException;
 import org.kie.processmigration.model.exceptions.MigrationNotFoundException;
 import org.kie.processmigration.model.exceptions.ReScheduleException;
@@ -73,6 +74,12 @@ public class MigrationResource {
         return Response.ok(migrationService.getResults(id)).build();
     }
 
+    @GET
+    @Path("/{id}/callbacks")
+    public Response getCallbacks(@PathParam("id") Long id) throws MigrationNotFoundException {
+        return Response.ok(migrationService.getCallbacks(id)).build();
+    }
+
     @GET
     @Path("/{id}/results/{logId}")
     public Response getResultLog(@PathParam("id") Long id, @PathParam("logId") Long logId) {
@@ -98,6 +105,30 @@ public class MigrationResource {
         return Response.ok(migration).build();
     }
 
+    @POST
+    @Path("/{id}/cancel")
+    public Response cancel(@PathParam("id") Long id) throws MigrationNotFoundException, InvalidMigrationException {
+        return Response.ok(migrationService.cancel(id)).build();
+    }
+
+    @POST
+    @Path("/{id}/pause")
+    public Response pause(@PathParam("id") Long id) throws MigrationNotFoundException, InvalidMigrationException {
+        return Response.ok(migrationService.pause(id)).build();
+    }
+
+    @POST
+    @Path("/{id}/resume")
+    public Response resume(@PathParam("id") Long id) throws MigrationNotFoundException, InvalidMigrationException {
+        return Response.ok(migrationService.resume(id)).build();
+    }
+
+    @POST
+    @Path("/{id}/retry")
+    public Response retryFailed(@PathParam("id") Long id, RetryDefinition retry) throws MigrationNotFoundException, InvalidMigrationException {
+        return Response.ok(migrationService.retryFailed(id, retry)).build();
+    }
+
     @DELETE
     @Path("/{id}")
     public Response delete(@PathParam("id") Long id) throws MigrationNotFoundException {
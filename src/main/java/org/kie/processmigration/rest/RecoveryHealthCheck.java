@@ -0,0 +1,48 @@
+/*
+ * Copyright 2023 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.processmigration.rest;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+
+import org.eclipse.microprofile.health.HealthCheck;
+import org.eclipse.microprofile.health.HealthCheckResponse;
+import org.eclipse.microprofile.health.Readiness;
+import org.kie.processmigration.service.RecoveryService;
+
+/*
+ * Exposes the progress of the recovery of pending migrations. The recovery runs in the background and never
+ * prevents the service from being ready.
+ */
+@Readiness
+@ApplicationScoped
+public class RecoveryHealthCheck implements HealthCheck {
+
+    @Inject
+    RecoveryService recoveryService;
+
+    @Override
+    public HealthCheckResponse call() {
+        return HealthCheckResponse.named("migration-recovery")
+                .withData("total", recoveryService.getTotal())
+                .withData("resumed", recoveryService.getResumed())
+                .withData("failed", recoveryService.getFailed())
+                .withData("remaining", recoveryService.getRemaining())
+                .up()
+                .build();
+    }
+}
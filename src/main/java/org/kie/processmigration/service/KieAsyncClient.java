@@ -0,0 +1,207 @@
+/*
+ * Copyright 2023 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.processmigration.service;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.kie.server.api.exception.KieServicesException;
+import org.kie.server.api.exception.KieServicesHttpException;
+import org.kie.server.api.marshalling.Marshaller;
+import org.kie.server.api.marshalling.MarshallerFactory;
+import org.kie.server.api.marshalling.MarshallingFormat;
+import org.kie.server.api.model.KieContainerResource;
+import org.kie.server.api.model.KieContainerResourceList;
+import org.kie.server.api.model.KieServiceResponse;
+import org.kie.server.api.model.ServiceResponse;
+import org.kie.server.api.model.admin.MigrationReportInstance;
+import org.kie.server.api.model.admin.MigrationReportInstanceList;
+import org.kie.server.api.model.definition.ProcessDefinition;
+import org.kie.server.api.model.definition.ProcessDefinitionList;
+import org.kie.server.api.model.instance.ProcessInstance;
+import org.kie.server.api.model.instance.ProcessInstanceList;
+import org.kie.server.client.CredentialsProvider;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.vertx.core.Future;
+import io.vertx.core.http.HttpClient;
+import io.vertx.core.http.HttpClientResponse;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.http.RequestOptions;
+
+/*
+ * Non-blocking client for the few KIE Server REST endpoints used by the service, built on the Vert.x HTTP client.
+ * It uses the same endpoints, credentials and JSON marshalling as the blocking KieServicesClient but does not park
+ * the calling thread while waiting for the reply, so that the callers can compose several requests.
+ */
+public class KieAsyncClient {
+
+    private static final String KIE_CONTENT_TYPE_HEADER = "X-KIE-ContentType";
+    private static final String APPLICATION_JSON = "application/json";
+    private static final String APPLICATION_SVG_XML = "application/svg+xml";
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    private final HttpClient httpClient;
+    private final String host;
+    private final CredentialsProvider credentialsProvider;
+    private final Duration timeout;
+    private final Marshaller marshaller;
+
+    public KieAsyncClient(HttpClient httpClient, String host, CredentialsProvider credentialsProvider, Duration timeout) {
+        this.httpClient = httpClient;
+        this.host = host;
+        this.credentialsProvider = credentialsProvider;
+        this.timeout = timeout;
+        this.marshaller = MarshallerFactory.getMarshaller(MarshallingFormat.JSON, KieAsyncClient.class.getClassLoader());
+    }
+
+    /*
+     * Returns a client sending its requests with the given timeout through the same connections
+     */
+    public KieAsyncClient withTimeout(Duration timeout) {
+        return new KieAsyncClient(httpClient, host, credentialsProvider, timeout);
+    }
+
+    public CompletionStage<List<String>> listContainers() {
+        return get("/containers", APPLICATION_JSON, content -> {
+            ServiceResponse<?> response = marshaller.unmarshall(content, ServiceResponse.class);
+            if (!KieServiceResponse.ResponseType.SUCCESS.equals(response.getType())) {
+                throw new KieServicesException(response.getMsg());
+            }
+            KieContainerResourceList containers = (KieContainerResourceList) response.getResult();
+            if (containers == null || containers.getContainers() == null) {
+                return Collections.<String>emptyList();
+            }
+            return containers.getContainers().stream().map(KieContainerResource::getContainerId).collect(Collectors.toList());
+        });
+    }
+
+    public CompletionStage<List<ProcessDefinition>> findProcessesByContainerId(String containerId, int page, int pageSize) {
+        return get("/queries/containers/" + encode(containerId) + "/processes/definitions?page=" + page + "&pageSize=" + pageSize,
+                APPLICATION_JSON, content -> itemsOf(marshaller.unmarshall(content, ProcessDefinitionList.class).getItems()));
+    }
+
+    public CompletionStage<ProcessDefinition> getProcessDefinition(String containerId, String processId) {
+        return get("/containers/" + encode(containerId) + "/processes/definitions/" + encode(processId),
+                APPLICATION_JSON, content -> marshaller.unmarshall(content, ProcessDefinition.class));
+    }
+
+    public CompletionStage<String> getProcessImage(String containerId, String processId) {
+        return get("/containers/" + encode(containerId) + "/images/processes/" + encode(processId),
+                APPLICATION_SVG_XML, Function.identity());
+    }
+
+    public CompletionStage<List<ProcessInstance>> findProcessInstancesByContainerId(String containerId, List<Integer> statuses,
+                                                                                     int page, int pageSize, String sort,
+                                                                                     boolean sortOrder) {
+        return get("/queries/containers/" + encode(containerId) + "/process/instances?" + statusParams(statuses)
+                        + "&page=" + page + "&pageSize=" + pageSize + "&sort=" + encode(sort) + "&sortOrder=" + sortOrder,
+                APPLICATION_JSON, content -> itemsOf(marshaller.unmarshall(content, ProcessInstanceList.class).getItems()));
+    }
+
+    public CompletionStage<Long> countProcessInstancesByContainerId(String containerId, List<Integer> statuses) {
+        return get("/queries/containers/" + encode(containerId) + "/process/instances/count?" + statusParams(statuses),
+                APPLICATION_JSON, content -> {
+                    try {
+                        return mapper.readTree(content).path("count").asLong();
+                    } catch (Exception e) {
+                        throw new KieServicesException("Unable to read the process instances count", e);
+                    }
+                });
+    }
+
+    public CompletionStage<MigrationReportInstance> migrateProcessInstance(String containerId, Long processInstanceId,
+                                                                           String targetContainerId, String targetProcessId,
+                                                                           Map<String, String> nodeMapping) {
+        return send(HttpMethod.PUT, "/admin/containers/" + encode(containerId) + "/processes/instances/" + processInstanceId
+                        + "?targetContainerId=" + encode(targetContainerId) + "&targetProcessId=" + encode(targetProcessId),
+                nodeMappingOf(nodeMapping), APPLICATION_JSON, content -> marshaller.unmarshall(content, MigrationReportInstance.class));
+    }
+
+    public CompletionStage<List<MigrationReportInstance>> migrateProcessInstances(String containerId, List<Long> processInstanceIds,
+                                                                                  String targetContainerId, String targetProcessId,
+                                                                                  Map<String, String> nodeMapping) {
+        String instanceParams = processInstanceIds.stream().map(id -> "pInstanceId=" + id).collect(Collectors.joining("&"));
+        return send(HttpMethod.PUT, "/admin/containers/" + encode(containerId) + "/processes/instances?" + instanceParams
+                        + "&targetContainerId=" + encode(targetContainerId) + "&targetProcessId=" + encode(targetProcessId),
+                nodeMappingOf(nodeMapping), APPLICATION_JSON,
+                content -> itemsOf(marshaller.unmarshall(content, MigrationReportInstanceList.class).getItems()));
+    }
+
+    private <T> CompletionStage<T> get(String path, String accept, Function<String, T> reader) {
+        return send(HttpMethod.GET, path, null, accept, reader);
+    }
+
+    private <T> CompletionStage<T> send(HttpMethod method, String path, Object body, String accept, Function<String, T> reader) {
+        String uri = host + path;
+        RequestOptions options = new RequestOptions()
+                .setMethod(method)
+                .setAbsoluteURI(uri)
+                .setTimeout(timeout.toMillis())
+                .putHeader(HttpHeaders.ACCEPT.toString(), accept)
+                .putHeader(KIE_CONTENT_TYPE_HEADER, MarshallingFormat.JSON.name());
+        if (credentialsProvider != null && credentialsProvider.getAuthorization() != null) {
+            options.putHeader(credentialsProvider.getHeaderName(), credentialsProvider.getAuthorization());
+        }
+        return httpClient.request(options)
+                .compose(request -> {
+                    if (body == null) {
+                        return request.send();
+                    }
+                    request.putHeader(HttpHeaders.CONTENT_TYPE, APPLICATION_JSON);
+                    return request.send(marshaller.marshall(body));
+                })
+                .compose(response -> read(response, uri, reader))
+                .toCompletionStage();
+    }
+
+    private static <T> Future<T> read(HttpClientResponse response, String uri, Function<String, T> reader) {
+        return response.body().map(buffer -> {
+            String content = buffer.toString(StandardCharsets.UTF_8);
+            if (response.statusCode() < 200 || response.statusCode() >= 300) {
+                throw new KieServicesHttpException("Unexpected HTTP response code: " + response.statusCode(),
+                        response.statusCode(), uri, content);
+            }
+            return reader.apply(content);
+        });
+    }
+
+    private static Map<String, String> nodeMappingOf(Map<String, String> nodeMapping) {
+        return nodeMapping == null ? Collections.emptyMap() : nodeMapping;
+    }
+
+    private static <T> List<T> itemsOf(List<T> items) {
+        return items == null ? Collections.emptyList() : items;
+    }
+
+    private static String statusParams(List<Integer> statuses) {
+        return statuses.stream().map(status -> "status=" + status).collect(Collectors.joining("&"));
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8).replace("+", "%20");
+    }
+}
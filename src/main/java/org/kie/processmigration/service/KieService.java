@@ -16,17 +16,18 @@
 
 package org.kie.processmigration.service;
 
+import java.time.Duration;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletionStage;
 
 import org.kie.processmigration.model.KieServerConfig;
 import org.kie.processmigration.model.ProcessInfo;
 import org.kie.processmigration.model.ProcessRef;
 import org.kie.processmigration.model.RunningInstance;
 import org.kie.processmigration.model.exceptions.InvalidKieServerException;
-import org.kie.processmigration.model.exceptions.ProcessDefinitionNotFoundException;
 import org.kie.server.client.KieServicesClient;
 import org.kie.server.client.QueryServicesClient;
 import org.kie.server.client.admin.ProcessAdminServicesClient;
@@ -37,19 +38,35 @@ public interface KieService {
 
     QueryServicesClient getQueryServicesClient(String kieServerId) throws InvalidKieServerException;
 
+    KieAsyncClient getAsyncClient(String kieServerId) throws InvalidKieServerException;
+
+    KieAsyncClient getAsyncClient(String kieServerId, Duration timeout) throws InvalidKieServerException;
+
+    QueryServicesClient getQueryServicesClient(String kieServerId, Duration timeout) throws InvalidKieServerException;
+
     Collection<KieServerConfig> getConfigs();
 
+    KieServerConfig getConfig(String kieServerId) throws InvalidKieServerException;
+
     boolean hasKieServer(String kieServerId);
 
-    Map<String, Set<String>> getDefinitions(String kieServerId) throws InvalidKieServerException;
+    CompletionStage<Map<String, Set<String>>> getDefinitionsAsync(String kieServerId) throws InvalidKieServerException;
 
-    ProcessInfo getDefinition(String kieServerId, ProcessRef processRef) throws ProcessDefinitionNotFoundException, InvalidKieServerException;
+    CompletionStage<ProcessInfo> getDefinitionAsync(String kieServerId, ProcessRef processRef) throws InvalidKieServerException;
 
     boolean existsProcessDefinition(String kieServerId, ProcessRef processRef) throws InvalidKieServerException;
 
-    List<RunningInstance> getRunningInstances(String kieServerId, String containerId, Integer page, Integer pageSize, String sortBy, String orderBy) throws InvalidKieServerException;
+    CompletionStage<List<RunningInstance>> getRunningInstancesAsync(String kieServerId, String containerId, Integer page, Integer pageSize, String sortBy, String orderBy) throws InvalidKieServerException;
 
-    Long countRunningInstances(String kieServerId, String containerId) throws InvalidKieServerException;
+    CompletionStage<Long> countRunningInstancesAsync(String kieServerId, String containerId) throws InvalidKieServerException;
 
     KieServicesClient getClient(String kieServerId) throws InvalidKieServerException;
+
+    /*
+     * Registers a custom query in the KIE Server, using its configured query source, unless it has already been
+     * registered by this instance. Returns false if the query cannot be registered.
+     */
+    boolean registerQuery(String kieServerId, String name, String expression) throws InvalidKieServerException;
+
+    boolean isReachable(String kieServerId);
 }
@@ -16,12 +16,15 @@
 
 package org.kie.processmigration.service;
 
+import java.time.Duration;
 import java.util.List;
 
 import org.kie.processmigration.model.Migration;
+import org.kie.processmigration.model.MigrationCallback;
 import org.kie.processmigration.model.MigrationDefinition;
 import org.kie.processmigration.model.MigrationReport;
 import org.kie.processmigration.model.MigrationReportDto;
+import org.kie.processmigration.model.RetryDefinition;
 import org.kie.processmigration.model.exceptions.InvalidMigrationException;
 import org.kie.processmigration.model.exceptions.MigrationNotFoundException;
 import org.kie.processmigration.model.exceptions.ReScheduleException;
@@ -32,6 +35,8 @@ public interface MigrationService {
 
     List<MigrationReportDto> getResults(Long id) throws MigrationNotFoundException;
 
+    List<MigrationCallback> getCallbacks(Long id) throws MigrationNotFoundException;
+
     List<Migration> findAll();
 
     Migration submit(MigrationDefinition definition) throws InvalidMigrationException;
@@ -40,9 +45,21 @@ public interface MigrationService {
 
     Migration delete(Long id) throws MigrationNotFoundException;
 
+    Migration cancel(Long id) throws MigrationNotFoundException, InvalidMigrationException;
+
+    Migration pause(Long id) throws MigrationNotFoundException, InvalidMigrationException;
+
+    Migration resume(Long id) throws MigrationNotFoundException, InvalidMigrationException;
+
+    Migration retryFailed(Long id, RetryDefinition retry) throws MigrationNotFoundException, InvalidMigrationException;
+
     Migration migrate(Migration migration) throws InvalidMigrationException;
 
     List<Migration> findPending();
 
+    List<Migration> findStale();
+
     MigrationReport getReport(Long id);
+
+    Duration getLease();
 }
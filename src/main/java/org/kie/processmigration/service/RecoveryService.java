@@ -17,11 +17,21 @@
 package org.kie.processmigration.service;
 
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.kie.processmigration.model.Migration;
 import org.kie.processmigration.model.exceptions.InvalidMigrationException;
 import org.slf4j.Logger;
@@ -29,25 +39,118 @@ import org.slf4j.LoggerFactory;
 
 import io.quarkus.runtime.Startup;
 
+/*
+ * Resumes the pending migrations in the background so that the startup is not delayed by the recovery.
+ * Up to pim.migration.recovery-concurrency migrations are resumed in parallel, each of them still limited
+ * by its own concurrency and by the migration permits of its KIE Server.
+ */
 @Startup
 @Singleton
 public class RecoveryService {
 
     private static final Logger logger = LoggerFactory.getLogger(RecoveryService.class);
+    private static final String DEFAULT_RECOVERY_CONCURRENCY = "4";
+    private static final long AWAIT_EXECUTOR = 5;
+
+    @ConfigProperty(name = "pim.migration.recovery-concurrency", defaultValue = DEFAULT_RECOVERY_CONCURRENCY)
+    int recoveryConcurrency;
 
     @Inject
     MigrationService migrationService;
 
+    final ScheduledExecutorService executorService = Executors.newSingleThreadScheduledExecutor();
+    final Set<Long> recovering = ConcurrentHashMap.newKeySet();
+    final AtomicLong total = new AtomicLong();
+    final AtomicLong resumed = new AtomicLong();
+    final AtomicLong failed = new AtomicLong();
+    ExecutorService recoveryExecutor;
+
     @PostConstruct
-    public void resumeMigrations() {
-        logger.info("Resuming ongoing migrations ...");
-        List<Migration> migrations = migrationService.findPending();
-        migrations.forEach(m -> {
-            try {
-                migrationService.migrate(m);
-            } catch (InvalidMigrationException e) {
-                logger.warn("Unable to resume migration with id: " + m.getId(), e);
+    void init() {
+        recoveryExecutor = Executors.newFixedThreadPool(Math.max(recoveryConcurrency, 1));
+        executorService.execute(this::resumeMigrations);
+        long interval = migrationService.getLease().toMillis();
+        executorService.scheduleWithFixedDelay(this::takeOverStaleMigrations, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executorService.shutdownNow();
+        recoveryExecutor.shutdownNow();
+        try {
+            recoveryExecutor.awaitTermination(AWAIT_EXECUTOR, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /*
+     * Queues the pending migrations to be resumed. The returned future completes once all of them have finished.
+     */
+    public CompletableFuture<Void> resumeMigrations() {
+        try {
+            List<Migration> migrations = migrationService.findPending();
+            logger.info("Resuming {} ongoing migrations ...", migrations.size());
+            return resume(migrations);
+        } catch (RuntimeException e) {
+            logger.warn("Unable to resume the ongoing migrations", e);
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+
+    /*
+     * Resumes the migrations whose owner stopped renewing their lease, e.g. because the node running them crashed
+     */
+    CompletableFuture<Void> takeOverStaleMigrations() {
+        try {
+            List<Migration> migrations = migrationService.findStale();
+            if (!migrations.isEmpty()) {
+                logger.info("Taking over {} stale migrations", migrations.size());
+            }
+            return resume(migrations);
+        } catch (RuntimeException e) {
+            logger.warn("Unable to take over stale migrations", e);
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+
+    public long getTotal() {
+        return total.get();
+    }
+
+    public long getResumed() {
+        return resumed.get();
+    }
+
+    public long getFailed() {
+        return failed.get();
+    }
+
+    public long getRemaining() {
+        return total.get() - resumed.get() - failed.get();
+    }
+
+    private CompletableFuture<Void> resume(List<Migration> migrations) {
+        return CompletableFuture.allOf(migrations.stream()
+                .filter(m -> m.getId() == null || recovering.add(m.getId()))
+                .map(m -> {
+                    total.incrementAndGet();
+                    return CompletableFuture.runAsync(() -> resume(m), recoveryExecutor);
+                })
+                .toArray(CompletableFuture[]::new));
+    }
+
+    private void resume(Migration migration) {
+        try {
+            migrationService.migrate(migration);
+            resumed.incrementAndGet();
+        } catch (InvalidMigrationException | RuntimeException e) {
+            failed.incrementAndGet();
+            logger.warn("Unable to resume migration with id: " + migration.getId(), e);
+        } finally {
+            if (migration.getId() != null) {
+                recovering.remove(migration.getId());
             }
-        });
+        }
     }
 }
@@ -16,6 +16,8 @@
 
 package org.kie.processmigration.service;
 
+import java.time.Instant;
+
 import org.kie.processmigration.model.Migration;
 
 public interface SchedulerService {
@@ -23,4 +25,6 @@ public interface SchedulerService {
     void scheduleMigration(Migration migration);
 
     void reScheduleMigration(Migration migration);
+
+    void scheduleMigration(Migration migration, Instant startAt);
 }
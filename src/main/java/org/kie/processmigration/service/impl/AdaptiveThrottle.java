@@ -0,0 +1,130 @@
+/*
+ * Copyright 2023 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.processmigration.service.impl;
+
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+
+import org.kie.server.api.exception.KieServicesHttpException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/*
+ * Limits the number of chunks of a migration being migrated at the same time using additive increase and
+ * multiplicative decrease. The limit grows by one after a limit's worth of healthy calls and is halved when a call
+ * times out, the KIE Server replies with a server error or the call exceeds the target latency per instance.
+ * Calls started before the last decrease do not decrease the limit again.
+ */
+class AdaptiveThrottle {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdaptiveThrottle.class);
+    private static final int TOO_MANY_REQUESTS = 429;
+    private static final int SERVER_ERROR = 500;
+
+    private final Long migrationId;
+    private final int minLimit;
+    private final int maxLimit;
+    private final long targetLatencyNanos;
+    private int limit;
+    private int inFlight;
+    private int healthyCalls;
+    private long lastDecreaseNanos = System.nanoTime();
+
+    AdaptiveThrottle(Long migrationId, int initialLimit, int minLimit, int maxLimit, Duration targetLatency) {
+        this.migrationId = migrationId;
+        this.minLimit = Math.max(minLimit, 1);
+        this.maxLimit = Math.max(maxLimit, this.minLimit);
+        this.limit = Math.min(Math.max(initialLimit, this.minLimit), this.maxLimit);
+        this.targetLatencyNanos = targetLatency == null ? Long.MAX_VALUE : targetLatency.toNanos();
+    }
+
+    int getMaxLimit() {
+        return maxLimit;
+    }
+
+    synchronized int getLimit() {
+        return limit;
+    }
+
+    synchronized void acquire() throws InterruptedException {
+        while (inFlight >= limit) {
+            wait();
+        }
+        inFlight++;
+    }
+
+    synchronized void release() {
+        inFlight--;
+        notifyAll();
+    }
+
+    /*
+     * Waits until all the acquired permits have been released
+     */
+    synchronized void awaitIdle() throws InterruptedException {
+        while (inFlight > 0) {
+            wait();
+        }
+    }
+
+    /*
+     * Records a call to the KIE Server started at the given time that migrated the given number of instances
+     */
+    synchronized void onSuccess(long startNanos, int instances) {
+        long latencyNanos = (System.nanoTime() - startNanos) / Math.max(instances, 1);
+        if (latencyNanos > targetLatencyNanos) {
+            decrease(startNanos, "slow response");
+        } else if (++healthyCalls >= limit && limit < maxLimit) {
+            limit++;
+            healthyCalls = 0;
+            logger.debug("Migration [{}] - Increased concurrency to {}", migrationId, limit);
+            notifyAll();
+        }
+    }
+
+    /*
+     * Records a failed call to the KIE Server. Only failures caused by an overloaded server decrease the limit.
+     */
+    synchronized void onFailure(long startNanos, Throwable error) {
+        if (isOverload(error)) {
+            decrease(startNanos, error.getMessage());
+        }
+    }
+
+    private void decrease(long startNanos, String reason) {
+        healthyCalls = 0;
+        if (startNanos - lastDecreaseNanos < 0 || limit == minLimit) {
+            return;
+        }
+        limit = Math.max(limit / 2, minLimit);
+        lastDecreaseNanos = System.nanoTime();
+        logger.info("Migration [{}] - Decreased concurrency to {} due to: {}", migrationId, limit, reason);
+    }
+
+    static boolean isOverload(Throwable error) {
+        for (Throwable e = error; e != null; e = e.getCause() == e ? null : e.getCause()) {
+            if (e instanceof SocketTimeoutException) {
+                return true;
+            }
+            if (e instanceof KieServicesHttpException) {
+                Integer httpCode = ((KieServicesHttpException) e).getHttpCode();
+                return httpCode != null && (httpCode >= SERVER_ERROR || httpCode == TOO_MANY_REQUESTS);
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,239 @@
+/*
+ * Copyright 2023 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.processmigration.service.impl;
+
+import java.net.URI;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import javax.ws.rs.client.Client;
+import javax.ws.rs.client.ClientBuilder;
+import javax.ws.rs.client.Entity;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+
+import org.apache.commons.lang3.StringUtils;
+import org.jboss.resteasy.client.jaxrs.ResteasyClientBuilder;
+import org.kie.processmigration.model.Migration;
+import org.kie.processmigration.model.MigrationCallback;
+import org.kie.processmigration.model.MigrationCallback.CallbackStatus;
+import org.kie.processmigration.model.MigrationCallback.CallbackType;
+import org.kie.processmigration.model.MigrationProgress;
+import org.kie.processmigration.model.config.Callbacks;
+import org.kie.processmigration.rest.provider.ObjectMapperContextResolver;
+import org.kie.processmigration.service.TransactionHelper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.quarkus.runtime.Startup;
+
+/*
+ * Delivers the callbacks of the migrations. Callbacks are stored by the migration in the same transaction that records
+ * its outcome and then claimed and sent in the background, so that a slow or unavailable callback endpoint never
+ * delays a migration and callbacks survive a restart. Failed deliveries are retried with an exponential backoff
+ * up to the configured number of attempts.
+ */
+@ApplicationScoped
+@Startup
+public class CallbackDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(CallbackDispatcher.class);
+    private static final long AWAIT_EXECUTOR = 5;
+    private static final int MAX_ERROR_LENGTH = 255;
+    private static final int MAX_BACKOFF_DOUBLINGS = 16;
+
+    @Inject
+    Callbacks callbacks;
+
+    @Inject
+    TransactionHelper txHelper;
+
+    @Inject
+    WorkerThreads workerThreads;
+
+    final ObjectMapper mapper = new ObjectMapperContextResolver().getContext(Migration.class);
+    final String owner = UUID.randomUUID().toString();
+
+    Client client;
+    ScheduledExecutorService poller;
+    ExecutorService workers;
+    Semaphore slots;
+
+    @PostConstruct
+    void init() {
+        int size = Math.max(callbacks.concurrency(), 1);
+        long timeout = callbacks.timeout().toMillis();
+        // Each worker needs its own connection, the default RESTEasy client holds a single one
+        client = ((ResteasyClientBuilder) ClientBuilder.newBuilder())
+                .connectionPoolSize(size)
+                .maxPooledPerRoute(size)
+                .connectTimeout(timeout, TimeUnit.MILLISECONDS)
+                .readTimeout(timeout, TimeUnit.MILLISECONDS)
+                .build();
+        slots = new Semaphore(size);
+        workers = Executors.newFixedThreadPool(size, workerThreads.getThreadFactory());
+        poller = Executors.newSingleThreadScheduledExecutor();
+        long interval = callbacks.pollInterval().toMillis();
+        poller.scheduleWithFixedDelay(this::poll, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        poller.shutdownNow();
+        workers.shutdown();
+        try {
+            if (!workers.awaitTermination(AWAIT_EXECUTOR, TimeUnit.SECONDS)) {
+                workers.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            workers.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        client.close();
+    }
+
+    /*
+     * Stores the callback of the migration with its current state. Must be called within the transaction
+     * that persists that state so that the callback is only sent if the state is committed.
+     * Progress callbacks not sent yet are discarded as they are superseded by this one, which is only sent once the
+     * progress callbacks being sent are done.
+     */
+    public void enqueue(Migration migration) {
+        String payload = serialize(migration.getId(), migration);
+        if (payload == null) {
+            return;
+        }
+        MigrationCallback.supersedeProgress(migration.getId());
+        new MigrationCallback(migration.getId(), CallbackType.COMPLETION,
+                migration.getDefinition().getExecution().getCallbackUrl().toString(), payload).persist();
+    }
+
+    /*
+     * Stores a progress callback of a running migration. If the previous progress callback has not been sent yet
+     * it is replaced, so that a slow endpoint receives the latest progress instead of a backlog of them.
+     */
+    public void enqueueProgress(URI callbackUrl, MigrationProgress progress) {
+        String payload = serialize(progress.getMigrationId(), progress);
+        if (payload == null) {
+            return;
+        }
+        txHelper.withTransaction(() -> {
+            MigrationCallback pending = MigrationCallback.findPendingProgress(progress.getMigrationId());
+            if (pending != null) {
+                pending.setPayload(payload);
+            } else {
+                new MigrationCallback(progress.getMigrationId(), CallbackType.PROGRESS, callbackUrl.toString(), payload).persist();
+            }
+        });
+    }
+
+    private String serialize(Long migrationId, Object value) {
+        try {
+            return mapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            logger.error("Migration [{}] - Unable to serialize the callback", migrationId, e);
+            return null;
+        }
+    }
+
+    void poll() {
+        try {
+            int available = slots.availablePermits();
+            if (available == 0) {
+                return;
+            }
+            Instant now = Instant.now();
+            List<MigrationCallback> claimed = txHelper.withTransaction(
+                    () -> MigrationCallback.claim(owner, now, now.plus(callbacks.lease()), available));
+            for (MigrationCallback callback : claimed) {
+                slots.acquire();
+                workers.execute(() -> {
+                    try {
+                        deliver(callback);
+                    } finally {
+                        slots.release();
+                    }
+                });
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            logger.warn("Unable to claim migration callbacks", e);
+        }
+    }
+
+    void deliver(MigrationCallback callback) {
+        String error = null;
+        try (Response response = client.target(callback.getUrl())
+                .request(MediaType.APPLICATION_JSON)
+                .post(Entity.json(callback.getPayload()))) {
+            if (response.getStatusInfo().getFamily() != Response.Status.Family.SUCCESSFUL) {
+                error = "Replied with " + response.getStatus();
+            }
+        } catch (RuntimeException e) {
+            error = e.getMessage() != null ? e.getMessage() : e.getClass().getName();
+        }
+        int attempts = callback.getAttempts() + 1;
+        CallbackStatus status;
+        Instant nextAttemptAt = null;
+        Instant deliveredAt = null;
+        if (error == null) {
+            logger.debug("Migration [{}] - Callback to {} delivered", callback.getMigrationId(), callback.getUrl());
+            status = CallbackStatus.DELIVERED;
+            deliveredAt = Instant.now();
+        } else if (attempts >= callbacks.maxAttempts()) {
+            logger.error("Migration [{}] - Callback to {} failed after {} attempts: {}", callback.getMigrationId(),
+                    callback.getUrl(), attempts, error);
+            status = CallbackStatus.FAILED;
+        } else {
+            nextAttemptAt = Instant.now().plus(getBackoff(attempts));
+            logger.warn("Migration [{}] - Callback to {} failed: {}. Retrying at {}", callback.getMigrationId(),
+                    callback.getUrl(), error, nextAttemptAt);
+            status = CallbackStatus.PENDING;
+        }
+        String lastError = StringUtils.abbreviate(error, MAX_ERROR_LENGTH);
+        Instant next = nextAttemptAt;
+        Instant delivered = deliveredAt;
+        try {
+            if (!txHelper.withTransaction(() -> MigrationCallback.complete(callback.getId(), owner, status, attempts,
+                    next, delivered, lastError))) {
+                logger.debug("Migration [{}] - Callback {} was claimed by another node", callback.getMigrationId(), callback.getId());
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Migration [{}] - Unable to record the delivery of callback {}", callback.getMigrationId(), callback.getId(), e);
+        }
+    }
+
+    private Duration getBackoff(int attempts) {
+        Duration backoff = callbacks.backoff().multipliedBy(1L << Math.min(attempts - 1, MAX_BACKOFF_DOUBLINGS));
+        return backoff.compareTo(callbacks.maxBackoff()) > 0 ? callbacks.maxBackoff() : backoff;
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2023 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.processmigration.service.impl;
+
+/*
+ * Tracks the outcome of the last migrated instances of a migration and tells when the failures exceed the maximum
+ * number or ratio allowed by its execution. The ratio is only evaluated once the sliding window is full.
+ */
+class FailureLimit {
+
+    private final Integer maxFailures;
+    private final Double maxFailureRatio;
+    private final boolean[] window;
+    private int next;
+    private int size;
+    private int failures;
+
+    /*
+     * The window holds at least one instance more than the maximum failures, otherwise that maximum could never be
+     * exceeded within it.
+     */
+    FailureLimit(Integer maxFailures, Double maxFailureRatio, int windowSize) {
+        this.maxFailures = maxFailures;
+        this.maxFailureRatio = maxFailureRatio;
+        int minWindowSize = maxFailures == null ? 1 : maxFailures + 1;
+        this.window = new boolean[Math.max(windowSize, minWindowSize)];
+    }
+
+    /*
+     * Records the outcome of a migrated instance. Returns the reason to abort the migration, or null if the limits
+     * are not exceeded.
+     */
+    synchronized String record(boolean successful) {
+        if (size == window.length) {
+            if (window[next]) {
+                failures--;
+            }
+        } else {
+            size++;
+        }
+        window[next] = !successful;
+        if (!successful) {
+            failures++;
+        }
+        next = (next + 1) % window.length;
+        if (maxFailures != null && failures > maxFailures) {
+            return String.format("Aborted: %d of the last %d instances failed to migrate, exceeding the maximum of %d failures",
+                    failures, size, maxFailures);
+        }
+        if (maxFailureRatio != null && size == window.length && (double) failures / size > maxFailureRatio) {
+            return String.format("Aborted: %d of the last %d instances failed to migrate, exceeding the maximum failure ratio of %s",
+                    failures, size, maxFailureRatio);
+        }
+        return null;
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2023 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.processmigration.service.impl;
+
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/*
+ * Sends a second copy of an idempotent read request to the KIE Server when the first one has not replied within the
+ * hedge delay, and returns whichever reply arrives first. The request only fails if both copies fail. The copy still
+ * pending once a reply is returned is cancelled.
+ * Without a hedge delay requests are performed in the calling thread, as well as when the bounded executor has no
+ * thread available. In that case the request is not hedged.
+ */
+class HedgedRequests {
+
+    private static final Logger logger = LoggerFactory.getLogger(HedgedRequests.class);
+
+    private final Long migrationId;
+    private final Duration delay;
+    private final ExecutorService executor;
+
+    HedgedRequests(Long migrationId, Duration delay, ExecutorService executor) {
+        this.migrationId = migrationId;
+        this.delay = delay;
+        this.executor = executor;
+    }
+
+    static HedgedRequests none() {
+        return new HedgedRequests(null, null, null);
+    }
+
+    @FunctionalInterface
+    interface Request<T, E extends Exception> {
+
+        T get() throws E;
+    }
+
+    /*
+     * Throws a CancellationException if the calling thread is interrupted while waiting for the replies
+     */
+    <T, E extends Exception> T call(Request<T, E> request) throws E {
+        if (delay == null) {
+            return request.get();
+        }
+        CompletionService<T> replies = new ExecutorCompletionService<>(executor);
+        Future<T> first = submit(replies, request);
+        if (first == null) {
+            return request.get();
+        }
+        Future<T> second = null;
+        try {
+            Future<T> reply = replies.poll(delay.toMillis(), TimeUnit.MILLISECONDS);
+            if (reply != null) {
+                return getReply(reply);
+            }
+            logger.debug("Migration [{}] - No reply from the KIE Server after {}. Hedging the request", migrationId, delay);
+            second = submit(replies, request);
+            if (second == null) {
+                logger.debug("Migration [{}] - No thread available to hedge the request", migrationId);
+                return getReply(first);
+            }
+            try {
+                return getReply(replies.take());
+            } catch (ExecutionException e) {
+                // The other copy may still succeed
+                return getReply(replies.take());
+            }
+        } catch (ExecutionException e) {
+            throw this.<E>unwrap(e.getCause());
+        } catch (InterruptedException e) {
+            throw interrupted();
+        } finally {
+            first.cancel(true);
+            if (second != null) {
+                second.cancel(true);
+            }
+        }
+    }
+
+    /*
+     * Returns null if the executor has no thread available
+     */
+    private static <T, E extends Exception> Future<T> submit(CompletionService<T> replies, Request<T, E> request) {
+        try {
+            return replies.submit(request::get);
+        } catch (RejectedExecutionException e) {
+            return null;
+        }
+    }
+
+    private static <T> T getReply(Future<T> reply) throws ExecutionException, InterruptedException {
+        try {
+            return reply.get();
+        } catch (CancellationException e) {
+            throw new ExecutionException(e);
+        }
+    }
+
+    /*
+     * The checked exceptions thrown by the futures can only be the ones declared by the request
+     */
+    @SuppressWarnings("unchecked")
+    private <E extends Exception> E unwrap(Throwable error) {
+        if (error instanceof RuntimeException) {
+            throw (RuntimeException) error;
+        }
+        if (error instanceof Error) {
+            throw (Error) error;
+        }
+        return (E) error;
+    }
+
+    private static CancellationException interrupted() {
+        Thread.currentThread().interrupt();
+        return new CancellationException("Interrupted while waiting for the KIE Server");
+    }
+}
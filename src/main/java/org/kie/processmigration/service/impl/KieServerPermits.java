@@ -0,0 +1,92 @@
+/*
+ * Copyright 2023 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.processmigration.service.impl;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/*
+ * Caps the number of migration requests in flight to a KIE Server across all the running migrations.
+ *
+ * While other migrations are waiting for a permit, a migration cannot hold more than its fair share of the permits,
+ * i.e. the limit divided by the number of registered migrations. Otherwise, the idle permits can be used by anyone.
+ * A migration can be registered several times, e.g. by each chunk being migrated, and must be unregistered as many times.
+ */
+class KieServerPermits {
+
+    private final int limit;
+    private final Map<Long, Integer> registrations = new HashMap<>();
+    private final Map<Long, Integer> inFlightByMigration = new HashMap<>();
+    private final Map<Long, Integer> waitingByMigration = new HashMap<>();
+    private int inFlight;
+
+    KieServerPermits(int limit) {
+        this.limit = limit;
+    }
+
+    static KieServerPermits unlimited() {
+        return new KieServerPermits(Integer.MAX_VALUE);
+    }
+
+    int getLimit() {
+        return limit;
+    }
+
+    synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    synchronized void register(Long migrationId) {
+        registrations.merge(migrationId, 1, Integer::sum);
+    }
+
+    synchronized void unregister(Long migrationId) {
+        registrations.computeIfPresent(migrationId, (id, count) -> count > 1 ? count - 1 : null);
+        notifyAll();
+    }
+
+    synchronized void acquire(Long migrationId) throws InterruptedException {
+        waitingByMigration.merge(migrationId, 1, Integer::sum);
+        try {
+            while (!canAcquire(migrationId)) {
+                wait();
+            }
+        } finally {
+            waitingByMigration.computeIfPresent(migrationId, (id, waiting) -> waiting > 1 ? waiting - 1 : null);
+        }
+        inFlight++;
+        inFlightByMigration.merge(migrationId, 1, Integer::sum);
+    }
+
+    synchronized void release(Long migrationId) {
+        inFlight--;
+        inFlightByMigration.computeIfPresent(migrationId, (id, count) -> count > 1 ? count - 1 : null);
+        notifyAll();
+    }
+
+    private boolean canAcquire(Long migrationId) {
+        if (inFlight >= limit) {
+            return false;
+        }
+        int fairShare = Math.max(1, (int) Math.ceil((double) limit / Math.max(registrations.size(), 1)));
+        return inFlightByMigration.getOrDefault(migrationId, 0) < fairShare || !othersWaiting(migrationId);
+    }
+
+    private boolean othersWaiting(Long migrationId) {
+        return waitingByMigration.size() > 1 || (waitingByMigration.size() == 1 && !waitingByMigration.containsKey(migrationId));
+    }
+}
@@ -26,6 +26,10 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -48,19 +52,17 @@ import org.kie.processmigration.model.config.KieServers;
 import org.kie.processmigration.model.exceptions.CredentialsException;
 import org.kie.processmigration.model.exceptions.InvalidKieServerException;
 import org.kie.processmigration.model.exceptions.ProcessDefinitionNotFoundException;
+import org.kie.processmigration.service.KieAsyncClient;
 import org.kie.processmigration.service.KieService;
 import org.kie.server.api.exception.KieServicesHttpException;
 import org.kie.server.api.marshalling.MarshallingFormat;
-import org.kie.server.api.model.KieContainerResourceList;
-import org.kie.server.api.model.ServiceResponse;
 import org.kie.server.api.model.definition.ProcessDefinition;
+import org.kie.server.api.model.definition.QueryDefinition;
 import org.kie.server.api.model.instance.ProcessInstance;
 import org.kie.server.client.KieServicesClient;
 import org.kie.server.client.KieServicesConfiguration;
 import org.kie.server.client.KieServicesFactory;
-import org.kie.server.client.ProcessServicesClient;
 import org.kie.server.client.QueryServicesClient;
-import org.kie.server.client.UIServicesClient;
 import org.kie.server.client.admin.ProcessAdminServicesClient;
 import org.kie.server.client.credentials.EnteredCredentialsProvider;
 import org.kie.server.client.credentials.EnteredTokenCredentialsProvider;
@@ -72,18 +74,26 @@ import org.slf4j.LoggerFactory;
 import io.quarkus.credentials.CredentialsProvider;
 import io.quarkus.credentials.runtime.CredentialsProviderFinder;
 import io.quarkus.runtime.Startup;
+import io.vertx.core.Vertx;
+import io.vertx.core.http.HttpClient;
+import io.vertx.core.http.HttpClientOptions;
+import io.vertx.core.net.JksOptions;
 
 import static io.quarkus.credentials.CredentialsProvider.PASSWORD_PROPERTY_NAME;
 import static io.quarkus.credentials.CredentialsProvider.USER_PROPERTY_NAME;
+import static org.kie.processmigration.model.KieServerConfig.SUCCESS_STATUS;
 
 @ApplicationScoped
 @Startup
 public class KieServiceImpl implements KieService {
 
     private static final String CONFIGURATION_TIMEOUT = "60S";
+    private static final String DEFAULT_ASYNC_MAX_CONNECTIONS = "50";
+    private static final String DEFAULT_ASYNC_CONNECT_TIMEOUT = "10S";
     private static final Integer DEFAULT_PAGE_SIZE = 100;
     private static final long AWAIT_EXECUTOR = 5;
     private static final long RETRY_DELAY = 2;
+    private static final long MAX_TIMEOUT_SECONDS = TimeUnit.DAYS.toSeconds(1);
     private static final Logger logger = LoggerFactory.getLogger(KieServiceImpl.class);
     private static final List<Integer> RUNNING_STATUSES = List.of(
             org.kie.api.runtime.process.ProcessInstance.STATE_ACTIVE,
@@ -92,14 +102,29 @@ public class KieServiceImpl implements KieService {
     );
     private static final String DEFAULT_SORT_COLUMN = "processInstanceId";
     private static final String DESC_SORT_ORDER = "desc";
+    private static final String DEFAULT_QUERY_SOURCE = "${org.kie.server.persistence.ds}";
+    private static final String QUERY_TARGET = "CUSTOM";
 
     private CredentialsProvider credentialsProvider = CredentialsProviderFinder.find("quarkus.file.vault");
     final ScheduledExecutorService executorService = Executors.newSingleThreadScheduledExecutor();
     final Collection<KieServerConfig> configs = new ArrayList<>();
+    final Map<String, Map<Duration, KieServicesClient>> timeoutClients = new ConcurrentHashMap<>();
+    final Map<String, KieAsyncClient> asyncClients = new ConcurrentHashMap<>();
+    final Set<String> registeredQueries = ConcurrentHashMap.newKeySet();
+    HttpClient httpClient;
 
     @ConfigProperty(name = "quarkus.http.read-timeout", defaultValue = CONFIGURATION_TIMEOUT)
     Duration httpReadTimeout;
 
+    @ConfigProperty(name = "pim.kie-client.async-max-connections", defaultValue = DEFAULT_ASYNC_MAX_CONNECTIONS)
+    int asyncMaxConnections;
+
+    @ConfigProperty(name = "pim.kie-client.async-connect-timeout", defaultValue = DEFAULT_ASYNC_CONNECT_TIMEOUT)
+    Duration asyncConnectTimeout;
+
+    @Inject
+    Vertx vertx;
+
     @Inject
     KieServers kieServers;
 
@@ -108,6 +133,7 @@ public class KieServiceImpl implements KieService {
 
     @PostConstruct
     void loadConfigs() {
+        httpClient = vertx.createHttpClient(createHttpClientOptions());
         if (kieServers.kieservers() != null && !kieServers.kieservers().isEmpty()) {
             kieServers.kieservers().forEach(this::loadConfig);
         }
@@ -123,6 +149,19 @@ public class KieServiceImpl implements KieService {
         } catch (InterruptedException e) {
             executorService.shutdownNow();
         }
+        if (httpClient != null) {
+            httpClient.close();
+        }
+        timeoutClients.values().forEach(clients -> clients.values().forEach(this::close));
+        timeoutClients.clear();
+    }
+
+    private void close(KieServicesClient client) {
+        try {
+            client.close();
+        } catch (RuntimeException e) {
+            logger.debug("Unable to close the KIE Server client", e);
+        }
     }
 
     @Override
@@ -138,12 +177,61 @@ public class KieServiceImpl implements KieService {
     }
 
     @Override
-    public KieServicesClient getClient(String kieServerId) throws InvalidKieServerException {
+    public KieServerConfig getConfig(String kieServerId) throws InvalidKieServerException {
         return configs.stream()
                 .filter(config -> kieServerId.equals(config.getId()))
                 .findFirst()
-                .orElseThrow(() -> new InvalidKieServerException(kieServerId))
-                .getClient();
+                .orElseThrow(() -> new InvalidKieServerException(kieServerId));
+    }
+
+    @Override
+    public KieServicesClient getClient(String kieServerId) throws InvalidKieServerException {
+        return getConfig(kieServerId).getClient();
+    }
+
+    /*
+     * Custom queries are registered once per KIE Server and reused by all the following migrations.
+     * A query that cannot be registered is tried again the next time it is needed.
+     */
+    @Override
+    public boolean registerQuery(String kieServerId, String name, String expression) throws InvalidKieServerException {
+        KieServerConfig config = getConfig(kieServerId);
+        String key = config.getHost() + "#" + name;
+        if (registeredQueries.contains(key)) {
+            return true;
+        }
+        synchronized (registeredQueries) {
+            if (registeredQueries.contains(key)) {
+                return true;
+            }
+            try {
+                getQueryServicesClient(kieServerId).replaceQuery(QueryDefinition.builder()
+                        .name(name)
+                        .source(config.getQuerySource())
+                        .expression(expression)
+                        .target(QUERY_TARGET)
+                        .build());
+                registeredQueries.add(key);
+                logger.debug("Registered the {} query in {}", name, kieServerId);
+                return true;
+            } catch (RuntimeException e) {
+                logger.warn("Unable to register the {} query in {}", name, kieServerId, e);
+                return false;
+            }
+        }
+    }
+
+    /*
+     * Returns true when the client of the KIE Server has been created, possibly by the KieServerClientConnector,
+     * and the server replies to the same request used by the health checks
+     */
+    @Override
+    public boolean isReachable(String kieServerId) {
+        try {
+            return SUCCESS_STATUS.equals(getConfig(kieServerId).getStatus());
+        } catch (InvalidKieServerException e) {
+            return false;
+        }
     }
 
     @Override
@@ -158,13 +246,38 @@ public class KieServiceImpl implements KieService {
     }
 
     @Override
-    public List<RunningInstance> getRunningInstances(String kieServerId, String containerId, Integer page,
-                                                     Integer pageSize, String sortBy, String orderBy)
+    public QueryServicesClient getQueryServicesClient(String kieServerId, Duration timeout) throws InvalidKieServerException {
+        return getClient(kieServerId, timeout).getServicesClient(QueryServicesClient.class);
+    }
+
+    /*
+     * Non-blocking clients share the connection pool of a single Vert.x HTTP client
+     */
+    @Override
+    public KieAsyncClient getAsyncClient(String kieServerId) throws InvalidKieServerException {
+        KieServerConfig config = getConfig(kieServerId);
+        return asyncClients.computeIfAbsent(config.getHost(),
+                host -> new KieAsyncClient(httpClient, host, config.getCredentialsProvider(), httpReadTimeout));
+    }
+
+    @Override
+    public KieAsyncClient getAsyncClient(String kieServerId, Duration timeout) throws InvalidKieServerException {
+        if (timeout == null) {
+            return getAsyncClient(kieServerId);
+        }
+        return getAsyncClient(kieServerId).withTimeout(timeout);
+    }
+
+    @Override
+    public CompletionStage<List<RunningInstance>> getRunningInstancesAsync(String kieServerId, String containerId, Integer page,
+                                                                           Integer pageSize, String sortBy, String orderBy)
             throws InvalidKieServerException {
-        QueryServicesClient queryServicesClient = getQueryServicesClient(kieServerId);
-        List<ProcessInstance> instanceList = queryServicesClient.findProcessInstancesByContainerId(containerId, RUNNING_STATUSES, page, pageSize,
-                translateSortColumn(sortBy), getOrderBy(orderBy));
+        return getAsyncClient(kieServerId)
+                .findProcessInstancesByContainerId(containerId, RUNNING_STATUSES, page, pageSize, translateSortColumn(sortBy), getOrderBy(orderBy))
+                .thenApply(this::toRunningInstances);
+    }
 
+    private List<RunningInstance> toRunningInstances(List<ProcessInstance> instanceList) {
         int i = 0;
         List<RunningInstance> result = new ArrayList<>();
         for (ProcessInstance instance : instanceList) {
@@ -200,30 +313,36 @@ public class KieServiceImpl implements KieService {
     }
 
     @Override
-    public Long countRunningInstances(String kieServerId, String containerId) throws InvalidKieServerException {
-        return getQueryServicesClient(kieServerId).countProcessInstancesByContainerId(containerId, RUNNING_STATUSES);
+    public CompletionStage<Long> countRunningInstancesAsync(String kieServerId, String containerId) throws InvalidKieServerException {
+        return getAsyncClient(kieServerId).countProcessInstancesByContainerId(containerId, RUNNING_STATUSES);
     }
 
+    /*
+     * The definitions of all the containers are fetched in parallel
+     */
     @Override
-    public Map<String, Set<String>> getDefinitions(String kieServerId) throws InvalidKieServerException {
-        Map<String, Set<String>> definitions = new HashMap<>();
-        ServiceResponse<KieContainerResourceList> response = getClient(kieServerId).listContainers();
-        QueryServicesClient queryServicesClient = getQueryServicesClient(kieServerId);
-        response.getResult().getContainers().forEach(container -> {
-            if (!definitions.containsKey(container.getContainerId())) {
-                definitions.put(container.getContainerId(), new HashSet<>());
-            }
-            boolean finished = false;
-            int page = 0;
-            while (!finished) {
-                List<ProcessDefinition> processes = queryServicesClient.findProcessesByContainerId(container.getContainerId(), page++, DEFAULT_PAGE_SIZE);
-                if (processes.size() < DEFAULT_PAGE_SIZE) {
-                    finished = true;
-                }
-                processes.forEach(definition -> definitions.get(container.getContainerId()).add(definition.getId()));
+    public CompletionStage<Map<String, Set<String>>> getDefinitionsAsync(String kieServerId) throws InvalidKieServerException {
+        KieAsyncClient client = getAsyncClient(kieServerId);
+        return client.listContainers().thenCompose(containers -> {
+            Map<String, Set<String>> definitions = new ConcurrentHashMap<>();
+            CompletableFuture<?>[] lookups = containers.stream()
+                    .distinct()
+                    .map(containerId -> findProcessIds(client, containerId, 0, new HashSet<>())
+                            .thenAccept(processIds -> definitions.put(containerId, processIds))
+                            .toCompletableFuture())
+                    .toArray(CompletableFuture[]::new);
+            return CompletableFuture.allOf(lookups).thenApply(v -> new HashMap<>(definitions));
+        });
+    }
+
+    private CompletionStage<Set<String>> findProcessIds(KieAsyncClient client, String containerId, int page, Set<String> processIds) {
+        return client.findProcessesByContainerId(containerId, page, DEFAULT_PAGE_SIZE).thenCompose(processes -> {
+            processes.forEach(definition -> processIds.add(definition.getId()));
+            if (processes.size() < DEFAULT_PAGE_SIZE) {
+                return CompletableFuture.completedFuture(processIds);
             }
+            return findProcessIds(client, containerId, page + 1, processIds);
         });
-        return definitions;
     }
 
     @Override
@@ -233,30 +352,41 @@ public class KieServiceImpl implements KieService {
         return queryService.findProcessByContainerIdProcessId(processRef.getContainerId(), processRef.getProcessId()) != null;
     }
 
+    /*
+     * The SVG image and the process definition are fetched in parallel. If any of them is not found, the stage
+     * completes with a ProcessDefinitionNotFoundException.
+     */
     @Override
-    public ProcessInfo getDefinition(String kieServerId, ProcessRef processRef) throws
-            ProcessDefinitionNotFoundException, InvalidKieServerException {
-        ProcessInfo processInfo = new ProcessInfo();
-
-        //get SVG file
-        String svgFile;
-        try {
-            svgFile = getUIServicesClient(kieServerId).getProcessImage(processRef.getContainerId(), processRef.getProcessId());
-        } catch (KieServicesHttpException e) {
-            if (Response.Status.NOT_FOUND.getStatusCode() == e.getHttpCode()) {
+    public CompletionStage<ProcessInfo> getDefinitionAsync(String kieServerId, ProcessRef processRef) throws InvalidKieServerException {
+        KieAsyncClient client = getAsyncClient(kieServerId);
+        CompletableFuture<String> svgFile = client.getProcessImage(processRef.getContainerId(), processRef.getProcessId())
+                .toCompletableFuture();
+        CompletableFuture<ProcessDefinition> definition = client.getProcessDefinition(processRef.getContainerId(), processRef.getProcessId())
+                .toCompletableFuture();
+        return svgFile.thenCombine(definition, (svg, pd) -> {
+            try {
+                return toProcessInfo(kieServerId, processRef, svg, pd);
+            } catch (ProcessDefinitionNotFoundException e) {
+                throw new CompletionException(e);
+            }
+        }).exceptionally(e -> {
+            Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            if (cause instanceof KieServicesHttpException
+                    && Response.Status.NOT_FOUND.getStatusCode() == ((KieServicesHttpException) cause).getHttpCode()) {
                 logger.debug("Process definition {} not found in {}", processRef, kieServerId);
-                throw new ProcessDefinitionNotFoundException(kieServerId, processRef);
-            } else {
-                logger.warn("Unable to fetch SVG file from {}", kieServerId, e);
-                throw e;
+                throw new CompletionException(new ProcessDefinitionNotFoundException(kieServerId, processRef));
             }
-        }
+            throw e instanceof CompletionException ? (CompletionException) e : new CompletionException(e);
+        });
+    }
 
+    private ProcessInfo toProcessInfo(String kieServerId, ProcessRef processRef, String svgFile, ProcessDefinition pd)
+            throws ProcessDefinitionNotFoundException {
+        ProcessInfo processInfo = new ProcessInfo();
         //Add this replacement here because in react-svgmt, ? and = are not allowed.
         svgFile = svgFile.replaceAll("\\?shapeType=BACKGROUND", "_shapeType_BACKGROUND");
         processInfo.setSvgFile(svgFile);
 
-        ProcessDefinition pd = getProcessServicesClient(kieServerId).getProcessDefinition(processRef.getContainerId(), processRef.getProcessId());
         if (!pd.getContainerId().equals(processRef.getContainerId())) {
             throw new ProcessDefinitionNotFoundException(kieServerId, processRef);
         }
@@ -274,7 +404,13 @@ public class KieServiceImpl implements KieService {
     }
 
     private void loadConfig(KieServers.KieServer config) {
-        KieServerConfig kieConfig = new KieServerConfig().setHost(config.host());
+        KieServerConfig kieConfig = new KieServerConfig()
+                .setHost(config.host())
+                .setQuerySource(config.querySource().orElse(DEFAULT_QUERY_SOURCE))
+                .setMinConcurrency(config.minConcurrency().orElse(null))
+                .setMaxConcurrency(config.maxConcurrency().orElse(null))
+                .setTargetLatency(config.targetLatency().orElse(null))
+                .setMigrationPermits(config.migrationPermits().orElse(null));
         if (config.credentialsProvider().isPresent()) {
             String user = credentialsProvider.getCredentials(config.credentialsProvider().get()).get(USER_PROPERTY_NAME);
             String password = credentialsProvider.getCredentials(config.credentialsProvider().get()).get(PASSWORD_PROPERTY_NAME);
@@ -304,9 +440,35 @@ public class KieServiceImpl implements KieService {
         logger.info("Loaded kie server configuration for: {}", kieConfig);
     }
 
+    /*
+     * Clients using a timeout other than the default one are created on first use and shared by all the migrations
+     * requesting a timeout in the same bucket
+     */
+    private KieServicesClient getClient(String kieServerId, Duration timeout) throws InvalidKieServerException {
+        if (timeout == null || timeout.equals(httpReadTimeout)) {
+            return getClient(kieServerId);
+        }
+        KieServerConfig config = getConfig(kieServerId);
+        return timeoutClients.computeIfAbsent(config.getHost(), host -> new ConcurrentHashMap<>())
+                .computeIfAbsent(toTimeoutBucket(timeout), t -> createKieServicesClient(config, t));
+    }
+
+    /*
+     * Rounds the timeout up to a power of two seconds, so that a KIE Server gets a client for only a few timeouts
+     * whatever the timeouts requested by the migrations
+     */
+    static Duration toTimeoutBucket(Duration timeout) {
+        long seconds = Math.min(Math.max(timeout.plusMillis(999).getSeconds(), 1), MAX_TIMEOUT_SECONDS);
+        return Duration.ofSeconds(seconds == 1 ? 1 : Long.highestOneBit(seconds - 1) << 1);
+    }
+
     private KieServicesClient createKieServicesClient(KieServerConfig config) {
+        return createKieServicesClient(config, httpReadTimeout);
+    }
+
+    private KieServicesClient createKieServicesClient(KieServerConfig config, Duration timeout) {
         KieServicesConfiguration configuration = KieServicesFactory.newRestConfiguration(config.getHost(), config.getCredentialsProvider());
-        configuration.setTimeout(httpReadTimeout.toMillis());
+        configuration.setTimeout(timeout.toMillis());
         configuration.setMarshallingFormat(MarshallingFormat.JSON);
         if (cert.clientCert().isPresent()) {
             configuration.setClientCertificate(new ClientCertificate()
@@ -320,6 +482,24 @@ public class KieServiceImpl implements KieService {
         return KieServicesFactory.newKieServicesClient(configuration);
     }
 
+    private HttpClientOptions createHttpClientOptions() {
+        HttpClientOptions options = new HttpClientOptions()
+                .setMaxPoolSize(asyncMaxConnections)
+                .setConnectTimeout((int) asyncConnectTimeout.toMillis());
+        if (cert.clientCert().isPresent()) {
+            KieClientCert.ClientCertConfig clientCert = cert.clientCert().get();
+            options.setKeyStoreOptions(new JksOptions()
+                            .setPath(clientCert.keystorePath())
+                            .setPassword(resolvePassword(clientCert.keystoreCredentialsProvider(), clientCert.keystorePassword()))
+                            .setAlias(clientCert.certName())
+                            .setAliasPassword(resolvePassword(clientCert.certCredentialsProvider(), clientCert.certPassword())))
+                    .setTrustStoreOptions(new JksOptions()
+                            .setPath(clientCert.truststorePath())
+                            .setPassword(resolvePassword(clientCert.truststoreCredentialsProvider(), clientCert.truststorePassword())));
+        }
+        return options;
+    }
+
     private String resolvePassword(Optional<String> credentialsProviderKey, Optional<String> passwordKey) {
         if (credentialsProviderKey.isPresent()) {
             String password = credentialsProvider.getCredentials(credentialsProviderKey.get()).get(PASSWORD_PROPERTY_NAME);
@@ -334,14 +514,6 @@ public class KieServiceImpl implements KieService {
         return passwordKey.get();
     }
 
-    private UIServicesClient getUIServicesClient(String kieServerId) throws InvalidKieServerException {
-        return getClient(kieServerId).getServicesClient(UIServicesClient.class);
-    }
-
-    private ProcessServicesClient getProcessServicesClient(String kieServerId) throws InvalidKieServerException {
-        return getClient(kieServerId).getServicesClient(ProcessServicesClient.class);
-    }
-
     private void retryConnection(KieServerConfig kieConfig) {
         executorService.schedule(new KieServerClientConnector(kieConfig), RETRY_DELAY, TimeUnit.SECONDS);
     }
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2023 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.processmigration.service.impl;
+
+/*
+ * Open addressing hash set of primitive longs used to look up already migrated process instances
+ * without boxing every identifier. Not thread safe.
+ */
+class LongHashSet {
+
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.5f;
+    private static final long EMPTY = 0L;
+
+    private long[] keys;
+    private boolean containsEmpty;
+    private int size;
+
+    LongHashSet() {
+        keys = new long[DEFAULT_CAPACITY];
+    }
+
+    boolean add(long key) {
+        if (key == EMPTY) {
+            boolean added = !containsEmpty;
+            containsEmpty = true;
+            if (added) {
+                size++;
+            }
+            return added;
+        }
+        int mask = keys.length - 1;
+        int i = index(key, mask);
+        while (keys[i] != EMPTY) {
+            if (keys[i] == key) {
+                return false;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        if (++size > keys.length * LOAD_FACTOR) {
+            rehash(keys.length << 1);
+        }
+        return true;
+    }
+
+    boolean contains(long key) {
+        if (key == EMPTY) {
+            return containsEmpty;
+        }
+        int mask = keys.length - 1;
+        int i = index(key, mask);
+        while (keys[i] != EMPTY) {
+            if (keys[i] == key) {
+                return true;
+            }
+            i = (i + 1) & mask;
+        }
+        return false;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    private void rehash(int capacity) {
+        long[] previous = keys;
+        keys = new long[capacity];
+        int mask = capacity - 1;
+        for (long key : previous) {
+            if (key != EMPTY) {
+                int i = index(key, mask);
+                while (keys[i] != EMPTY) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = key;
+            }
+        }
+    }
+
+    private static int index(long key, int mask) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+}
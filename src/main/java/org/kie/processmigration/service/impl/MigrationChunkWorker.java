@@ -0,0 +1,117 @@
+/*
+ * Copyright 2023 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.processmigration.service.impl;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+
+import org.kie.processmigration.model.MigrationChunk;
+import org.kie.processmigration.model.config.Cluster;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.quarkus.runtime.Startup;
+
+/*
+ * When running in a cluster, periodically renews the leases of the migration chunks being migrated by this node
+ * and claims pending chunks of any running migration up to the configured number of workers.
+ */
+@ApplicationScoped
+@Startup
+public class MigrationChunkWorker {
+
+    private static final Logger logger = LoggerFactory.getLogger(MigrationChunkWorker.class);
+    private static final long AWAIT_EXECUTOR = 5;
+
+    @Inject
+    Cluster cluster;
+
+    @Inject
+    MigrationServiceImpl migrationService;
+
+    @Inject
+    WorkerThreads workerThreads;
+
+    ScheduledExecutorService poller;
+    ExecutorService workers;
+    Semaphore slots;
+
+    @PostConstruct
+    void init() {
+        if (!cluster.enabled()) {
+            return;
+        }
+        int size = Math.max(cluster.workers(), 1);
+        slots = new Semaphore(size);
+        workers = Executors.newFixedThreadPool(size, workerThreads.getThreadFactory());
+        poller = Executors.newSingleThreadScheduledExecutor();
+        long interval = cluster.pollInterval().toMillis();
+        poller.scheduleWithFixedDelay(this::poll, interval, interval, TimeUnit.MILLISECONDS);
+        logger.info("Migration chunk worker started on node {} with {} workers", migrationService.getNodeId(), size);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (poller == null) {
+            return;
+        }
+        poller.shutdownNow();
+        workers.shutdown();
+        try {
+            if (!workers.awaitTermination(AWAIT_EXECUTOR, TimeUnit.SECONDS)) {
+                workers.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            workers.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    void poll() {
+        try {
+            migrationService.renewChunkLeases();
+            int available = slots.availablePermits();
+            if (available == 0) {
+                return;
+            }
+            List<MigrationChunk> chunks = migrationService.claimChunks(available);
+            for (MigrationChunk chunk : chunks) {
+                slots.acquire();
+                workers.execute(() -> {
+                    try {
+                        migrationService.migrateClaimedChunk(chunk);
+                    } finally {
+                        slots.release();
+                    }
+                });
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            logger.warn("Unable to claim migration chunks", e);
+        }
+    }
+}
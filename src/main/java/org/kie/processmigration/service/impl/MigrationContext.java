@@ -0,0 +1,57 @@
+/*
+ * Copyright 2023 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.processmigration.service.impl;
+
+import org.kie.processmigration.model.Migration;
+import org.kie.processmigration.model.Plan;
+import org.kie.processmigration.service.KieAsyncClient;
+
+import lombok.Getter;
+
+/*
+ * State shared by the workers of a single migration execution
+ */
+@Getter
+class MigrationContext {
+
+    private final Migration migration;
+    private final Plan plan;
+    private final KieAsyncClient adminService;
+    private final MigrationReportBuffer reports;
+    /* Null when the instances do not need to be checked before migrating them */
+    private final ProcessInstanceLookup instanceLookup;
+    private final AdaptiveThrottle throttle;
+    private final KieServerPermits permits;
+    /* Null when the execution does not limit the failures */
+    private final FailureLimit failureLimit;
+    /* Null when the execution does not report its progress */
+    private final ProgressTracker progress;
+
+    MigrationContext(Migration migration, Plan plan, KieAsyncClient adminService, MigrationReportBuffer reports,
+                     ProcessInstanceLookup instanceLookup, AdaptiveThrottle throttle, KieServerPermits permits,
+                     FailureLimit failureLimit, ProgressTracker progress) {
+        this.migration = migration;
+        this.plan = plan;
+        this.adminService = adminService;
+        this.reports = reports;
+        this.instanceLookup = instanceLookup;
+        this.throttle = throttle;
+        this.permits = permits;
+        this.failureLimit = failureLimit;
+        this.progress = progress;
+    }
+}
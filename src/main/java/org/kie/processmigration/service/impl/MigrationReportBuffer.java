@@ -0,0 +1,153 @@
+/*
+ * Copyright 2023 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.processmigration.service.impl;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.kie.processmigration.model.Migration;
+import org.kie.processmigration.model.MigrationReport;
+import org.kie.processmigration.service.TransactionHelper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/*
+ * Buffers the reports of a running migration and persists them in batches, within a single transaction,
+ * once the batch size is reached or the oldest buffered report exceeds the maximum delay.
+ * If a batch cannot be persisted it is kept to be retried by the next flush and no more reports are accepted,
+ * so that the migration fails instead of losing the reports of instances already migrated.
+ * The outcome of the persisted reports is accumulated in memory and added to the progress counters of the migration
+ * by the periodic flush and on close, instead of updating the migration row with every batch. The counters may
+ * therefore lag behind the reports by up to one flush interval, and lose that interval if the node stops abruptly.
+ * The outcome is counted outside of the buffer lock, so that updating the counters of the migration never waits for
+ * a batch of reports being persisted.
+ */
+class MigrationReportBuffer implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(MigrationReportBuffer.class);
+
+    private final Long migrationId;
+    private final TransactionHelper txHelper;
+    private final int batchSize;
+    private final long maxDelayNanos;
+    private final List<MigrationReport> reports = new ArrayList<>();
+    private long oldestReportNanos;
+    private final LongAdder pendingSucceeded = new LongAdder();
+    private final LongAdder pendingFailed = new LongAdder();
+    private RuntimeException flushFailure;
+
+    MigrationReportBuffer(Long migrationId, TransactionHelper txHelper, int batchSize, Duration maxDelay) {
+        this.migrationId = migrationId;
+        this.txHelper = txHelper;
+        this.batchSize = Math.max(batchSize, 1);
+        this.maxDelayNanos = maxDelay.toNanos();
+    }
+
+    Long getMigrationId() {
+        return migrationId;
+    }
+
+    synchronized int size() {
+        return reports.size();
+    }
+
+    synchronized void add(MigrationReport report) {
+        throwIfFailed();
+        if (reports.isEmpty()) {
+            oldestReportNanos = System.nanoTime();
+        }
+        reports.add(report);
+        if (reports.size() >= batchSize || isExpired()) {
+            flush();
+        }
+    }
+
+    /*
+     * Persists the buffered reports if the oldest one exceeds the maximum delay and updates the progress counters
+     */
+    void flushIfExpired() {
+        try {
+            synchronized (this) {
+                if (isExpired()) {
+                    flush();
+                }
+            }
+            flushProgress();
+        } catch (RuntimeException e) {
+            logger.warn("Migration [{}] - Unable to persist migration reports", migrationId, e);
+        }
+    }
+
+    synchronized void flush() {
+        if (reports.isEmpty()) {
+            return;
+        }
+        List<MigrationReport> batch = new ArrayList<>(reports);
+        long succeeded = batch.stream().filter(report -> Boolean.TRUE.equals(report.getSuccessful())).count();
+        long failed = batch.size() - succeeded;
+        try {
+            txHelper.withTransaction(() -> MigrationReport.persistBatch(batch));
+            logger.debug("Migration [{}] - Persisted {} migration reports", migrationId, batch.size());
+            reports.clear();
+            pendingSucceeded.add(succeeded);
+            pendingFailed.add(failed);
+            flushFailure = null;
+        } catch (RuntimeException e) {
+            // The identifiers assigned within the rolled back transaction must be generated again
+            batch.forEach(report -> report.setId(null));
+            flushFailure = e;
+            throw e;
+        }
+    }
+
+    /*
+     * Adds the outcome of the reports persisted since the previous call to the progress counters of the migration
+     */
+    void flushProgress() {
+        long succeeded = pendingSucceeded.sumThenReset();
+        long failed = pendingFailed.sumThenReset();
+        if (succeeded == 0 && failed == 0) {
+            return;
+        }
+        try {
+            txHelper.withTransaction(() -> Migration.addProgress(migrationId, succeeded, failed));
+        } catch (RuntimeException e) {
+            // Kept for the next flush
+            pendingSucceeded.add(succeeded);
+            pendingFailed.add(failed);
+            throw e;
+        }
+    }
+
+    @Override
+    public void close() {
+        flush();
+        flushProgress();
+    }
+
+    private boolean isExpired() {
+        return !reports.isEmpty() && System.nanoTime() - oldestReportNanos >= maxDelayNanos;
+    }
+
+    private void throwIfFailed() {
+        if (flushFailure != null) {
+            throw flushFailure;
+        }
+    }
+}
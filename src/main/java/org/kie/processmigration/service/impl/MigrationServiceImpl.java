@@ -16,47 +16,76 @@
 
 package org.kie.processmigration.service.impl;
 
-import java.net.URI;
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
 import javax.transaction.Transactional;
-import javax.ws.rs.client.ClientBuilder;
-import javax.ws.rs.client.Entity;
-import javax.ws.rs.core.MediaType;
-import javax.ws.rs.core.Response;
-import javax.ws.rs.core.Response.Status;
 
 import org.apache.commons.lang3.StringUtils;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.kie.processmigration.model.Execution;
 import org.kie.processmigration.model.Execution.ExecutionStatus;
 import org.kie.processmigration.model.Execution.ExecutionType;
+import org.kie.processmigration.model.KieServerConfig;
 import org.kie.processmigration.model.Migration;
+import org.kie.processmigration.model.MigrationCallback;
+import org.kie.processmigration.model.MigrationChunk;
 import org.kie.processmigration.model.MigrationDefinition;
+import org.kie.processmigration.model.MigrationProgress;
 import org.kie.processmigration.model.MigrationReport;
 import org.kie.processmigration.model.MigrationReportDto;
 import org.kie.processmigration.model.Plan;
+import org.kie.processmigration.model.RetryDefinition;
+import org.kie.processmigration.model.config.Callbacks;
+import org.kie.processmigration.model.config.Cluster;
 import org.kie.processmigration.model.exceptions.InvalidKieServerException;
 import org.kie.processmigration.model.exceptions.InvalidMigrationException;
 import org.kie.processmigration.model.exceptions.MigrationNotFoundException;
 import org.kie.processmigration.model.exceptions.PlanNotFoundException;
 import org.kie.processmigration.model.exceptions.ProcessNotFoundException;
 import org.kie.processmigration.model.exceptions.ReScheduleException;
+import org.kie.processmigration.service.KieAsyncClient;
 import org.kie.processmigration.service.KieService;
 import org.kie.processmigration.service.MigrationService;
 import org.kie.processmigration.service.PlanService;
 import org.kie.processmigration.service.SchedulerService;
 import org.kie.processmigration.service.TransactionHelper;
+import org.kie.server.api.exception.KieServicesException;
 import org.kie.server.api.model.admin.MigrationReportInstance;
-import org.kie.server.api.model.instance.ProcessInstance;
 import org.kie.server.client.QueryServicesClient;
-import org.kie.server.client.admin.ProcessAdminServicesClient;
+import org.kie.server.common.rest.NoEndpointFoundException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -68,8 +97,65 @@ public class MigrationServiceImpl implements MigrationService {
     private static final Logger logger = LoggerFactory.getLogger(MigrationServiceImpl.class);
 
     private static final List<ExecutionStatus> PENDING_STATUSES = List.of(ExecutionStatus.STARTED, ExecutionStatus.CREATED);
-    private static final List<Integer> QUERY_PROCESS_INSTANCE_STATUSES = Collections.singletonList(org.kie.api.runtime.process.ProcessInstance.STATE_ACTIVE);
-    public static final Integer QUERY_PAGE_SIZE = 100;
+    private static final List<ExecutionStatus> CANCELLABLE_STATUSES = List.of(ExecutionStatus.CREATED, ExecutionStatus.SCHEDULED,
+            ExecutionStatus.STARTED, ExecutionStatus.PAUSED);
+    private static final List<ExecutionStatus> PAUSABLE_STATUSES = List.of(ExecutionStatus.CREATED, ExecutionStatus.SCHEDULED,
+            ExecutionStatus.STARTED);
+    private static final String DEFAULT_CONCURRENCY = "1";
+    private static final String DEFAULT_CHUNK_SIZE = "1";
+    private static final String DEFAULT_DISCOVERY_PAGE_SIZE = "1000";
+    private static final String DEFAULT_DISCOVERY_PREFETCH_PAGES = "4";
+    private static final String DEFAULT_REPORT_BATCH_SIZE = "50";
+    private static final String DEFAULT_REPORT_FLUSH_INTERVAL = "5S";
+    private static final String DEFAULT_FAILURE_WINDOW = "100";
+    private static final String DEFAULT_HEDGE_THREADS = "16";
+    private static final long HEDGE_THREADS_KEEP_ALIVE = 60;
+    private static final String DEFAULT_OUTAGE_CHECK_INTERVAL = "10S";
+    private static final int MAX_BACKOFF_DOUBLINGS = 16;
+    private static final String DEFAULT_LEASE = "60S";
+    private static final int HEARTBEATS_PER_LEASE = 3;
+    private static final long AWAIT_WORKERS = 60;
+    private static final long AWAIT_EXECUTOR = 5;
+
+    @ConfigProperty(name = "pim.migration.concurrency", defaultValue = DEFAULT_CONCURRENCY)
+    Integer defaultConcurrency;
+
+    @ConfigProperty(name = "pim.migration.chunk-size", defaultValue = DEFAULT_CHUNK_SIZE)
+    Integer defaultChunkSize;
+
+    @ConfigProperty(name = "pim.migration.discovery-page-size", defaultValue = DEFAULT_DISCOVERY_PAGE_SIZE)
+    Integer discoveryPageSize;
+
+    @ConfigProperty(name = "pim.migration.discovery-prefetch-pages", defaultValue = DEFAULT_DISCOVERY_PREFETCH_PAGES)
+    Integer discoveryPrefetchPages;
+
+    @ConfigProperty(name = "pim.migration.report-batch-size", defaultValue = DEFAULT_REPORT_BATCH_SIZE)
+    Integer reportBatchSize;
+
+    @ConfigProperty(name = "pim.migration.report-flush-interval", defaultValue = DEFAULT_REPORT_FLUSH_INTERVAL)
+    Duration reportFlushInterval;
+
+    @ConfigProperty(name = "pim.migration.failure-window", defaultValue = DEFAULT_FAILURE_WINDOW)
+    int failureWindow;
+
+    @ConfigProperty(name = "pim.migration.hedge-threads", defaultValue = DEFAULT_HEDGE_THREADS)
+    int hedgeThreads;
+
+    @ConfigProperty(name = "pim.migration.outage-check-interval", defaultValue = DEFAULT_OUTAGE_CHECK_INTERVAL)
+    Duration outageCheckInterval;
+
+    @ConfigProperty(name = "pim.migration.lease", defaultValue = DEFAULT_LEASE)
+    Duration lease;
+
+    final ScheduledExecutorService executorService = Executors.newSingleThreadScheduledExecutor();
+    ExecutorService hedgeExecutor;
+    final Set<MigrationReportBuffer> reportBuffers = ConcurrentHashMap.newKeySet();
+    final Set<Long> ownedMigrations = ConcurrentHashMap.newKeySet();
+    final Map<Long, ExecutionStatus> interruptedMigrations = new ConcurrentHashMap<>();
+    final Set<Long> lostMigrations = ConcurrentHashMap.newKeySet();
+    final Map<Long, ProgressTracker> progressTrackers = new ConcurrentHashMap<>();
+    final Map<String, KieServerPermits> permits = new ConcurrentHashMap<>();
+    final Set<MigrationChunk.Key> runningChunks = ConcurrentHashMap.newKeySet();
 
     @Inject
     PlanService planService;
@@ -83,6 +169,56 @@ public class MigrationServiceImpl implements MigrationService {
     @Inject
     TransactionHelper txHelper;
 
+    @Inject
+    Cluster cluster;
+
+    @Inject
+    WorkerThreads workerThreads;
+
+    @Inject
+    CallbackDispatcher callbackDispatcher;
+
+    @Inject
+    Callbacks callbacks;
+
+    String nodeId;
+
+    @PostConstruct
+    void init() {
+        nodeId = cluster.nodeId().orElseGet(() -> UUID.randomUUID().toString());
+        // Hedged requests are sent in the calling thread, without hedging, when no thread is available
+        hedgeExecutor = new ThreadPoolExecutor(0, Math.max(hedgeThreads, 1), HEDGE_THREADS_KEEP_ALIVE, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), workerThreads.getThreadFactory());
+        long interval = reportFlushInterval.toMillis();
+        executorService.scheduleWithFixedDelay(() -> reportBuffers.forEach(MigrationReportBuffer::flushIfExpired),
+                interval, interval, TimeUnit.MILLISECONDS);
+        long heartbeat = lease.toMillis() / HEARTBEATS_PER_LEASE;
+        executorService.scheduleWithFixedDelay(this::renewLeases, heartbeat, heartbeat, TimeUnit.MILLISECONDS);
+        executorService.scheduleWithFixedDelay(this::refreshInterruptions, heartbeat, heartbeat, TimeUnit.MILLISECONDS);
+        long progressCheck = callbacks.pollInterval().toMillis();
+        executorService.scheduleWithFixedDelay(this::reportProgress, progressCheck, progressCheck, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executorService.shutdown();
+        try {
+            if (!executorService.awaitTermination(AWAIT_EXECUTOR, TimeUnit.SECONDS)) {
+                executorService.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executorService.shutdownNow();
+        }
+        hedgeExecutor.shutdownNow();
+        reportBuffers.forEach(buffer -> {
+            try {
+                buffer.close();
+            } catch (RuntimeException e) {
+                logger.warn("Unable to persist pending migration reports on shutdown", e);
+            }
+        });
+    }
+
     @Override
     @Transactional
     public Migration get(Long id) throws MigrationNotFoundException {
@@ -97,12 +233,23 @@ public class MigrationServiceImpl implements MigrationService {
         return MigrationReport.stream("migration_id", m.getId()).map(r -> new MigrationReportDto((MigrationReport) r)).collect(Collectors.toList());
     }
 
+    @Override
+    @Transactional
+    public List<MigrationCallback> getCallbacks(Long id) throws MigrationNotFoundException {
+        return MigrationCallback.listByMigrationId(get(id).getId());
+    }
+
     @Override
     @Transactional
     public MigrationReport getReport(Long logId) {
         return MigrationReport.findById(logId);
     }
 
+    @Override
+    public Duration getLease() {
+        return lease;
+    }
+
     @Override
     @Transactional
     public List<Migration> findAll() {
@@ -114,6 +261,11 @@ public class MigrationServiceImpl implements MigrationService {
         return Migration.find("status in ?1", PENDING_STATUSES).list();
     }
 
+    @Override
+    public List<Migration> findStale() {
+        return Migration.findStale(PENDING_STATUSES, Instant.now());
+    }
+
     @Override
     public Migration submit(MigrationDefinition definition) throws InvalidMigrationException {
         validateDefinition(definition);
@@ -131,14 +283,97 @@ public class MigrationServiceImpl implements MigrationService {
         return migration;
     }
 
+    /*
+     * Deletes the migration together with its pending chunks and callbacks, including the undelivered ones
+     */
     @Override
     @Transactional
     public Migration delete(Long id) throws MigrationNotFoundException {
         Migration migration = get(id);
+        MigrationChunk.delete("migrationId", id);
+        MigrationCallback.delete("migrationId", id);
         migration.delete();
         return migration;
     }
 
+    /*
+     * Marks the migration as cancelled. A running migration stops sending new requests to the KIE Server, lets the
+     * in-flight ones finish and persists their reports. Migrations running on other nodes notice the cancellation
+     * when renewing their lease.
+     */
+    @Override
+    public Migration cancel(Long id) throws MigrationNotFoundException, InvalidMigrationException {
+        get(id);
+        if (!txHelper.withTransaction(() -> Migration.markCancelled(id, CANCELLABLE_STATUSES, Instant.now()))) {
+            throw new InvalidMigrationException("The migration is already finished and cannot be cancelled");
+        }
+        interruptedMigrations.put(id, ExecutionStatus.CANCELLED);
+        logger.info("Migration [{}] - Cancellation requested", id);
+        return get(id);
+    }
+
+    /*
+     * Pauses the migration the same way it is cancelled. The paused migration can be resumed later on.
+     */
+    @Override
+    public Migration pause(Long id) throws MigrationNotFoundException, InvalidMigrationException {
+        get(id);
+        if (!txHelper.withTransaction(() -> Migration.updateStatus(id, PAUSABLE_STATUSES, ExecutionStatus.PAUSED))) {
+            throw new InvalidMigrationException("The migration is already finished and cannot be paused");
+        }
+        interruptedMigrations.put(id, ExecutionStatus.PAUSED);
+        logger.info("Migration [{}] - Pause requested", id);
+        return get(id);
+    }
+
+    /*
+     * Schedules a paused migration to continue now, or when its execution window opens. The instances already
+     * migrated are skipped.
+     */
+    @Override
+    public Migration resume(Long id) throws MigrationNotFoundException, InvalidMigrationException {
+        get(id);
+        if (!txHelper.withTransaction(() -> Migration.markResumed(id, Instant.now()))) {
+            throw new InvalidMigrationException("The migration is not paused or it is still being paused");
+        }
+        interruptedMigrations.remove(id);
+        Migration migration = get(id);
+        schedulerService.scheduleMigration(migration, nextWindowStart(migration));
+        logger.info("Migration [{}] - Resumed", id);
+        return migration;
+    }
+
+    /*
+     * Schedules a failed migration to migrate again only the instances whose latest report is failed. New reports are
+     * appended to the existing ones. Instances still failing are retried up to the max attempts of the execution,
+     * waiting for its backoff between attempts, doubled after each attempt.
+     */
+    @Override
+    public Migration retryFailed(Long id, RetryDefinition retry) throws MigrationNotFoundException, InvalidMigrationException {
+        get(id);
+        validateRetry(retry);
+        if (txHelper.withTransaction(() -> MigrationReport.listFailedProcessInstanceIds(id)).isEmpty()) {
+            throw new InvalidMigrationException("The migration has no failed instances to retry");
+        }
+        if (!txHelper.withTransaction(() -> Migration.markRetrying(id, Instant.now()))) {
+            throw new InvalidMigrationException("Only failed migrations can be retried");
+        }
+        Migration migration = get(id);
+        if (retry != null) {
+            Execution execution = migration.getDefinition().getExecution();
+            if (retry.getMaxAttempts() != null) {
+                execution.setRetryMaxAttempts(retry.getMaxAttempts());
+            }
+            if (retry.getBackoff() != null) {
+                execution.setRetryBackoff(retry.getBackoff());
+            }
+            txHelper.withTransaction(() -> Panache.getEntityManager().merge(migration));
+        }
+        schedulerService.scheduleMigration(migration, nextWindowStart(migration));
+        logger.info("Migration [{}] - Retrying the failed instances", id);
+        return migration;
+    }
+
     @Override
     @Transactional
     public Migration update(Long id, MigrationDefinition definition) throws MigrationNotFoundException, ReScheduleException, InvalidMigrationException {
@@ -152,29 +387,81 @@ public class MigrationServiceImpl implements MigrationService {
         }
         migration.setDefinition(definition);
         txHelper.withTransaction((Runnable) Panache.getEntityManager().merge(migration));
+        Migration.updateTotal(id, Migration.getTotal(definition));
+        migration.setTotal(Migration.getTotal(definition));
         schedulerService.reScheduleMigration(migration);
         return migration;
     }
 
     @Override
     public Migration migrate(Migration migration) throws InvalidMigrationException {
+        if (ExecutionStatus.CANCELLED.equals(migration.getStatus()) || ExecutionStatus.PAUSED.equals(migration.getStatus())) {
+            logger.info("Migration [{}] - Skipping {} migration", migration.getId(), migration.getStatus());
+            return migration;
+        }
+        if (!acquire(migration)) {
+            logger.info("Migration [{}] - Already running on node {}", migration.getId(), migration.getOwner());
+            return migration;
+        }
+        MigrationReportBuffer reports = new MigrationReportBuffer(migration.getId(), txHelper, reportBatchSize, reportFlushInterval);
+        reportBuffers.add(reports);
+        Instant retryAt = null;
+        Long discoveredTotal = null;
         try {
+            if (!isWithinWindow(migration)) {
+                logger.info("Migration [{}] - Waiting for the next execution window", migration.getId());
+                migration.reschedule();
+                return migration;
+            }
             Plan plan = planService.get(migration.getDefinition().getPlanId());
-            validatePlanExecution(migration.getDefinition(), plan);
+            HedgedRequests hedgedRequests = createHedgedRequests(migration.getId(), migration.getDefinition().getExecution());
+            validatePlanExecution(migration.getDefinition(), plan, hedgedRequests);
             if (ExecutionStatus.CREATED.equals(migration.getStatus()) || ExecutionStatus.SCHEDULED.equals(migration.getStatus())) {
                 migration.start();
             }
-            AtomicBoolean hasErrors = new AtomicBoolean(false);
-            List<Long> instanceIds = getInstancesToMigrate(migration);
-            ProcessAdminServicesClient adminService = kieService.getProcessAdminServicesClient(migration.getDefinition().getKieServerId());
-            QueryServicesClient queryService = kieService.getQueryServicesClient(migration.getDefinition().getKieServerId());
-            for (Long instanceId : instanceIds) {
-                boolean successful = migrateInstance(instanceId, migration, plan, adminService, queryService);
-                if (!hasErrors.get() && !Boolean.TRUE.equals(successful)) {
-                    hasErrors.set(Boolean.TRUE);
+            trackProgress(migration);
+            QueryServicesClient queryService = getQueryService(migration);
+            boolean hasErrors;
+            try (ProcessInstanceSource instances = getInstancesToMigrate(migration, plan, queryService, hedgedRequests)) {
+                ProgressTracker progress = progressTrackers.get(migration.getId());
+                if (progress != null) {
+                    progress.trackTotal(instances::getDiscoveredTotal);
+                }
+                try {
+                    if (cluster.enabled()) {
+                        hasErrors = distributeInstances(instances, migration);
+                    } else {
+                        hasErrors = migrateInstances(instances, migration, plan, instances.requiresValidation(), reports);
+                    }
+                } finally {
+                    discoveredTotal = instances.getDiscoveredTotal();
                 }
             }
-            migration.complete(hasErrors.get());
+            // The progress counters must be up to date before they are reset for a retry
+            reports.close();
+            ExecutionStatus interruption = interruptedMigrations.get(migration.getId());
+            if (lostMigrations.contains(migration.getId())) {
+                logger.info("Migration [{}] - Stopped after losing the lease", migration.getId());
+            } else if (ExecutionStatus.CANCELLED.equals(interruption)) {
+                logger.info("Migration [{}] - Cancelled", migration.getId());
+                migration.cancel();
+            } else if (ExecutionStatus.PAUSED.equals(interruption)) {
+                logger.info("Migration [{}] - Paused", migration.getId());
+                migration.pause();
+            } else if (ExecutionStatus.FAILED.equals(interruption)) {
+                logger.info("Migration [{}] - Aborted", migration.getId());
+            } else if (!isWithinWindow(migration)) {
+                logger.info("Migration [{}] - Execution window closed. Waiting for the next one", migration.getId());
+                migration.reschedule();
+            } else if (hasErrors && migration.getRetryAttempt() != null && migration.getRetryAttempt() < getRetryMaxAttempts(migration)) {
+                retryAt = Instant.now().plus(getRetryBackoff(migration));
+                logger.info("Migration [{}] - Instances failed in retry attempt {}. Retrying them at {}", migration.getId(),
+                        migration.getRetryAttempt(), retryAt);
+                migration.setRetryAttempt(migration.getRetryAttempt() + 1).reschedule();
+                txHelper.withTransaction(() -> Migration.resetFailed(migration.getId()));
+            } else {
+                migration.complete(hasErrors);
+            }
         } catch (ProcessNotFoundException e) {
             migration.fail(e);
             throw e;
@@ -185,58 +472,787 @@ public class MigrationServiceImpl implements MigrationService {
             logger.warn("Migration failed", e);
             migration.fail(e);
         } finally {
-            txHelper.withTransaction(() -> Panache.getEntityManager().merge(migration));
-            if (ExecutionType.ASYNC.equals(migration.getDefinition().getExecution().getType()) &&
-                    migration.getDefinition().getExecution().getCallbackUrl() != null) {
-                doCallback(migration);
+            flushReports(migration, reports);
+            progressTrackers.remove(migration.getId());
+            ownedMigrations.remove(migration.getId());
+            interruptedMigrations.remove(migration.getId());
+            if (lostMigrations.remove(migration.getId())) {
+                logger.warn("Migration [{}] - Lost the lease. Leaving the migration to the node that took it over", migration.getId());
+            } else {
+                release(migration, retryAt, discoveredTotal);
             }
         }
         return migration;
     }
 
-    private boolean migrateInstance(Long instanceId, Migration migration, Plan plan, ProcessAdminServicesClient adminService, QueryServicesClient queryService) {
-        MigrationReportInstance reportInstance;
+    /*
+     * Persists the outcome of a migration run by this node and gives up its ownership. The total of a migration whose
+     * instances are discovered is set once all of them have been discovered, whatever the outcome of the migration.
+     */
+    private void release(Migration migration, Instant retryAt, Long discoveredTotal) {
+        migration.setOwner(null).setLeaseExpiresAt(null);
+        txHelper.withTransaction(() -> {
+            if (discoveredTotal != null) {
+                Migration.completeTotal(migration.getId(), discoveredTotal);
+            }
+            Migration current = Migration.findById(migration.getId());
+            if (current != null) {
+                migration.copyProgress(current);
+            }
+            if (current != null && isInterruption(current.getStatus()) && !current.getStatus().equals(migration.getStatus())) {
+                // Cancelled, paused or aborted, maybe from another node before this one noticed it
+                migration.setStatus(current.getStatus())
+                        .setCancelledAt(current.getCancelledAt())
+                        .setFinishedAt(current.getFinishedAt())
+                        .setErrorMessage(current.getErrorMessage());
+            }
+            if (isFinished(migration.getStatus())) {
+                migration.setRetryAttempt(null);
+                // The chunks of paused or rescheduled migrations are kept to continue with them
+                MigrationChunk.delete("migrationId", migration.getId());
+            }
+            Panache.getEntityManager().merge(migration);
+            if (!ExecutionStatus.SCHEDULED.equals(migration.getStatus()) &&
+                    !ExecutionStatus.PAUSED.equals(migration.getStatus()) &&
+                    ExecutionType.ASYNC.equals(migration.getDefinition().getExecution().getType()) &&
+                    migration.getDefinition().getExecution().getCallbackUrl() != null) {
+                callbackDispatcher.enqueue(migration);
+            }
+        });
+        if (ExecutionStatus.SCHEDULED.equals(migration.getStatus())) {
+            Instant startAt = nextWindowStart(migration);
+            schedulerService.scheduleMigration(migration, retryAt != null && retryAt.isAfter(startAt) ? retryAt : startAt);
+        }
+    }
+
+    /*
+     * Takes the ownership of the migration for this node. The lease is renewed while the migration is running
+     * so that other nodes only take over the migration if this node stops. A migration already running on this node
+     * is not acquired twice.
+     */
+    private boolean acquire(Migration migration) {
+        if (!ownedMigrations.add(migration.getId())) {
+            migration.setOwner(nodeId);
+            return false;
+        }
+        Instant now = Instant.now();
+        Instant leaseExpiresAt = now.plus(lease);
+        boolean acquired = txHelper.withTransaction(() -> Migration.acquire(migration.getId(), nodeId, now, leaseExpiresAt));
+        if (acquired) {
+            lostMigrations.remove(migration.getId());
+            migration.setOwner(nodeId).setLeaseExpiresAt(leaseExpiresAt);
+        } else {
+            ownedMigrations.remove(migration.getId());
+            txHelper.withTransaction(() -> {
+                Migration current = Migration.findById(migration.getId());
+                if (current != null) {
+                    migration.setOwner(current.getOwner()).setLeaseExpiresAt(current.getLeaseExpiresAt());
+                }
+            });
+        }
+        return acquired;
+    }
+
+    /*
+     * Extends the leases of the migrations owned by this node. The migrations whose lease could not be renewed, e.g.
+     * because this node could not renew it in time and another node took the migration over, are interrupted.
+     */
+    private void renewLeases() {
+        if (ownedMigrations.isEmpty()) {
+            return;
+        }
+        List<Long> ids = new ArrayList<>(ownedMigrations);
         try {
-            ProcessInstance pi = queryService.findProcessInstanceById(instanceId);
-            if (pi != null && pi.getContainerId().equals(plan.getSource().getContainerId())) {
-                reportInstance = adminService.migrateProcessInstance(
-                        plan.getSource().getContainerId(),
-                        instanceId,
-                        plan.getTarget().getContainerId(),
-                        plan.getTarget().getProcessId(),
-                        plan.getMappings());
-            } else {
-                reportInstance = buildReport(instanceId);
-                reportInstance.setLogs(Collections.singletonList("Instance did not exist in source container. Migration skipped"));
-                logger.debug("Process Instance {} did not exist in source container with id {}", instanceId, plan.getSource().getContainerId());
+            txHelper.withTransaction(() -> {
+                if (Migration.renewLeases(nodeId, ids, Instant.now().plus(lease)) < ids.size()) {
+                    ids.removeAll(Migration.listOwnedIds(nodeId, ids));
+                    ids.stream().filter(ownedMigrations::contains).forEach(id -> {
+                        logger.warn("Migration [{}] - Unable to renew the lease. Stopping the migration", id);
+                        lostMigrations.add(id);
+                    });
+                }
+            });
+        } catch (RuntimeException e) {
+            logger.warn("Unable to renew the lease of the running migrations", e);
+        }
+    }
+
+    /*
+     * Flags the migrations being migrated by this node that have been cancelled, paused or aborted from another node
+     */
+    private void refreshInterruptions() {
+        Set<Long> running = reportBuffers.stream().map(MigrationReportBuffer::getMigrationId).collect(Collectors.toSet());
+        interruptedMigrations.keySet().retainAll(running);
+        if (running.isEmpty()) {
+            return;
+        }
+        try {
+            txHelper.withTransaction(() -> Migration.findInterrupted(running))
+                    .forEach(m -> interruptedMigrations.put(m.getId(), m.getStatus()));
+        } catch (RuntimeException e) {
+            logger.warn("Unable to check the interruption of the running migrations", e);
+        }
+    }
+
+    private static boolean isFinished(ExecutionStatus status) {
+        return ExecutionStatus.COMPLETED.equals(status) || ExecutionStatus.FAILED.equals(status) || ExecutionStatus.CANCELLED.equals(status);
+    }
+
+    private static boolean isInterruption(ExecutionStatus status) {
+        return ExecutionStatus.CANCELLED.equals(status) || ExecutionStatus.PAUSED.equals(status) || ExecutionStatus.FAILED.equals(status);
+    }
+
+    /*
+     * Returns true when no new requests must be sent to the KIE Server because the migration has been cancelled,
+     * paused, aborted or its execution window has closed
+     */
+    private boolean isInterrupted(Migration migration) {
+        return interruptedMigrations.containsKey(migration.getId()) || lostMigrations.contains(migration.getId())
+                || !isWithinWindow(migration);
+    }
+
+    private static boolean isWithinWindow(Migration migration) {
+        Execution execution = migration.getDefinition().getExecution();
+        return execution == null || execution.isWithinWindow(ZonedDateTime.now());
+    }
+
+    private static Instant nextWindowStart(Migration migration) {
+        Execution execution = migration.getDefinition().getExecution();
+        ZonedDateTime now = ZonedDateTime.now();
+        return execution == null ? now.toInstant() : execution.nextWindowStart(now).toInstant();
+    }
+
+    /*
+     * Returns the id identifying this node as the owner of the running migrations and claimed migration chunks
+     */
+    String getNodeId() {
+        return nodeId;
+    }
+
+    /*
+     * Claims up to the given number of migration chunks on behalf of this node
+     */
+    List<MigrationChunk> claimChunks(int maxChunks) {
+        Instant now = Instant.now();
+        return txHelper.withTransaction(() -> MigrationChunk.claim(nodeId, now, now.plus(cluster.lease()), maxChunks));
+    }
+
+    /*
+     * Extends the leases of the chunks being migrated by this node. The chunks claimed but no longer being migrated
+     * are left to expire.
+     */
+    void renewChunkLeases() {
+        if (runningChunks.isEmpty()) {
+            return;
+        }
+        Instant leaseExpiresAt = Instant.now().plus(cluster.lease());
+        txHelper.withTransaction(() -> runningChunks.forEach(key -> {
+            if (!MigrationChunk.renewLease(key.getMigrationId(), key.getChunkIndex(), nodeId, leaseExpiresAt)) {
+                logger.warn("Migration [{}] - Lost the lease of chunk {}", key.getMigrationId(), key.getChunkIndex());
             }
+        }));
+    }
+
+    /*
+     * Migrates the instances of a chunk claimed by this node. Instances reported by a previous attempt are skipped.
+     * If the chunk cannot be migrated it is released so that it is claimed again by any node.
+     */
+    void migrateClaimedChunk(MigrationChunk chunk) {
+        MigrationChunk.Key key = new MigrationChunk.Key(chunk.getMigrationId(), chunk.getChunkIndex());
+        runningChunks.add(key);
+        try {
+            if (!doMigrateClaimedChunk(chunk)) {
+                releaseChunk(chunk);
+            }
+        } finally {
+            runningChunks.remove(key);
+        }
+    }
+
+    /*
+     * Returns false if the chunk could not be migrated
+     */
+    private boolean doMigrateClaimedChunk(MigrationChunk chunk) {
+        Long migrationId = chunk.getMigrationId();
+        Migration migration = txHelper.withTransaction(() -> {
+            Migration m = Migration.findById(migrationId);
+            if (m != null && m.getDefinition().getProcessInstanceIds() != null) {
+                // Initialize the instance ids within the transaction
+                m.getDefinition().getProcessInstanceIds().size();
+            }
+            return m;
+        });
+        if (migration == null || isFinished(migration.getStatus())) {
+            logger.debug("Migration [{}] - Discarding chunk {} of a finished migration", migrationId, chunk.getChunkIndex());
+            txHelper.withTransaction(() -> MigrationChunk.complete(migrationId, chunk.getChunkIndex(), nodeId));
+            return true;
+        }
+        if (!ExecutionStatus.STARTED.equals(migration.getStatus())) {
+            logger.debug("Migration [{}] - Releasing chunk {} of a migration that is not running", migrationId, chunk.getChunkIndex());
+            return false;
+        }
+        MigrationReportBuffer reports = new MigrationReportBuffer(migrationId, txHelper, reportBatchSize, reportFlushInterval);
+        reportBuffers.add(reports);
+        try {
+            Plan plan = planService.get(migration.getDefinition().getPlanId());
+            List<Long> instanceIds = chunk.getInstanceIdList();
+            List<Long> reported = txHelper.withTransaction(() -> migration.getRetryAttempt() == null ?
+                    MigrationReport.listProcessInstanceIds(migrationId, instanceIds) :
+                    MigrationReport.listSuccessfulProcessInstanceIds(migrationId, instanceIds));
+            instanceIds.removeAll(reported);
+            List<Long> definedIds = migration.getDefinition().getProcessInstanceIds();
+            boolean requiresValidation = definedIds != null && !definedIds.isEmpty();
+            migrateInstances(ProcessInstanceSource.of(instanceIds), migration, plan, requiresValidation, reports);
+            // The progress counters must be up to date before the owner of the migration sees the chunk completed
+            reports.close();
+            txHelper.withTransaction(() -> MigrationChunk.complete(migrationId, chunk.getChunkIndex(), nodeId));
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
         } catch (Exception e) {
-            logger.warn("Unable to migrate instanceID: " + instanceId, e);
-            reportInstance = buildReportFromError(instanceId, e);
+            logger.warn("Migration [{}] - Unable to migrate chunk {}. It will be claimed again", migrationId, chunk.getChunkIndex(), e);
+            return false;
+        } finally {
+            flushReports(migration, reports);
         }
-        final MigrationReport report = new MigrationReport(migration.getId(), reportInstance);
-        return txHelper.withTransaction(() -> {
-            report.persist();
-            return report;
-        }).getSuccessful();
     }
 
-    private void doCallback(Migration migration) {
-        URI callbackURI = null;
+    private void releaseChunk(MigrationChunk chunk) {
         try {
-            callbackURI = migration.getDefinition().getExecution().getCallbackUrl();
-            Response response = ClientBuilder.newClient()
-                    .target(callbackURI)
-                    .request(MediaType.APPLICATION_JSON)
-                    .buildPost(Entity.json(migration))
-                    .invoke();
-            if (Status.OK.getStatusCode() == response.getStatus()) {
-                logger.debug("Migration [{}] - Callback to {} replied successfully", migration.getId(), callbackURI);
+            txHelper.withTransaction(() -> MigrationChunk.release(chunk.getMigrationId(), chunk.getChunkIndex(), nodeId));
+        } catch (RuntimeException e) {
+            logger.warn("Migration [{}] - Unable to release chunk {}. It will be claimed again once its lease expires",
+                    chunk.getMigrationId(), chunk.getChunkIndex(), e);
+        }
+    }
+
+    /*
+     * Splits the instances in chunks that any node of the cluster can claim and migrates the chunks claimed by this
+     * node until all of them are completed. Returns true if any of the instances of the migration could not be migrated.
+     */
+    private boolean distributeInstances(ProcessInstanceSource instances, Migration migration) throws InterruptedException {
+        Long migrationId = migration.getId();
+        LongHashSet chunkedInstances = new LongHashSet();
+        int chunkIndex = txHelper.withTransaction(() -> {
+            Panache.getEntityManager().merge(migration);
+            List<MigrationChunk> chunks = MigrationChunk.list("migrationId", migrationId);
+            chunks.forEach(chunk -> chunk.getInstanceIdList().forEach(chunkedInstances::add));
+            return chunks.stream().mapToInt(MigrationChunk::getChunkIndex).max().orElse(-1) + 1;
+        });
+        int chunkSize = Math.max(cluster.chunkSize(), 1);
+        for (List<Long> instanceIds = nextChunk(instances, chunkSize); !instanceIds.isEmpty() && !isInterrupted(migration);
+             instanceIds = nextChunk(instances, chunkSize)) {
+            instanceIds.removeIf(chunkedInstances::contains);
+            if (!instanceIds.isEmpty()) {
+                MigrationChunk chunk = new MigrationChunk(migrationId, chunkIndex++, instanceIds);
+                txHelper.withTransaction(() -> chunk.persist());
+            }
+        }
+        logger.debug("Migration [{}] - Split in {} chunks", migrationId, chunkIndex);
+        while (!isInterrupted(migration) && txHelper.withTransaction(() -> MigrationChunk.countUnfinished(migrationId)) > 0) {
+            List<MigrationChunk> claimed = claimChunks(1);
+            if (claimed.isEmpty()) {
+                Thread.sleep(cluster.pollInterval().toMillis());
             } else {
-                logger.warn("Migration [{}] - Callback to {} replied with {}", migration.getId(), callbackURI, response.getStatus());
+                claimed.forEach(this::migrateClaimedChunk);
             }
+        }
+        return txHelper.withTransaction(() -> MigrationReport.hasFailedProcessInstances(migrationId));
+    }
+
+    private boolean migrateInstances(ProcessInstanceSource instances, Migration migration, Plan plan, boolean requiresValidation,
+                                     MigrationReportBuffer reports) throws InvalidKieServerException, InterruptedException {
+        String kieServerId = migration.getDefinition().getKieServerId();
+        KieAsyncClient adminService = getAdminService(migration);
+        ProcessInstanceLookup instanceLookup = null;
+        if (requiresValidation) {
+            instanceLookup = new ProcessInstanceLookup(migration.getId(), getQueryService(migration),
+                    createHedgedRequests(migration.getId(), migration.getDefinition().getExecution()), plan.getSource(),
+                    () -> registerQuery(kieServerId, ProcessInstanceLookup.QUERY_NAME, ProcessInstanceLookup.QUERY_EXPRESSION));
+        }
+        KieServerPermits permits = getPermits(kieServerId);
+        permits.register(migration.getId());
+        try {
+            return migrateInstances(instances, new MigrationContext(migration, plan, adminService, reports, instanceLookup,
+                    createThrottle(migration), permits, createFailureLimit(migration),
+                    cluster.enabled() ? null : progressTrackers.get(migration.getId())));
+        } finally {
+            permits.unregister(migration.getId());
+        }
+    }
+
+    /*
+     * Migrates the given instances in chunks of the configured size. Chunks are processed either sequentially or,
+     * when the throttle allows a concurrency greater than 1, using a pool of workers limited by the throttle.
+     * Returns true if any of the instances could not be migrated.
+     */
+    private boolean migrateInstances(ProcessInstanceSource instances, MigrationContext context) throws InterruptedException {
+        AtomicBoolean hasErrors = new AtomicBoolean(false);
+        Migration migration = context.getMigration();
+        int chunkSize = getChunkSize(migration);
+        AdaptiveThrottle throttle = context.getThrottle();
+        if (throttle.getMaxLimit() <= 1) {
+            for (List<Long> chunk = nextChunk(instances, chunkSize); !chunk.isEmpty(); chunk = nextChunk(instances, chunkSize)) {
+                if (isInterrupted(migration)) {
+                    break;
+                }
+                if (!migrateChunk(chunk, context)) {
+                    hasErrors.set(true);
+                }
+            }
+            return hasErrors.get();
+        }
+        logger.debug("Migration [{}] - Migrating instances with {} to {} workers", migration.getId(), throttle.getLimit(), throttle.getMaxLimit());
+        ExecutorService workers = Executors.newFixedThreadPool(throttle.getMaxLimit(), workerThreads.getThreadFactory());
+        AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        try {
+            for (List<Long> chunk = nextChunk(instances, chunkSize); !chunk.isEmpty(); chunk = nextChunk(instances, chunkSize)) {
+                throttle.acquire();
+                if (failure.get() != null || isInterrupted(migration)) {
+                    throttle.release();
+                    break;
+                }
+                workers.execute(() -> {
+                    try {
+                        if (!migrateChunk(chunk, context)) {
+                            hasErrors.set(true);
+                        }
+                    } catch (RuntimeException e) {
+                        failure.compareAndSet(null, e);
+                    } finally {
+                        throttle.release();
+                    }
+                });
+            }
+            throttle.awaitIdle();
+        } finally {
+            workers.shutdown();
+            if (!workers.awaitTermination(AWAIT_WORKERS, TimeUnit.SECONDS)) {
+                workers.shutdownNow();
+            }
+        }
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+        return hasErrors.get();
+    }
+
+    /*
+     * The execution concurrency is the initial limit. The KIE Server configuration may allow increasing it up to its
+     * maximum concurrency and bounds how much it can be decreased. A concurrency requested by the migration itself is
+     * never exceeded.
+     */
+    private AdaptiveThrottle createThrottle(Migration migration) throws InvalidKieServerException {
+        int concurrency = getConcurrency(migration);
+        KieServerConfig config = kieService.getConfig(migration.getDefinition().getKieServerId());
+        if (config == null) {
+            return new AdaptiveThrottle(migration.getId(), concurrency, 1, concurrency, null);
+        }
+        int maxConcurrency = Optional.ofNullable(config.getMaxConcurrency()).orElse(concurrency);
+        Execution execution = migration.getDefinition().getExecution();
+        if (execution != null && execution.getConcurrency() != null) {
+            maxConcurrency = Math.min(maxConcurrency, concurrency);
+        }
+        int minConcurrency = Math.min(Optional.ofNullable(config.getMinConcurrency()).orElse(1), maxConcurrency);
+        return new AdaptiveThrottle(migration.getId(), concurrency, minConcurrency, maxConcurrency, config.getTargetLatency());
+    }
+
+    /*
+     * The query and admin timeouts of the execution replace the default read timeout of the KIE Server client
+     */
+    private QueryServicesClient getQueryService(Migration migration) throws InvalidKieServerException {
+        Execution execution = migration.getDefinition().getExecution();
+        String kieServerId = migration.getDefinition().getKieServerId();
+        if (execution == null || execution.getQueryTimeout() == null) {
+            return kieService.getQueryServicesClient(kieServerId);
+        }
+        return kieService.getQueryServicesClient(kieServerId, execution.getQueryTimeout());
+    }
+
+    private KieAsyncClient getAdminService(Migration migration) throws InvalidKieServerException {
+        Execution execution = migration.getDefinition().getExecution();
+        String kieServerId = migration.getDefinition().getKieServerId();
+        if (execution == null || execution.getAdminTimeout() == null) {
+            return kieService.getAsyncClient(kieServerId);
+        }
+        return kieService.getAsyncClient(kieServerId, execution.getAdminTimeout());
+    }
+
+    private HedgedRequests createHedgedRequests(Long migrationId, Execution execution) {
+        if (execution == null || execution.getHedgeDelay() == null) {
+            return HedgedRequests.none();
+        }
+        return new HedgedRequests(migrationId, execution.getHedgeDelay(), hedgeExecutor);
+    }
+
+    private FailureLimit createFailureLimit(Migration migration) {
+        Execution execution = migration.getDefinition().getExecution();
+        if (execution == null || (execution.getMaxFailures() == null && execution.getMaxFailureRatio() == null)) {
+            return null;
+        }
+        return new FailureLimit(execution.getMaxFailures(), execution.getMaxFailureRatio(), failureWindow);
+    }
+
+    private static int getRetryMaxAttempts(Migration migration) {
+        Execution execution = migration.getDefinition().getExecution();
+        if (execution != null && execution.getRetryMaxAttempts() != null) {
+            return execution.getRetryMaxAttempts();
+        }
+        return 1;
+    }
+
+    /*
+     * The backoff of the execution, doubled after each attempt
+     */
+    private static Duration getRetryBackoff(Migration migration) {
+        Execution execution = migration.getDefinition().getExecution();
+        if (execution == null || execution.getRetryBackoff() == null) {
+            return Duration.ZERO;
+        }
+        return execution.getRetryBackoff().multipliedBy(1L << Math.min(migration.getRetryAttempt() - 1, MAX_BACKOFF_DOUBLINGS));
+    }
+
+    /*
+     * The permits are shared by all the migrations sent to the same KIE Server host
+     */
+    private KieServerPermits getPermits(String kieServerId) throws InvalidKieServerException {
+        KieServerConfig config = kieService.getConfig(kieServerId);
+        if (config == null || config.getMigrationPermits() == null) {
+            return KieServerPermits.unlimited();
+        }
+        return permits.computeIfAbsent(config.getHost(), host -> new KieServerPermits(config.getMigrationPermits()));
+    }
+
+    private int getConcurrency(Migration migration) {
+        Execution execution = migration.getDefinition().getExecution();
+        if (execution != null && execution.getConcurrency() != null) {
+            return execution.getConcurrency();
+        }
+        return defaultConcurrency;
+    }
+
+    private static List<Long> nextChunk(ProcessInstanceSource instances, int size) throws InterruptedException {
+        List<Long> chunk = new ArrayList<>(size);
+        Long instanceId;
+        while (chunk.size() < size && (instanceId = instances.next()) != null) {
+            chunk.add(instanceId);
+        }
+        return chunk;
+    }
+
+    private int getChunkSize(Migration migration) {
+        Execution execution = migration.getDefinition().getExecution();
+        if (execution != null && execution.getChunkSize() != null) {
+            return execution.getChunkSize();
+        }
+        return defaultChunkSize;
+    }
+
+    /*
+     * Migrates all the instances of the chunk with a single request. If the request fails, or the server does not report
+     * the result of some of the instances, these instances are migrated one by one to isolate the failing ones.
+     */
+    private boolean migrateChunk(List<Long> instanceIds, MigrationContext context) {
+        Plan plan = context.getPlan();
+        boolean successful = true;
+        List<Long> candidates = new ArrayList<>();
+        ProcessInstanceLookup instanceLookup = context.getInstanceLookup();
+        if (instanceLookup == null) {
+            candidates.addAll(instanceIds);
+        } else if (instanceLookup.isBatched()) {
+            Set<Long> found;
+            try {
+                found = retryOnOutage(context, () -> instanceLookup.findInSourceContainer(instanceIds));
+            } catch (CancellationException | InterruptedException e) {
+                return successful;
+            } catch (Exception e) {
+                logger.warn("Migration [{}] - Unable to look up a chunk of {} instances", context.getMigration().getId(), instanceIds.size(), e);
+                for (Long instanceId : instanceIds) {
+                    successful &= addReport(buildReportFromError(instanceId, e), context);
+                }
+                return successful;
+            }
+            for (Long instanceId : instanceIds) {
+                if (found.contains(instanceId)) {
+                    candidates.add(instanceId);
+                } else {
+                    successful &= addReport(buildSkippedReport(instanceId, plan), context);
+                }
+            }
+        } else {
+            for (Long instanceId : instanceIds) {
+                if (isInterrupted(context.getMigration())) {
+                    return successful;
+                }
+                try {
+                    if (retryOnOutage(context, () -> instanceLookup.existsInSourceContainer(instanceId))) {
+                        candidates.add(instanceId);
+                    } else {
+                        successful &= addReport(buildSkippedReport(instanceId, plan), context);
+                    }
+                } catch (CancellationException | InterruptedException e) {
+                    return successful;
+                } catch (Exception e) {
+                    logger.warn("Unable to migrate instanceID: " + instanceId, e);
+                    successful &= addReport(buildReportFromError(instanceId, e), context);
+                }
+            }
+        }
+        if (candidates.isEmpty()) {
+            return successful;
+        }
+        if (candidates.size() == 1) {
+            MigrationReportInstance reportInstance = migrateProcessInstance(candidates.get(0), context);
+            if (reportInstance != null) {
+                successful &= addReport(reportInstance, context);
+            }
+            return successful;
+        }
+        Map<Long, MigrationReportInstance> results = new HashMap<>();
+        try {
+            callKieServer(context, candidates.size(), () -> context.getAdminService().migrateProcessInstances(
+                    plan.getSource().getContainerId(),
+                    candidates,
+                    plan.getTarget().getContainerId(),
+                    plan.getTarget().getProcessId(),
+                    plan.getMappings()))
+                    .forEach(r -> results.putIfAbsent(r.getProcessInstanceId(), r));
+        } catch (Exception e) {
+            logger.warn("Migration [{}] - Unable to migrate a chunk of {} instances. Migrating them one by one",
+                    context.getMigration().getId(), candidates.size(), e);
+        }
+        for (Long instanceId : candidates) {
+            MigrationReportInstance reportInstance = results.get(instanceId);
+            if (reportInstance == null) {
+                if (isInterrupted(context.getMigration())) {
+                    continue;
+                }
+                reportInstance = migrateProcessInstance(instanceId, context);
+                if (reportInstance == null) {
+                    continue;
+                }
+            }
+            successful &= addReport(reportInstance, context);
+        }
+        return successful;
+    }
+
+    /*
+     * Returns null if the migration was interrupted while waiting for the KIE Server
+     */
+    private MigrationReportInstance migrateProcessInstance(Long instanceId, MigrationContext context) {
+        Plan plan = context.getPlan();
+        try {
+            return callKieServer(context, 1, () -> context.getAdminService().migrateProcessInstance(
+                    plan.getSource().getContainerId(),
+                    instanceId,
+                    plan.getTarget().getContainerId(),
+                    plan.getTarget().getProcessId(),
+                    plan.getMappings()));
+        } catch (CancellationException | InterruptedException e) {
+            return null;
         } catch (Exception e) {
-            logger.error("Migration [{}] - Callback to {} failed.", migration.getId(), callbackURI, e);
+            logger.warn("Unable to migrate instanceID: " + instanceId, e);
+            return buildReportFromError(instanceId, e);
+        }
+    }
+
+    /*
+     * Performs a migration request once a permit of the KIE Server is available and reports its outcome to the throttle.
+     * If the KIE Server cannot be reached, the request is retried once it is reachable again.
+     */
+    private <T> T callKieServer(MigrationContext context, int instances, Supplier<CompletionStage<T>> call)
+            throws InterruptedException {
+        Long migrationId = context.getMigration().getId();
+        while (true) {
+            try {
+                context.getPermits().acquire(migrationId);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw e;
+            }
+            long start = System.nanoTime();
+            RuntimeException outage;
+            try {
+                T result = await(call.get());
+                context.getThrottle().onSuccess(start, instances);
+                return result;
+            } catch (RuntimeException e) {
+                context.getThrottle().onFailure(start, e);
+                if (!isConnectionFailure(e)) {
+                    throw e;
+                }
+                outage = e;
+            } finally {
+                context.getPermits().release(migrationId);
+            }
+            awaitKieServer(context, outage);
+        }
+    }
+
+    /*
+     * Waits for the reply of a non-blocking request and rethrows its failure as it would have been thrown by the
+     * blocking client
+     */
+    private static <T> T await(CompletionStage<T> stage) throws InterruptedException {
+        try {
+            return stage.toCompletableFuture().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw e;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new KieServicesException(e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    /*
+     * Performs a query to the KIE Server, retrying it once the KIE Server is reachable again if it cannot be reached
+     */
+    private <T> T retryOnOutage(MigrationContext context, Supplier<T> call) throws InterruptedException {
+        while (true) {
+            try {
+                return call.get();
+            } catch (RuntimeException e) {
+                if (!isConnectionFailure(e)) {
+                    throw e;
+                }
+                awaitKieServer(context, e);
+            }
+        }
+    }
+
+    /*
+     * Suspends the calling worker until the KIE Server is reachable. Throws a CancellationException if the migration is
+     * interrupted in the meantime so that no report is recorded for the pending instances.
+     */
+    private void awaitKieServer(MigrationContext context, RuntimeException error) throws InterruptedException {
+        Migration migration = context.getMigration();
+        String kieServerId = migration.getDefinition().getKieServerId();
+        logger.warn("Migration [{}] - KIE Server {} is unreachable. Suspending the migration until it is available: {}",
+                migration.getId(), kieServerId, error.getMessage());
+        do {
+            if (isInterrupted(migration)) {
+                throw new CancellationException("The migration was interrupted while the KIE Server was unreachable");
+            }
+            try {
+                Thread.sleep(outageCheckInterval.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw e;
+            }
+        } while (!kieService.isReachable(kieServerId));
+        logger.info("Migration [{}] - KIE Server {} is reachable again. Resuming the migration", migration.getId(), kieServerId);
+    }
+
+    /*
+     * Failures where the request could not reach the KIE Server, as opposed to business failures
+     */
+    private static boolean isConnectionFailure(Throwable error) {
+        for (Throwable e = error; e != null; e = e.getCause() == e ? null : e.getCause()) {
+            if (e instanceof ConnectException || e instanceof NoRouteToHostException || e instanceof UnknownHostException
+                    || e instanceof NoEndpointFoundException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean addReport(MigrationReportInstance reportInstance, MigrationContext context) {
+        MigrationReport report = new MigrationReport(context.getMigration().getId(), reportInstance);
+        context.getReports().add(report);
+        boolean successful = Boolean.TRUE.equals(report.getSuccessful());
+        ProgressTracker progress = context.getProgress();
+        if (progress != null) {
+            progress.record(successful);
+            if (progress.isCountDue()) {
+                sendProgress(progress);
+            }
+        }
+        if (context.getFailureLimit() != null) {
+            String reason = context.getFailureLimit().record(successful);
+            if (reason != null) {
+                abort(context.getMigration(), reason);
+            }
+        }
+        return successful;
+    }
+
+    /*
+     * Stops sending requests for the migration and fails it. The instances already migrated are kept.
+     */
+    private void abort(Migration migration, String reason) {
+        if (interruptedMigrations.putIfAbsent(migration.getId(), ExecutionStatus.FAILED) != null) {
+            return;
+        }
+        logger.warn("Migration [{}] - {}", migration.getId(), reason);
+        txHelper.withTransaction(() -> Migration.markFailed(migration.getId(), PAUSABLE_STATUSES, reason, Instant.now()));
+    }
+
+    /*
+     * Starts tracking the progress of an async migration with a callback URL whose execution defines a progress
+     * interval or a number of instances between progress callbacks
+     */
+    private void trackProgress(Migration migration) {
+        Execution execution = migration.getDefinition().getExecution();
+        if (!ExecutionType.ASYNC.equals(execution.getType()) || execution.getCallbackUrl() == null ||
+                (execution.getProgressInterval() == null && execution.getProgressEvery() == null)) {
+            return;
+        }
+        ProgressTracker progress = new ProgressTracker(migration.getId(), execution.getCallbackUrl(), migration.getTotal(),
+                execution.getProgressInterval(), execution.getProgressEvery(), callbacks.minProgressInterval());
+        progress.startFrom(toLong(migration.getSucceeded()), toLong(migration.getFailed()));
+        progressTrackers.put(migration.getId(), progress);
+    }
+
+    private static long toLong(Long value) {
+        return value == null ? 0 : value;
+    }
+
+    /*
+     * Sends the progress callbacks that are due. In a cluster the instances are migrated by any node, so the
+     * counters are read from the migration.
+     */
+    private void reportProgress() {
+        progressTrackers.values().forEach(progress -> {
+            if (!progress.canReport()) {
+                return;
+            }
+            try {
+                if (cluster.enabled()) {
+                    Migration current = txHelper.withTransaction(() -> Migration.<Migration>findById(progress.getMigrationId()));
+                    if (current != null) {
+                        progress.update(toLong(current.getSucceeded()), toLong(current.getFailed()));
+                    }
+                }
+                sendProgress(progress);
+            } catch (RuntimeException e) {
+                logger.warn("Migration [{}] - Unable to report the progress", progress.getMigrationId(), e);
+            }
+        });
+    }
+
+    private void sendProgress(ProgressTracker progress) {
+        MigrationProgress next = progress.next();
+        if (next == null) {
+            return;
+        }
+        try {
+            callbackDispatcher.enqueueProgress(progress.getCallbackUrl(), next);
+        } catch (RuntimeException e) {
+            logger.warn("Migration [{}] - Unable to store the progress callback", progress.getMigrationId(), e);
+        }
+    }
+
+    private void flushReports(Migration migration, MigrationReportBuffer reports) {
+        reportBuffers.remove(reports);
+        try {
+            reports.close();
+        } catch (RuntimeException e) {
+            logger.error("Migration [{}] - Unable to persist {} pending migration reports", migration.getId(), reports.size(), e);
         }
     }
 
@@ -253,49 +1269,125 @@ public class MigrationServiceImpl implements MigrationService {
         if (!kieService.hasKieServer(definition.getKieServerId())) {
             throw new InvalidKieServerException(definition.getKieServerId());
         }
+        if (definition.getExecution() != null && definition.getExecution().getConcurrency() != null
+                && definition.getExecution().getConcurrency() < 1) {
+            throw new InvalidMigrationException("The execution concurrency must be greater than 0");
+        }
+        if (definition.getExecution() != null && definition.getExecution().getChunkSize() != null
+                && definition.getExecution().getChunkSize() < 1) {
+            throw new InvalidMigrationException("The execution chunk size must be greater than 0");
+        }
+        if (definition.getExecution() != null) {
+            Execution execution = definition.getExecution();
+            if ((execution.getWindowStart() == null) != (execution.getWindowEnd() == null)) {
+                throw new InvalidMigrationException("The execution window must define both its start and its end");
+            }
+            if (execution.hasWindow() && execution.getWindowStart().equals(execution.getWindowEnd())) {
+                throw new InvalidMigrationException("The execution window start and end must be different");
+            }
+            if (!isPositive(execution.getQueryTimeout()) || !isPositive(execution.getAdminTimeout())) {
+                throw new InvalidMigrationException("The execution query and admin timeouts must be greater than 0");
+            }
+            if (!isPositive(execution.getHedgeDelay())) {
+                throw new InvalidMigrationException("The execution hedge delay must be greater than 0");
+            }
+            if (!isPositive(execution.getProgressInterval())) {
+                throw new InvalidMigrationException("The execution progress interval must be greater than 0");
+            }
+            if (execution.getProgressEvery() != null && execution.getProgressEvery() < 1) {
+                throw new InvalidMigrationException("The number of instances between progress callbacks must be greater than 0");
+            }
+            if (execution.getMaxFailures() != null && execution.getMaxFailures() < 0) {
+                throw new InvalidMigrationException("The execution max failures must not be negative");
+            }
+            if (execution.getMaxFailureRatio() != null && (execution.getMaxFailureRatio() <= 0 || execution.getMaxFailureRatio() > 1)) {
+                throw new InvalidMigrationException("The execution max failure ratio must be greater than 0 and not greater than 1");
+            }
+        }
+    }
+
+    private static boolean isPositive(Duration duration) {
+        return duration == null || !(duration.isNegative() || duration.isZero());
+    }
+
+    private void validateRetry(RetryDefinition retry) throws InvalidMigrationException {
+        if (retry == null) {
+            return;
+        }
+        if (retry.getMaxAttempts() != null && retry.getMaxAttempts() < 1) {
+            throw new InvalidMigrationException("The retry max attempts must be greater than 0");
+        }
+        if (retry.getBackoff() != null && retry.getBackoff().isNegative()) {
+            throw new InvalidMigrationException("The retry backoff must not be negative");
+        }
     }
 
     private void validatePlanExecution(MigrationDefinition definition) throws InvalidMigrationException {
         try {
-            validatePlanExecution(definition, planService.get(definition.getPlanId()));
+            validatePlanExecution(definition, planService.get(definition.getPlanId()), createHedgedRequests(null, definition.getExecution()));
         } catch (PlanNotFoundException e) {
             throw new InvalidMigrationException("Plan not found with ID: " + definition.getPlanId());
         }
     }
 
-    private void validatePlanExecution(MigrationDefinition definition, Plan plan) throws InvalidMigrationException {
-        if (!kieService.existsProcessDefinition(definition.getKieServerId(), plan.getSource())) {
+    private void validatePlanExecution(MigrationDefinition definition, Plan plan, HedgedRequests hedgedRequests)
+            throws InvalidMigrationException {
+        String kieServerId = definition.getKieServerId();
+        if (!hedgedRequests.call(() -> kieService.existsProcessDefinition(kieServerId, plan.getSource()))) {
             throw new ProcessNotFoundException(plan.getSource().getContainerId());
         }
-        if (!kieService.existsProcessDefinition(definition.getKieServerId(), plan.getTarget())) {
+        if (!hedgedRequests.call(() -> kieService.existsProcessDefinition(kieServerId, plan.getTarget()))) {
             throw new ProcessNotFoundException(plan.getTarget().getContainerId());
         }
     }
 
-    private List<Long> getInstancesToMigrate(Migration migration) throws InvalidKieServerException, PlanNotFoundException {
-        List<Long> instanceIds = Optional.ofNullable(migration.getDefinition().getProcessInstanceIds()).orElse(new ArrayList<>());
-        List<Long> migratedInstances = new ArrayList<>();
-        MigrationReport.listByMigrationId(migration.getId())
-                .stream()
-                .map(MigrationReport::getProcessInstanceId)
-                .forEach(migratedInstances::add);
+    /*
+     * Returns the explicitly defined instances or, if none, discovers the active instances of the source process
+     * in the background. Instances already migrated by a previous execution are skipped.
+     * When retrying, only the failed instances are migrated again, together with the instances never attempted
+     * because the migration was aborted. These are the defined instances not successfully migrated, or the
+     * discovered ones if the discovery did not finish.
+     */
+    private ProcessInstanceSource getInstancesToMigrate(Migration migration, Plan plan, QueryServicesClient queryService,
+                                                        HedgedRequests hedgedRequests) throws InvalidKieServerException {
+        List<Long> instanceIds = migration.getDefinition().getProcessInstanceIds();
+        boolean retrying = migration.getRetryAttempt() != null;
+        if (retrying && (instanceIds == null || instanceIds.isEmpty()) && migration.getTotal() != null) {
+            return ProcessInstanceSource.of(txHelper.withTransaction(() -> MigrationReport.listFailedProcessInstanceIds(migration.getId())));
+        }
+        LongHashSet migratedInstances = getMigratedInstances(migration.getId(), retrying);
+        if (instanceIds == null || instanceIds.isEmpty()) {
+            String kieServerId = migration.getDefinition().getKieServerId();
+            return new ProcessInstanceDiscovery(migration.getId(), queryService, hedgedRequests, plan.getSource(),
+                    () -> registerQuery(kieServerId, ProcessInstanceDiscovery.QUERY_NAME, ProcessInstanceDiscovery.QUERY_EXPRESSION),
+                    migratedInstances, discoveryPageSize, discoveryPrefetchPages, workerThreads.getThreadFactory()).start();
+        }
+        if (migratedInstances.isEmpty()) {
+            return ProcessInstanceSource.of(instanceIds);
+        }
+        return ProcessInstanceSource.of(instanceIds.stream().filter(id -> !migratedInstances.contains(id)).collect(Collectors.toList()));
+    }
 
-        Plan plan = planService.get(migration.getDefinition().getPlanId());
-        String processId = plan.getSource().getProcessId();
-        if (instanceIds.isEmpty()) {
-            boolean allFetched = false;
-            int page = 0;
-            while (!allFetched) {
-                List<ProcessInstance> instances = kieService.getQueryServicesClient(migration.getDefinition().getKieServerId())
-                        .findProcessInstancesByContainerId(plan.getSource().getContainerId(), QUERY_PROCESS_INSTANCE_STATUSES, page++, QUERY_PAGE_SIZE);
+    private boolean registerQuery(String kieServerId, String name, String expression) {
+        try {
+            return kieService.registerQuery(kieServerId, name, expression);
+        } catch (InvalidKieServerException e) {
+            return false;
+        }
+    }
 
-                instances.stream().filter(p -> processId.equals(p.getProcessId())).map(ProcessInstance::getId).forEach(instanceIds::add);
-                if (instances.size() < QUERY_PAGE_SIZE) {
-                    allFetched = true;
-                }
+    /*
+     * Returns the reported instances, or only the successfully migrated ones
+     */
+    private LongHashSet getMigratedInstances(Long migrationId, boolean successfulOnly) {
+        return txHelper.withTransaction(() -> {
+            LongHashSet migratedInstances = new LongHashSet();
+            try (Stream<Long> ids = successfulOnly ? MigrationReport.streamSuccessfulProcessInstanceIds(migrationId) :
+                    MigrationReport.streamProcessInstanceIds(migrationId)) {
+                ids.forEach(migratedInstances::add);
             }
-        }
-        return instanceIds.stream().filter(id -> !migratedInstances.contains(id)).collect(Collectors.toList());
+            return migratedInstances;
+        });
     }
 
     private MigrationReportInstance buildReport(Long instanceId) {
@@ -307,6 +1399,13 @@ public class MigrationServiceImpl implements MigrationService {
         return reportInstance;
     }
 
+    private MigrationReportInstance buildSkippedReport(Long instanceId, Plan plan) {
+        MigrationReportInstance reportInstance = buildReport(instanceId);
+        reportInstance.setLogs(Collections.singletonList("Instance did not exist in source container. Migration skipped"));
+        logger.debug("Process Instance {} did not exist in source container with id {}", instanceId, plan.getSource().getContainerId());
+        return reportInstance;
+    }
+
     private MigrationReportInstance buildReportFromError(Long instanceId, Exception e) {
         MigrationReportInstance reportInstance = buildReport(instanceId);
         reportInstance.setSuccessful(false);
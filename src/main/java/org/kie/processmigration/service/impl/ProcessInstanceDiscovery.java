@@ -0,0 +1,239 @@
+/*
+ * Copyright 2023 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.processmigration.service.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.function.BooleanSupplier;
+
+import org.kie.processmigration.model.ProcessRef;
+import org.kie.server.api.model.definition.QueryFilterSpec;
+import org.kie.server.api.model.instance.ProcessInstance;
+import org.kie.server.api.util.QueryFilterSpecBuilder;
+import org.kie.server.client.QueryServicesClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/*
+ * Pages through the active process instances of the source container in a background thread while the migration
+ * consumes the instances already discovered. At most the configured number of pages is kept in memory.
+ *
+ * When the custom query is registered in the KIE Server, the source container and process filters are applied by the
+ * KIE Server so that only the ids of the relevant instances are transferred. If the custom query cannot be registered,
+ * all the active instances of the container are fetched and filtered locally.
+ *
+ * The custom query uses keyset pagination: instances are ordered by id and each page starts after the last id of
+ * the previous one, so that every instance remaining active is discovered exactly once regardless of the instances
+ * started or completed in the meantime. The local filtering fallback can only page by offset. Every migrated
+ * instance leaves the active ones, moving the following instances to an earlier page that would be skipped, so the
+ * fallback fetches all the pages before supplying any instance to the migration, regardless of the prefetched pages.
+ */
+class ProcessInstanceDiscovery implements ProcessInstanceSource {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProcessInstanceDiscovery.class);
+    private static final List<Integer> ACTIVE_STATUSES = Collections.singletonList(org.kie.api.runtime.process.ProcessInstance.STATE_ACTIVE);
+    private static final List<Long> END_OF_PAGES = new ArrayList<>();
+    static final String QUERY_NAME = "pim-active-process-instances";
+    static final String QUERY_EXPRESSION = "select processInstanceId, processId, externalId from ProcessInstanceLog where status = "
+            + org.kie.api.runtime.process.ProcessInstance.STATE_ACTIVE;
+    private static final String ID_COLUMN = "processInstanceId";
+
+    private final Long migrationId;
+    private final QueryServicesClient queryService;
+    private final HedgedRequests hedgedRequests;
+    private final ProcessRef source;
+    private final BooleanSupplier queryRegistration;
+    private final LongHashSet excludedInstances;
+    private final int pageSize;
+    private final BlockingQueue<List<Long>> pages;
+    private final ExecutorService executor;
+    private volatile RuntimeException failure;
+    private volatile boolean closed;
+    private volatile Long discoveredTotal;
+    private Iterator<Long> current = Collections.emptyIterator();
+    private boolean finished;
+    private boolean serverSideFiltering;
+    private long lastInstanceId = -1;
+
+    ProcessInstanceDiscovery(Long migrationId, QueryServicesClient queryService, HedgedRequests hedgedRequests, ProcessRef source,
+                             BooleanSupplier queryRegistration, LongHashSet excludedInstances, int pageSize, int prefetchPages,
+                             ThreadFactory threadFactory) {
+        this.migrationId = migrationId;
+        this.queryService = queryService;
+        this.hedgedRequests = hedgedRequests;
+        this.source = source;
+        this.queryRegistration = queryRegistration;
+        this.excludedInstances = excludedInstances;
+        this.pageSize = pageSize;
+        this.pages = new ArrayBlockingQueue<>(Math.max(prefetchPages, 1));
+        this.executor = Executors.newSingleThreadExecutor(threadFactory);
+    }
+
+    ProcessInstanceDiscovery start() {
+        executor.execute(this::fetchPages);
+        return this;
+    }
+
+    @Override
+    public Long next() throws InterruptedException {
+        while (!current.hasNext()) {
+            if (finished) {
+                return null;
+            }
+            List<Long> page = pages.take();
+            if (page == END_OF_PAGES) {
+                finished = true;
+                if (failure != null) {
+                    throw failure;
+                }
+                return null;
+            }
+            current = page.iterator();
+        }
+        return current.next();
+    }
+
+    /*
+     * Discovered instances have already been fetched from the source container
+     */
+    @Override
+    public boolean requiresValidation() {
+        return false;
+    }
+
+    /*
+     * The instances already migrated are part of the migration even though they are not supplied again
+     */
+    @Override
+    public Long getDiscoveredTotal() {
+        return discoveredTotal;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        executor.shutdownNow();
+    }
+
+    private void fetchPages() {
+        int page = 0;
+        int discovered = 0;
+        try {
+            serverSideFiltering = queryRegistration.getAsBoolean();
+            boolean allFetched = false;
+            List<List<Long>> fetchedPages = new ArrayList<>();
+            while (!allFetched && !closed) {
+                List<Long> instanceIds = new ArrayList<>(pageSize);
+                int fetched = fetchPage(page++, instanceIds);
+                discovered += instanceIds.size();
+                allFetched = fetched < pageSize;
+                if (allFetched) {
+                    // Known before the last page can be consumed
+                    discoveredTotal = (long) excludedInstances.size() + discovered;
+                }
+                if (!serverSideFiltering) {
+                    // No instance is migrated until all the pages have been fetched
+                    fetchedPages.add(instanceIds);
+                } else if (!instanceIds.isEmpty()) {
+                    pages.put(instanceIds);
+                }
+            }
+            for (List<Long> instanceIds : fetchedPages) {
+                if (!instanceIds.isEmpty()) {
+                    pages.put(instanceIds);
+                }
+            }
+            logger.debug("Migration [{}] - Discovered {} process instances in {} pages", migrationId, discovered, page);
+        } catch (InterruptedException | CancellationException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            logger.warn("Migration [{}] - Unable to discover process instances", migrationId, e);
+            failure = e;
+        } finally {
+            endOfPages();
+        }
+    }
+
+    /*
+     * Adds the ids of the instances to migrate found in the given page and returns the number of fetched instances
+     */
+    private int fetchPage(int page, List<Long> instanceIds) {
+        if (serverSideFiltering) {
+            try {
+                return fetchFilteredPage(page, instanceIds);
+            } catch (RuntimeException e) {
+                if (page > 0) {
+                    throw e;
+                }
+                logger.warn("Migration [{}] - Unable to query the process instances using {}. Filtering them locally", migrationId, QUERY_NAME, e);
+                serverSideFiltering = false;
+            }
+        }
+        List<ProcessInstance> instances = hedgedRequests.call(() ->
+                queryService.findProcessInstancesByContainerId(source.getContainerId(), ACTIVE_STATUSES, page, pageSize));
+        for (ProcessInstance instance : instances) {
+            if (source.getProcessId().equals(instance.getProcessId())) {
+                addInstance(instance.getId(), instanceIds);
+            }
+        }
+        return instances.size();
+    }
+
+    @SuppressWarnings("rawtypes")
+    private int fetchFilteredPage(int page, List<Long> instanceIds) {
+        QueryFilterSpec filterSpec = new QueryFilterSpecBuilder()
+                .equalsTo("externalId", source.getContainerId())
+                .equalsTo("processId", source.getProcessId())
+                .greaterThan(ID_COLUMN, lastInstanceId)
+                .oderBy(ID_COLUMN, true)
+                .get();
+        List<List> rows = hedgedRequests.call(() ->
+                queryService.query(QUERY_NAME, QueryServicesClient.QUERY_MAP_RAW, filterSpec, 0, pageSize, List.class));
+        for (List row : rows) {
+            long instanceId = ((Number) row.get(0)).longValue();
+            if (instanceId > lastInstanceId) {
+                lastInstanceId = instanceId;
+                addInstance(instanceId, instanceIds);
+            }
+        }
+        return rows.size();
+    }
+
+    private void addInstance(long instanceId, List<Long> instanceIds) {
+        if (!excludedInstances.contains(instanceId)) {
+            instanceIds.add(instanceId);
+        }
+    }
+
+    private void endOfPages() {
+        try {
+            if (!closed) {
+                pages.put(END_OF_PAGES);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2023 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.processmigration.service.impl;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+
+import org.kie.processmigration.model.ProcessRef;
+import org.kie.server.api.model.definition.QueryFilterSpec;
+import org.kie.server.api.model.instance.ProcessInstance;
+import org.kie.server.api.util.QueryFilterSpecBuilder;
+import org.kie.server.client.QueryServicesClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/*
+ * Checks that explicitly requested process instances belong to the source container before migrating them.
+ *
+ * When the custom query is registered in the KIE Server, a whole chunk of instances is checked with a single request.
+ * If the custom query cannot be registered, each instance has to be fetched on its own.
+ */
+class ProcessInstanceLookup {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProcessInstanceLookup.class);
+    static final String QUERY_NAME = "pim-process-instances";
+    static final String QUERY_EXPRESSION = "select processInstanceId, externalId from ProcessInstanceLog";
+
+    private final Long migrationId;
+    private final QueryServicesClient queryService;
+    private final HedgedRequests hedgedRequests;
+    private final ProcessRef source;
+    private final BooleanSupplier queryRegistration;
+    private Boolean batched;
+
+    ProcessInstanceLookup(Long migrationId, QueryServicesClient queryService, HedgedRequests hedgedRequests, ProcessRef source,
+                          BooleanSupplier queryRegistration) {
+        this.migrationId = migrationId;
+        this.queryService = queryService;
+        this.hedgedRequests = hedgedRequests;
+        this.source = source;
+        this.queryRegistration = queryRegistration;
+    }
+
+    /*
+     * Returns true if the instances can be looked up in batches. The custom query is registered on the first call.
+     */
+    synchronized boolean isBatched() {
+        if (batched == null) {
+            batched = queryRegistration.getAsBoolean();
+            if (!batched) {
+                logger.warn("Migration [{}] - The {} query is not available. Process instances will be looked up one by one", migrationId, QUERY_NAME);
+            }
+        }
+        return batched;
+    }
+
+    /*
+     * Returns the ids of the given instances that belong to the source container
+     */
+    @SuppressWarnings("rawtypes")
+    Set<Long> findInSourceContainer(List<Long> instanceIds) {
+        QueryFilterSpec filterSpec = new QueryFilterSpecBuilder()
+                .equalsTo("externalId", source.getContainerId())
+                .in("processInstanceId", instanceIds)
+                .get();
+        List<List> rows = hedgedRequests.call(() ->
+                queryService.query(QUERY_NAME, QueryServicesClient.QUERY_MAP_RAW, filterSpec, 0, instanceIds.size(), List.class));
+        Set<Long> found = new HashSet<>(rows.size());
+        for (List row : rows) {
+            found.add(((Number) row.get(0)).longValue());
+        }
+        return found;
+    }
+
+    boolean existsInSourceContainer(Long instanceId) {
+        ProcessInstance pi = hedgedRequests.call(() -> queryService.findProcessInstanceById(instanceId));
+        return pi != null && pi.getContainerId().equals(source.getContainerId());
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2023 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.processmigration.service.impl;
+
+import java.util.Iterator;
+import java.util.List;
+
+/*
+ * Supplies the process instances to be migrated. Only the migration thread consumes from a source.
+ */
+interface ProcessInstanceSource extends AutoCloseable {
+
+    /*
+     * Returns the next process instance id to migrate or null when there are no more instances
+     */
+    Long next() throws InterruptedException;
+
+    /*
+     * Returns true if the supplied instances must be checked to belong to the source container before migrating them
+     */
+    default boolean requiresValidation() {
+        return true;
+    }
+
+    /*
+     * Returns the number of instances of the migration once they have all been discovered, null if they are not
+     * discovered or the discovery has not finished
+     */
+    default Long getDiscoveredTotal() {
+        return null;
+    }
+
+    @Override
+    default void close() {
+    }
+
+    static ProcessInstanceSource of(List<Long> instanceIds) {
+        Iterator<Long> iterator = instanceIds.iterator();
+        return () -> iterator.hasNext() ? iterator.next() : null;
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright 2023 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.processmigration.service.impl;
+
+import java.net.URI;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.kie.processmigration.model.Execution.ExecutionStatus;
+import org.kie.processmigration.model.MigrationProgress;
+
+/*
+ * Counts the instances migrated by a running migration and tells when a progress callback is due, either because
+ * the progress interval elapsed or because the given number of instances were migrated since the last one.
+ * Progress callbacks are never reported more often than the minimum interval.
+ */
+class ProgressTracker {
+
+    private final Long migrationId;
+    private final URI callbackUrl;
+    /* Null when the number of instances to migrate is not known when the tracking starts */
+    private final Long total;
+    /* Supplies the number of instances to migrate once it is discovered, or null until then */
+    private volatile Supplier<Long> discoveredTotal = () -> null;
+    private final long intervalNanos;
+    private final long every;
+    private final long minIntervalNanos;
+    private final Instant startedAt = Instant.now();
+    private final long startNanos = System.nanoTime();
+    private final LongAdder succeeded = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private volatile long lastReportNanos = startNanos;
+    private volatile long lastReportProcessed;
+    /* Instances already migrated when the tracking started, e.g. before the migration was paused */
+    private long baseline;
+
+    ProgressTracker(Long migrationId, URI callbackUrl, Long total, Duration interval, Integer every, Duration minInterval) {
+        this.migrationId = migrationId;
+        this.callbackUrl = callbackUrl;
+        this.total = total;
+        this.intervalNanos = interval == null ? Long.MAX_VALUE : interval.toNanos();
+        this.every = every == null ? Long.MAX_VALUE : every;
+        this.minIntervalNanos = minInterval.toNanos();
+    }
+
+    Long getMigrationId() {
+        return migrationId;
+    }
+
+    URI getCallbackUrl() {
+        return callbackUrl;
+    }
+
+    /*
+     * Reads the number of instances to migrate from the given supplier while it is not known
+     */
+    void trackTotal(Supplier<Long> discoveredTotal) {
+        this.discoveredTotal = discoveredTotal;
+    }
+
+    void record(boolean successful) {
+        if (successful) {
+            succeeded.increment();
+        } else {
+            failed.increment();
+        }
+    }
+
+    /*
+     * Starts counting from the instances already migrated in previous executions of the migration
+     */
+    void startFrom(long succeededCount, long failedCount) {
+        update(succeededCount, failedCount);
+        baseline = succeededCount + failedCount;
+        lastReportProcessed = baseline;
+    }
+
+    /*
+     * Replaces the counters, e.g. with the ones of all the nodes of a cluster
+     */
+    void update(long succeededCount, long failedCount) {
+        succeeded.reset();
+        succeeded.add(succeededCount);
+        failed.reset();
+        failed.add(failedCount);
+    }
+
+    /*
+     * Returns true if the minimum interval since the last progress callback elapsed
+     */
+    boolean canReport() {
+        return System.nanoTime() - lastReportNanos >= minIntervalNanos;
+    }
+
+    /*
+     * Cheap check run after each migrated instance
+     */
+    boolean isCountDue() {
+        return every != Long.MAX_VALUE && canReport() && succeeded.sum() + failed.sum() - lastReportProcessed >= every;
+    }
+
+    /*
+     * Returns the progress to report if a progress callback is due, otherwise null
+     */
+    synchronized MigrationProgress next() {
+        long now = System.nanoTime();
+        long succeededCount = succeeded.sum();
+        long failedCount = failed.sum();
+        long processed = succeededCount + failedCount;
+        long sinceLastReport = now - lastReportNanos;
+        if (sinceLastReport < minIntervalNanos ||
+                (sinceLastReport < intervalNanos && processed - lastReportProcessed < every)) {
+            return null;
+        }
+        lastReportNanos = now;
+        lastReportProcessed = processed;
+        Long total = this.total != null ? this.total : discoveredTotal.get();
+        double elapsedSeconds = Math.max(now - startNanos, 1) / 1e9;
+        double throughput = Math.max(processed - baseline, 0) / elapsedSeconds;
+        Instant reportedAt = Instant.now();
+        MigrationProgress progress = new MigrationProgress()
+                .setMigrationId(migrationId)
+                .setStatus(ExecutionStatus.STARTED)
+                .setTotal(total)
+                .setProcessed(processed)
+                .setSucceeded(succeededCount)
+                .setFailed(failedCount)
+                .setThroughput(throughput)
+                .setStartedAt(startedAt)
+                .setReportedAt(reportedAt);
+        if (total != null && throughput > 0) {
+            long remaining = Math.max(total - processed, 0);
+            progress.setEstimatedCompletion(reportedAt.plusMillis((long) (remaining * 1000 / throughput)));
+        }
+        return progress;
+    }
+}
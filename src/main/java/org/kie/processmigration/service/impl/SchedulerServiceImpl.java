@@ -16,7 +16,9 @@
 
 package org.kie.processmigration.service.impl;
 
+import java.time.Instant;
 import java.util.Date;
+import java.util.Set;
 
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
@@ -73,6 +75,26 @@ public class SchedulerServiceImpl implements SchedulerService {
         }
     }
 
+    /*
+     * Schedules the execution of a migration that has been paused, replacing any pending execution
+     */
+    @Override
+    public void scheduleMigration(Migration migration, Instant startAt) {
+        JobDetail job = JobBuilder.newJob(MigrationJob.class)
+                .withIdentity(migration.getId().toString())
+                .build();
+        Trigger trigger = TriggerBuilder.newTrigger()
+                .withIdentity(migration.getId().toString())
+                .startAt(Date.from(startAt))
+                .build();
+        try {
+            LOGGER.debug("Schedule migration for {} at {}", migration.getId(), startAt);
+            scheduler.scheduleJob(job, Set.of(trigger), true);
+        } catch (SchedulerException e) {
+            LOGGER.error("Unable to schedule migration for {}", migration.getId(), e);
+        }
+    }
+
     private Trigger buildTrigger(Migration migration) {
         TriggerBuilder<Trigger> builder = TriggerBuilder.newTrigger().withIdentity(migration.getId().toString());
         if (migration.getDefinition().getExecution() == null || migration.getDefinition().getExecution().getScheduledStartTime() == null) {
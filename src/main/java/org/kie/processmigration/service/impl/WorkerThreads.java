@@ -0,0 +1,79 @@
+/*
+ * Copyright 2023 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.processmigration.service.impl;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import javax.annotation.PostConstruct;
+import javax.enterprise.context.ApplicationScoped;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/*
+ * Creates the threads performing blocking requests to the KIE Server: migration workers, discovery paging, hedged
+ * requests and callbacks. When virtual threads are enabled and the JDK supports them (Java 21 or later) these threads
+ * are virtual, otherwise they are platform threads. The service is built for Java 11, so virtual threads are created
+ * through reflection.
+ */
+@ApplicationScoped
+public class WorkerThreads {
+
+    private static final Logger logger = LoggerFactory.getLogger(WorkerThreads.class);
+    private static final String DEFAULT_VIRTUAL_THREADS = "false";
+    private static final String THREAD_PREFIX = "pim-worker-";
+
+    @ConfigProperty(name = "pim.migration.virtual-threads", defaultValue = DEFAULT_VIRTUAL_THREADS)
+    boolean virtualThreads;
+
+    ThreadFactory threadFactory;
+    boolean virtual;
+
+    @PostConstruct
+    void init() {
+        threadFactory = virtualThreads ? createVirtualThreadFactory() : null;
+        virtual = threadFactory != null;
+        if (!virtual) {
+            threadFactory = Executors.defaultThreadFactory();
+        }
+        logger.info("Blocking requests to the KIE Server run on {} threads", virtual ? "virtual" : "platform");
+    }
+
+    public ThreadFactory getThreadFactory() {
+        return threadFactory;
+    }
+
+    public boolean isVirtual() {
+        return virtual;
+    }
+
+    private static ThreadFactory createVirtualThreadFactory() {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> ofVirtual = Class.forName("java.lang.Thread$Builder$OfVirtual");
+            builder = ofVirtual.getMethod("name", String.class, long.class).invoke(builder, THREAD_PREFIX, 0L);
+            Method factory = Class.forName("java.lang.Thread$Builder").getMethod("factory");
+            return (ThreadFactory) factory.invoke(builder);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            logger.warn("Virtual threads are not supported by Java {}. Using platform threads", System.getProperty("java.version"));
+            return null;
+        }
+    }
+}
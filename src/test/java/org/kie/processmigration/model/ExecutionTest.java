@@ -0,0 +1,92 @@
+/*
+ * Copyright 2023 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.processmigration.model;
+
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+class ExecutionTest {
+
+    private static final LocalTime TEN = LocalTime.of(10, 0);
+    private static final LocalTime EIGHTEEN = LocalTime.of(18, 0);
+    private static final LocalTime TWENTY_TWO = LocalTime.of(22, 0);
+    private static final LocalTime FOUR = LocalTime.of(4, 0);
+
+    @Test
+    void testWithoutWindow() {
+        Execution execution = new Execution().setWindowStart(TEN);
+
+        assertThat(execution.hasWindow(), is(false));
+        assertThat(execution.isWithinWindow(at(1, 3, 0)), is(true));
+        assertThat(execution.nextWindowStart(at(1, 3, 0)), is(at(1, 3, 0)));
+    }
+
+    @Test
+    void testSameDayWindow() {
+        Execution execution = new Execution().setWindowStart(TEN).setWindowEnd(EIGHTEEN);
+
+        assertThat(execution.isWithinWindow(at(1, 9, 59)), is(false));
+        assertThat(execution.isWithinWindow(at(1, 10, 0)), is(true));
+        assertThat(execution.isWithinWindow(at(1, 12, 0)), is(true));
+        assertThat(execution.isWithinWindow(at(1, 17, 59)), is(true));
+        assertThat(execution.isWithinWindow(at(1, 18, 0)), is(false));
+        assertThat(execution.isWithinWindow(at(1, 23, 0)), is(false));
+    }
+
+    @Test
+    void testWindowCrossingMidnight() {
+        Execution execution = new Execution().setWindowStart(TWENTY_TWO).setWindowEnd(FOUR);
+
+        assertThat(execution.isWithinWindow(at(1, 21, 59)), is(false));
+        assertThat(execution.isWithinWindow(at(1, 22, 0)), is(true));
+        assertThat(execution.isWithinWindow(at(1, 23, 0)), is(true));
+        assertThat(execution.isWithinWindow(at(2, 0, 0)), is(true));
+        assertThat(execution.isWithinWindow(at(2, 3, 0)), is(true));
+        assertThat(execution.isWithinWindow(at(2, 4, 0)), is(false));
+        assertThat(execution.isWithinWindow(at(2, 12, 0)), is(false));
+    }
+
+    @Test
+    void testNextWindowStart() {
+        Execution execution = new Execution().setWindowStart(TEN).setWindowEnd(EIGHTEEN);
+
+        assertThat(execution.nextWindowStart(at(1, 12, 0)), is(at(1, 12, 0)));
+        assertThat(execution.nextWindowStart(at(1, 8, 0)), is(at(1, 10, 0)));
+        assertThat(execution.nextWindowStart(at(1, 18, 0)), is(at(2, 10, 0)));
+        assertThat(execution.nextWindowStart(at(1, 23, 30)), is(at(2, 10, 0)));
+    }
+
+    @Test
+    void testNextWindowStartCrossingMidnight() {
+        Execution execution = new Execution().setWindowStart(TWENTY_TWO).setWindowEnd(FOUR);
+
+        assertThat(execution.nextWindowStart(at(1, 23, 0)), is(at(1, 23, 0)));
+        assertThat(execution.nextWindowStart(at(2, 3, 0)), is(at(2, 3, 0)));
+        assertThat(execution.nextWindowStart(at(2, 4, 0)), is(at(2, 22, 0)));
+        assertThat(execution.nextWindowStart(at(2, 12, 0)), is(at(2, 22, 0)));
+    }
+
+    private static ZonedDateTime at(int day, int hour, int minute) {
+        return ZonedDateTime.of(2023, 3, day, hour, minute, 0, 0, ZoneOffset.UTC);
+    }
+}
@@ -22,6 +22,7 @@ import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 
@@ -44,6 +45,7 @@ import org.kie.processmigration.model.Plan;
 import org.kie.processmigration.model.ProcessRef;
 import org.kie.processmigration.model.exceptions.InvalidMigrationException;
 import org.kie.processmigration.model.exceptions.MigrationNotFoundException;
+import org.kie.processmigration.service.KieAsyncClient;
 import org.kie.processmigration.service.KieService;
 import org.kie.processmigration.service.MigrationService;
 import org.kie.processmigration.service.PlanService;
@@ -52,7 +54,6 @@ import org.kie.processmigration.test.persistence.scripts.ScriptFilter;
 import org.kie.server.api.model.admin.MigrationReportInstance;
 import org.kie.server.api.model.instance.ProcessInstance;
 import org.kie.server.client.QueryServicesClient;
-import org.kie.server.client.admin.ProcessAdminServicesClient;
 import org.quartz.JobKey;
 import org.quartz.Scheduler;
 import org.quartz.SchedulerException;
@@ -197,8 +198,8 @@ public abstract class AbstractScriptsBaseTest {
 
         QueryServicesClient mockQueryServicesClient = mock(QueryServicesClient.class);
         when(kieService.getQueryServicesClient(definition.getKieServerId())).thenReturn(mockQueryServicesClient);
-        ProcessAdminServicesClient mockAdminServicesClient = mock(ProcessAdminServicesClient.class);
-        when(kieService.getProcessAdminServicesClient(definition.getKieServerId())).thenReturn(mockAdminServicesClient);
+        KieAsyncClient mockAdminServicesClient = mock(KieAsyncClient.class);
+        when(kieService.getAsyncClient(definition.getKieServerId())).thenReturn(mockAdminServicesClient);
 
         List<ProcessInstance> instances = new ArrayList<>();
         ProcessInstance instance = new ProcessInstance();
@@ -209,7 +210,7 @@ public abstract class AbstractScriptsBaseTest {
         when(mockQueryServicesClient.findProcessInstanceById(instance.getId())).thenReturn(instance);
 
         MigrationReportInstance report = createReport(instance.getId());
-        when(mockAdminServicesClient.migrateProcessInstance(anyString(), anyLong(), anyString(), anyString(), anyMap())).thenReturn(report);
+        when(mockAdminServicesClient.migrateProcessInstance(anyString(), anyLong(), anyString(), anyString(), anyMap())).thenReturn(CompletableFuture.completedFuture(report));
 
         // When
         Migration migration = migrationService.submit(definition);
@@ -0,0 +1,204 @@
+/*
+ * Copyright 2023 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.processmigration.service;
+
+import java.net.URI;
+import java.util.List;
+
+import javax.inject.Inject;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.kie.processmigration.model.Execution;
+import org.kie.processmigration.model.Migration;
+import org.kie.processmigration.model.MigrationCallback;
+import org.kie.processmigration.model.MigrationCallback.CallbackStatus;
+import org.kie.processmigration.model.MigrationDefinition;
+import org.kie.processmigration.model.MigrationProgress;
+import org.kie.processmigration.service.impl.CallbackDispatcher;
+import org.kie.processmigration.test.Profiles;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.stubbing.Scenario;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.containing;
+import static com.github.tomakehurst.wiremock.client.WireMock.ok;
+import static com.github.tomakehurst.wiremock.client.WireMock.post;
+import static com.github.tomakehurst.wiremock.client.WireMock.postRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.serverError;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+
+@QuarkusTest
+@TestProfile(Profiles.CallbackProfile.class)
+class CallbackDispatcherTest {
+
+    private static final long MIGRATION_ID = 1000L;
+    private static final long TIMEOUT = 10000;
+    private static final int PROGRESS_DELAY = 1000;
+
+    @Inject
+    CallbackDispatcher callbackDispatcher;
+
+    @Inject
+    TransactionHelper txHelper;
+
+    WireMockServer server;
+
+    @BeforeEach
+    void startServer() {
+        server = new WireMockServer(options().dynamicPort());
+        server.start();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop();
+        txHelper.withTransaction(() -> MigrationCallback.delete("migrationId", MIGRATION_ID));
+    }
+
+    @Test
+    void testCallbackIsRetriedUntilDelivered() throws InterruptedException {
+        // Given
+        server.stubFor(post(urlPathEqualTo("/callback")).inScenario("retry")
+                .whenScenarioStateIs(Scenario.STARTED)
+                .willReturn(serverError())
+                .willSetStateTo("recovered"));
+        server.stubFor(post(urlPathEqualTo("/callback")).inScenario("retry")
+                .whenScenarioStateIs("recovered")
+                .willReturn(ok()));
+
+        // When
+        enqueue("/callback");
+
+        // Then
+        MigrationCallback callback = awaitStatus(CallbackStatus.DELIVERED);
+        assertThat(callback.getAttempts(), is(2));
+        assertThat(callback.getDeliveredAt(), notNullValue());
+        server.verify(2, postRequestedFor(urlPathEqualTo("/callback"))
+                .withRequestBody(containing("\"id\":" + MIGRATION_ID)));
+    }
+
+    @Test
+    void testCallbackFailsAfterMaxAttempts() throws InterruptedException {
+        // Given
+        server.stubFor(post(urlPathEqualTo("/callback")).willReturn(serverError()));
+
+        // When
+        enqueue("/callback");
+
+        // Then
+        MigrationCallback callback = awaitStatus(CallbackStatus.FAILED);
+        assertThat(callback.getAttempts(), is(3));
+        assertThat(callback.getLastError(), is("Replied with 500"));
+        server.verify(3, postRequestedFor(urlPathEqualTo("/callback")));
+    }
+
+    @Test
+    void testPendingProgressCallbacksAreCoalesced() throws InterruptedException {
+        // Given
+        server.stubFor(post(urlPathEqualTo("/progress")).willReturn(ok()));
+        URI callbackUrl = URI.create(server.baseUrl() + "/progress");
+
+        // When
+        txHelper.withTransaction(() -> {
+            callbackDispatcher.enqueueProgress(callbackUrl, new MigrationProgress().setMigrationId(MIGRATION_ID)
+                    .setStatus(Execution.ExecutionStatus.STARTED).setProcessed(10L).setSucceeded(10L));
+            callbackDispatcher.enqueueProgress(callbackUrl, new MigrationProgress().setMigrationId(MIGRATION_ID)
+                    .setStatus(Execution.ExecutionStatus.STARTED).setProcessed(20L).setSucceeded(19L).setFailed(1L));
+
+            // Then
+            List<MigrationCallback> callbacks = MigrationCallback.listByMigrationId(MIGRATION_ID);
+            assertThat(callbacks, hasSize(1));
+            assertThat(callbacks.get(0).getType(), is(MigrationCallback.CallbackType.PROGRESS));
+            assertThat(callbacks.get(0).getPayload(), containsString("\"processed\":20"));
+        });
+        awaitStatus(CallbackStatus.DELIVERED);
+        server.verify(1, postRequestedFor(urlPathEqualTo("/progress"))
+                .withRequestBody(containing("\"failed\":1")));
+    }
+
+    @Test
+    void testCompletionIsSentAfterTheProgressBeingSent() throws InterruptedException {
+        // Given
+        server.stubFor(post(urlPathEqualTo("/progress")).willReturn(ok().withFixedDelay(PROGRESS_DELAY)));
+        server.stubFor(post(urlPathEqualTo("/callback")).willReturn(ok()));
+        URI callbackUrl = URI.create(server.baseUrl() + "/progress");
+        txHelper.withTransaction(() -> callbackDispatcher.enqueueProgress(callbackUrl, new MigrationProgress()
+                .setMigrationId(MIGRATION_ID).setStatus(Execution.ExecutionStatus.STARTED).setProcessed(10L).setSucceeded(10L)));
+        awaitStatus(CallbackStatus.SENDING);
+
+        // When
+        enqueue("/callback");
+
+        // Then
+        long deadline = System.currentTimeMillis() + TIMEOUT;
+        List<MigrationCallback> callbacks = txHelper.withTransaction(() -> MigrationCallback.listByMigrationId(MIGRATION_ID));
+        while (System.currentTimeMillis() < deadline && (callbacks.size() != 1 || !CallbackStatus.DELIVERED.equals(callbacks.get(0).getStatus()))) {
+            Thread.sleep(100);
+            callbacks = txHelper.withTransaction(() -> MigrationCallback.listByMigrationId(MIGRATION_ID));
+        }
+        assertThat(callbacks, hasSize(1));
+        assertThat(callbacks.get(0).getType(), is(MigrationCallback.CallbackType.COMPLETION));
+        assertThat(callbacks.get(0).getStatus(), is(CallbackStatus.DELIVERED));
+        server.verify(1, postRequestedFor(urlPathEqualTo("/progress")));
+        server.verify(1, postRequestedFor(urlPathEqualTo("/callback")));
+        long progressSentAt = getRequestedAt("/progress");
+        assertThat(getRequestedAt("/callback") - progressSentAt, greaterThanOrEqualTo((long) PROGRESS_DELAY));
+    }
+
+    private long getRequestedAt(String path) {
+        return server.getAllServeEvents().stream()
+                .filter(event -> event.getRequest().getUrl().equals(path))
+                .findFirst()
+                .orElseThrow()
+                .getRequest().getLoggedDate().getTime();
+    }
+
+    private void enqueue(String path) {
+        MigrationDefinition definition = new MigrationDefinition();
+        definition.setExecution(new Execution().setType(Execution.ExecutionType.ASYNC)
+                .setCallbackUrl(URI.create(server.baseUrl() + path)));
+        Migration migration = new Migration(definition);
+        migration.setId(MIGRATION_ID);
+        migration.complete(false);
+        txHelper.withTransaction(() -> callbackDispatcher.enqueue(migration));
+    }
+
+    private MigrationCallback awaitStatus(CallbackStatus status) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT;
+        while (System.currentTimeMillis() < deadline) {
+            List<MigrationCallback> callbacks = txHelper.withTransaction(() -> MigrationCallback.listByMigrationId(MIGRATION_ID));
+            assertThat(callbacks, hasSize(1));
+            if (status.equals(callbacks.get(0).getStatus())) {
+                return callbacks.get(0);
+            }
+            Thread.sleep(100);
+        }
+        throw new AssertionError("Callback not " + status + " after " + TIMEOUT + "ms");
+    }
+}
@@ -16,11 +16,13 @@
 
 package org.kie.processmigration.service;
 
+import java.time.Duration;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.CompletionException;
 
 import javax.inject.Inject;
 
@@ -32,9 +34,14 @@ import org.kie.processmigration.model.ProcessRef;
 import org.kie.processmigration.model.RunningInstance;
 import org.kie.processmigration.model.exceptions.InvalidKieServerException;
 import org.kie.processmigration.model.exceptions.ProcessDefinitionNotFoundException;
+import org.kie.processmigration.service.impl.KieServiceImpl;
 import org.kie.processmigration.test.MockKieServerLifecycleManager;
 import org.kie.processmigration.test.Profiles;
 import org.kie.processmigration.test.TestKieServer;
+import org.kie.server.api.exception.KieServicesHttpException;
+import org.kie.server.api.model.admin.MigrationReportInstance;
+import org.kie.server.api.model.instance.ProcessInstance;
+import org.kie.server.client.QueryServicesClient;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.github.tomakehurst.wiremock.client.CountMatchingStrategy;
@@ -47,11 +54,14 @@ import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.anEmptyMap;
 import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.hasEntry;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.fail;
 
@@ -69,6 +79,9 @@ class KieServiceImplTest {
     @Inject
     KieService kieService;
 
+    @Inject
+    KieServiceImpl kieServiceImpl;
+
     @AfterEach
     void resetServer() {
         mockKieServer.reset();
@@ -104,6 +117,22 @@ class KieServiceImplTest {
 
     }
 
+    @Test
+    void testGetConfig() throws InvalidKieServerException {
+        KieServerConfig config = kieService.getConfig("kie-server-2");
+        assertThat(config.getMinConcurrency(), is(2));
+        assertThat(config.getMaxConcurrency(), is(8));
+        assertThat(config.getTargetLatency(), is(Duration.ofSeconds(2)));
+        assertThat(kieService.getConfig("kie-server-1").getMaxConcurrency(), nullValue());
+        assertThrows(InvalidKieServerException.class, () -> kieService.getConfig("not-found"));
+    }
+
+    @Test
+    void testGetMigrationPermits() throws InvalidKieServerException {
+        assertThat(kieService.getConfig("kie-server-2").getMigrationPermits(), is(4));
+        assertThat(kieService.getConfig("kie-server-1").getMigrationPermits(), nullValue());
+    }
+
     @Test
     void testHasKieServer() {
         SUCCESS.forEach(n -> assertThat(n, kieService.hasKieServer(n), is(Boolean.TRUE)));
@@ -134,22 +163,32 @@ class KieServiceImplTest {
         FAILED.forEach(n -> assertThrows(InvalidKieServerException.class, () -> kieService.getProcessAdminServicesClient(n)));
     }
 
+    @Test
+    void testClientsAreSharedByTimeoutsInTheSameBucket() throws InvalidKieServerException {
+        QueryServicesClient client = kieService.getQueryServicesClient("kie-server-2", Duration.ofSeconds(5));
+        assertThat(kieService.getQueryServicesClient("kie-server-2", Duration.ofMillis(7500)), sameInstance(client));
+        assertThat(kieService.getQueryServicesClient("kie-server-2", Duration.ofSeconds(9)), not(sameInstance(client)));
+    }
+
     @Test
     void testGetDefinitions() throws InvalidKieServerException {
-        assertThrows(InvalidKieServerException.class, () -> kieService.getDefinitions("not-found"));
+        assertThrows(InvalidKieServerException.class, () -> kieService.getDefinitionsAsync("not-found"));
 
-        assertThat(kieService.getDefinitions("kie-server-1"), anEmptyMap());
-        Map<String, Set<String>> definitions = kieService.getDefinitions("kie-server-2");
+        assertThat(kieService.getDefinitionsAsync("kie-server-1").toCompletableFuture().join(), anEmptyMap());
+        Map<String, Set<String>> definitions = kieService.getDefinitionsAsync("kie-server-2").toCompletableFuture().join();
         assertThat(definitions, hasEntry(is("example-1.0.0"), contains("process1")));
-        assertThat(definitions, hasEntry(is("example-1.0.1"), contains("process1", "process2")));
+        assertThat(definitions, hasEntry(is("example-1.0.1"), containsInAnyOrder("process1", "process2")));
     }
 
     @Test
-    void testGetDefinition() throws InvalidKieServerException, ProcessDefinitionNotFoundException {
-        assertThrows(InvalidKieServerException.class, () -> kieService.getDefinition("not-found", new ProcessRef().setContainerId("foo").setProcessId("bar")));
-        assertThrows(ProcessDefinitionNotFoundException.class, () -> kieService.getDefinition("kie-server-2", new ProcessRef().setContainerId("foo").setProcessId("bar")));
-
-        ProcessInfo processInfo = kieService.getDefinition("kie-server-2", new ProcessRef().setContainerId("example-1.0.1").setProcessId("process2"));
+    void testGetDefinition() throws InvalidKieServerException {
+        assertThrows(InvalidKieServerException.class, () -> kieService.getDefinitionAsync("not-found", new ProcessRef().setContainerId("foo").setProcessId("bar")));
+        CompletionException error = assertThrows(CompletionException.class, () -> kieService.getDefinitionAsync("kie-server-2",
+                new ProcessRef().setContainerId("foo").setProcessId("bar")).toCompletableFuture().join());
+        assertThat(error.getCause() instanceof ProcessDefinitionNotFoundException, is(true));
+
+        ProcessInfo processInfo = kieService.getDefinitionAsync("kie-server-2", new ProcessRef().setContainerId("example-1.0.1").setProcessId("process2"))
+                .toCompletableFuture().join();
         assertThat(processInfo, notNullValue());
         assertThat(processInfo.getContainerId(), is("example-1.0.1"));
         assertThat(processInfo.getProcessId(), is("process2"));
@@ -167,15 +206,17 @@ class KieServiceImplTest {
 
     @Test
     void testGetRunningInstances() throws InvalidKieServerException {
-        assertThrows(InvalidKieServerException.class, () -> kieService.getRunningInstances("not-found", "foo", 0, 10, "", ""));
-        List<RunningInstance> runningInstances = kieService.getRunningInstances("kie-server-2", "example-1.0.1", 0, 10, "", "");
+        assertThrows(InvalidKieServerException.class, () -> kieService.getRunningInstancesAsync("not-found", "foo", 0, 10, "", ""));
+        List<RunningInstance> runningInstances = kieService.getRunningInstancesAsync("kie-server-2", "example-1.0.1", 0, 10, "", "")
+                .toCompletableFuture().join();
         assertThat(runningInstances, hasSize(1));
         RunningInstance instance = runningInstances.get(0);
         assertThat(instance.getId(), is(1));
         assertThat(instance.getStartTime(), notNullValue());
         assertThat(instance.getProcessInstanceId(), is(9L));
 
-        runningInstances = kieService.getRunningInstances("kie-server-2", "example-3.0.1", 0, 10, "startTime", "desc");
+        runningInstances = kieService.getRunningInstancesAsync("kie-server-2", "example-3.0.1", 0, 10, "startTime", "desc")
+                .toCompletableFuture().join();
         assertThat(runningInstances, hasSize(1));
         instance = runningInstances.get(0);
         assertThat(instance.getId(), is(1));
@@ -185,8 +226,36 @@ class KieServiceImplTest {
 
     @Test
     void testCountRunningInstances() throws InvalidKieServerException {
-        assertThat(kieService.countRunningInstances("kie-server-1", "example-1.0.1"), is(10L));
-        assertThat(kieService.countRunningInstances("kie-server-1", "example-2.0.1"), is(0L));
+        assertThat(kieService.countRunningInstancesAsync("kie-server-1", "example-1.0.1").toCompletableFuture().join(), is(10L));
+        assertThat(kieService.countRunningInstancesAsync("kie-server-1", "example-2.0.1").toCompletableFuture().join(), is(0L));
+    }
+
+    @Test
+    void testAsyncClient() throws InvalidKieServerException {
+        assertThrows(InvalidKieServerException.class, () -> kieServiceImpl.getAsyncClient("not-found"));
+        KieAsyncClient client = kieServiceImpl.getAsyncClient("kie-server-2");
+        assertThat(kieServiceImpl.getAsyncClient("kie-server-2"), is(client));
+
+        assertThat(client.listContainers().toCompletableFuture().join(), contains("example-1.0.0", "example-1.0.1"));
+        assertThat(client.findProcessesByContainerId("example-1.0.1", 0, 100).toCompletableFuture().join(), hasSize(2));
+        assertThat(client.getProcessDefinition("example-1.0.1", "process2").toCompletableFuture().join().getNodes(), hasSize(2));
+        assertThat(client.getProcessImage("example-1.0.1", "process2").toCompletableFuture().join(), is("<test/>"));
+        List<ProcessInstance> instances = client.findProcessInstancesByContainerId("example-1.0.1", List.of(1, 0, 4), 0, 10,
+                "processInstanceId", true).toCompletableFuture().join();
+        assertThat(instances, hasSize(1));
+        assertThat(instances.get(0).getId(), is(9L));
+        assertThat(kieServiceImpl.getAsyncClient("kie-server-1").countProcessInstancesByContainerId("example-1.0.1", List.of(1, 0, 4))
+                .toCompletableFuture().join(), is(10L));
+        KieAsyncClient adminClient = kieServiceImpl.getAsyncClient("kie-server-2", Duration.ofSeconds(30));
+        assertThat(adminClient.migrateProcessInstance("example-1.0.0", 9L, "example-1.0.1", "process2", Map.of("node1", "node2"))
+                .toCompletableFuture().join().isSuccessful(), is(true));
+        List<MigrationReportInstance> reports = adminClient.migrateProcessInstances("example-1.0.0", List.of(9L), "example-1.0.1",
+                "process2", null).toCompletableFuture().join();
+        assertThat(reports, hasSize(1));
+        assertThat(reports.get(0).getProcessInstanceId(), is(9L));
+        CompletionException error = assertThrows(CompletionException.class,
+                () -> client.getProcessDefinition("foo", "bar").toCompletableFuture().join());
+        assertThat(((KieServicesHttpException) error.getCause()).getHttpCode(), is(404));
     }
 
     private void assertSuccessConfig(KieServerConfig config) {
@@ -0,0 +1,225 @@
+/*
+ * Copyright 2023 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.processmigration.service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+import javax.inject.Inject;
+
+import org.junit.jupiter.api.Test;
+import org.kie.processmigration.model.Execution;
+import org.kie.processmigration.model.Migration;
+import org.kie.processmigration.model.MigrationChunk;
+import org.kie.processmigration.model.MigrationDefinition;
+import org.kie.processmigration.model.MigrationReportDto;
+import org.kie.processmigration.model.Plan;
+import org.kie.processmigration.model.ProcessRef;
+import org.kie.processmigration.model.exceptions.InvalidKieServerException;
+import org.kie.processmigration.model.exceptions.InvalidMigrationException;
+import org.kie.processmigration.model.exceptions.MigrationNotFoundException;
+import org.kie.processmigration.model.exceptions.PlanNotFoundException;
+import org.kie.processmigration.test.Profiles;
+import org.kie.server.api.model.admin.MigrationReportInstance;
+import org.kie.server.api.model.instance.ProcessInstance;
+import org.kie.server.client.QueryServicesClient;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+import io.quarkus.test.junit.mockito.InjectMock;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.anyList;
+import static org.mockito.Mockito.anyLong;
+import static org.mockito.Mockito.anyMap;
+import static org.mockito.Mockito.anyString;
+import static org.mockito.Mockito.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@QuarkusTest
+@TestProfile(Profiles.ClusterProfile.class)
+class MigrationServiceClusterTest {
+
+    @Inject
+    MigrationService migrationService;
+
+    @InjectMock
+    PlanService planService;
+
+    @InjectMock
+    KieService kieService;
+
+    @InjectMock
+    SchedulerService schedulerService;
+
+    @Inject
+    TransactionHelper txHelper;
+
+    @Test
+    void testSubmitDistributedMigration() throws PlanNotFoundException, InvalidKieServerException, InvalidMigrationException, MigrationNotFoundException {
+        // Given
+        Plan plan = new Plan()
+                .setSource(new ProcessRef().setContainerId("source-container")
+                        .setProcessId("source-process"))
+                .setTarget(new ProcessRef().setContainerId("target-container")
+                        .setProcessId("target-process"))
+                .setName("migrationPlan");
+        MigrationDefinition definition = new MigrationDefinition();
+        definition.setRequester("requester");
+        definition.setKieServerId("kie-server-1");
+        definition.setExecution(new Execution().setType(Execution.ExecutionType.SYNC).setChunkSize(2));
+        definition.setPlanId(11L);
+        definition.setProcessInstanceIds(new ArrayList<>(List.of(1L, 2L, 3L, 4L, 5L)));
+
+        when(planService.get(11L)).thenReturn(plan);
+        when(kieService.hasKieServer(definition.getKieServerId())).thenReturn(Boolean.TRUE);
+        when(kieService.existsProcessDefinition(eq(definition.getKieServerId()), eq(plan.getSource())))
+                .thenReturn(Boolean.TRUE);
+        when(kieService.existsProcessDefinition(eq(definition.getKieServerId()), eq(plan.getTarget())))
+                .thenReturn(Boolean.TRUE);
+        QueryServicesClient mockQueryServicesClient = mock(QueryServicesClient.class);
+        when(kieService.getQueryServicesClient(definition.getKieServerId()))
+                .thenReturn(mockQueryServicesClient);
+        KieAsyncClient mockAdminServicesClient = mock(KieAsyncClient.class);
+        when(kieService.getAsyncClient(definition.getKieServerId()))
+                .thenReturn(mockAdminServicesClient);
+        definition.getProcessInstanceIds().forEach(id -> {
+            ProcessInstance instance = new ProcessInstance();
+            instance.setId(id);
+            instance.setContainerId("source-container");
+            instance.setProcessId("source-process");
+            when(mockQueryServicesClient.findProcessInstanceById(id)).thenReturn(instance);
+        });
+        when(mockAdminServicesClient.migrateProcessInstances(anyString(), eq(List.of(1L, 2L)), anyString(), anyString(), anyMap()))
+                .thenReturn(CompletableFuture.completedFuture(List.of(createReport(1L), createReport(2L))));
+        when(mockAdminServicesClient.migrateProcessInstances(anyString(), eq(List.of(3L, 4L)), anyString(), anyString(), anyMap()))
+                .thenReturn(CompletableFuture.completedFuture(List.of(createReport(3L), createReport(4L))));
+        when(mockAdminServicesClient.migrateProcessInstance(anyString(), eq(5L), anyString(), anyString(), anyMap()))
+                .thenReturn(CompletableFuture.completedFuture(createReport(5L)));
+
+        // When
+        Migration migration = migrationService.submit(definition);
+
+        // Then
+        assertThat(migration.getStatus(), is(Execution.ExecutionStatus.COMPLETED));
+        assertThat(migrationService.getResults(migration.getId()).stream().map(MigrationReportDto::getProcessInstanceId).collect(Collectors.toList()),
+                containsInAnyOrder(1L, 2L, 3L, 4L, 5L));
+        assertThat(txHelper.withTransaction(() -> MigrationChunk.count("migrationId", migration.getId())), is(0L));
+        verify(mockAdminServicesClient, times(2)).migrateProcessInstances(anyString(), anyList(), anyString(), anyString(), anyMap());
+        migrationService.delete(migration.getId());
+    }
+
+    @Test
+    void testFailedChunkIsClaimedAgain() throws PlanNotFoundException, InvalidKieServerException, InvalidMigrationException, MigrationNotFoundException {
+        // Given
+        Plan plan = new Plan()
+                .setSource(new ProcessRef().setContainerId("source-container")
+                        .setProcessId("source-process"))
+                .setTarget(new ProcessRef().setContainerId("target-container")
+                        .setProcessId("target-process"))
+                .setName("migrationPlan");
+        MigrationDefinition definition = new MigrationDefinition();
+        definition.setRequester("requester");
+        definition.setKieServerId("kie-server-1");
+        definition.setExecution(new Execution().setType(Execution.ExecutionType.SYNC));
+        definition.setPlanId(11L);
+        definition.setProcessInstanceIds(new ArrayList<>(List.of(1L, 2L, 3L, 4L)));
+
+        when(planService.get(11L)).thenReturn(plan);
+        when(kieService.hasKieServer(definition.getKieServerId())).thenReturn(Boolean.TRUE);
+        when(kieService.existsProcessDefinition(eq(definition.getKieServerId()), eq(plan.getSource())))
+                .thenReturn(Boolean.TRUE);
+        when(kieService.existsProcessDefinition(eq(definition.getKieServerId()), eq(plan.getTarget())))
+                .thenReturn(Boolean.TRUE);
+        QueryServicesClient mockQueryServicesClient = mock(QueryServicesClient.class);
+        when(kieService.getQueryServicesClient(definition.getKieServerId()))
+                .thenReturn(mockQueryServicesClient);
+        KieAsyncClient mockAdminServicesClient = mock(KieAsyncClient.class);
+        // The first claimed chunk cannot be migrated
+        when(kieService.getAsyncClient(definition.getKieServerId()))
+                .thenThrow(new InvalidKieServerException(definition.getKieServerId()))
+                .thenReturn(mockAdminServicesClient);
+        definition.getProcessInstanceIds().forEach(id -> {
+            ProcessInstance instance = new ProcessInstance();
+            instance.setId(id);
+            instance.setContainerId("source-container");
+            instance.setProcessId("source-process");
+            when(mockQueryServicesClient.findProcessInstanceById(id)).thenReturn(instance);
+            when(mockAdminServicesClient.migrateProcessInstance(anyString(), eq(id), anyString(), anyString(), anyMap()))
+                    .thenReturn(CompletableFuture.completedFuture(createReport(id)));
+        });
+
+        // When
+        Migration migration = migrationService.submit(definition);
+
+        // Then
+        assertThat(migration.getStatus(), is(Execution.ExecutionStatus.COMPLETED));
+        assertThat(migrationService.getResults(migration.getId()).stream().map(MigrationReportDto::getProcessInstanceId).collect(Collectors.toList()),
+                containsInAnyOrder(1L, 2L, 3L, 4L));
+        verify(kieService, times(3)).getProcessAdminServicesClient(definition.getKieServerId());
+        verify(mockAdminServicesClient, times(4)).migrateProcessInstance(anyString(), anyLong(), anyString(), anyString(), anyMap());
+        migrationService.delete(migration.getId());
+    }
+
+    @Test
+    void testMigrationIsOnlyAcquiredOnceTheLeaseExpires() {
+        MigrationDefinition definition = new MigrationDefinition();
+        definition.setRequester("requester");
+        definition.setKieServerId("kie-server-1");
+        definition.setExecution(new Execution().setType(Execution.ExecutionType.ASYNC));
+        definition.setPlanId(11L);
+        Migration migration = new Migration(definition);
+        txHelper.withTransaction(() -> migration.persist());
+        Long id = migration.getId();
+        Instant now = Instant.now();
+
+        assertThat(txHelper.withTransaction(() -> Migration.acquire(id, "node-1", now, now.plusSeconds(30))), is(true));
+        // The lease of node-1 is still valid
+        assertThat(txHelper.withTransaction(() -> Migration.acquire(id, "node-2", now.plusSeconds(10), now.plusSeconds(40))), is(false));
+        // The owner can acquire it again
+        assertThat(txHelper.withTransaction(() -> Migration.acquire(id, "node-1", now.plusSeconds(10), now.plusSeconds(40))), is(true));
+        assertThat(txHelper.withTransaction(() -> Migration.renewLeases("node-2", List.of(id), now.plusSeconds(60))), is(0));
+        // The lease of node-1 has expired
+        assertThat(txHelper.withTransaction(() -> Migration.acquire(id, "node-2", now.plusSeconds(50), now.plusSeconds(80))), is(true));
+        assertThat(txHelper.withTransaction(() -> Migration.renewLeases("node-1", List.of(id), now.plusSeconds(90))), is(0));
+        assertThat(txHelper.withTransaction(() -> Migration.listOwnedIds("node-1", List.of(id))), empty());
+        assertThat(txHelper.withTransaction(() -> Migration.listOwnedIds("node-2", List.of(id))), contains(id));
+
+        txHelper.withTransaction(() -> Migration.deleteById(id));
+    }
+
+    private MigrationReportInstance createReport(Long instanceId) {
+        MigrationReportInstance report = new MigrationReportInstance();
+        report.setStartDate(new Date());
+        report.setEndDate(new Date());
+        report.setProcessInstanceId(instanceId);
+        report.setSuccessful(true);
+        report.setLogs(List.of("Migration went fine"));
+        return report;
+    }
+}
@@ -16,11 +16,21 @@
 
 package org.kie.processmigration.service;
 
+import java.time.Duration;
 import java.time.Instant;
+import java.time.LocalTime;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 
 import javax.inject.Inject;
 
@@ -29,8 +39,11 @@ import io.quarkus.test.junit.mockito.InjectMock;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.kie.processmigration.model.Execution;
+import org.kie.processmigration.model.KieServerConfig;
 import org.kie.processmigration.model.Migration;
+import org.kie.processmigration.model.MigrationCallback;
 import org.kie.processmigration.model.MigrationDefinition;
+import org.kie.processmigration.model.MigrationReport;
 import org.kie.processmigration.model.MigrationReportDto;
 import org.kie.processmigration.model.Plan;
 import org.kie.processmigration.model.ProcessRef;
@@ -40,18 +53,23 @@ import org.kie.processmigration.model.exceptions.MigrationNotFoundException;
 import org.kie.processmigration.model.exceptions.PlanNotFoundException;
 import org.kie.processmigration.model.exceptions.ProcessNotFoundException;
 import org.kie.server.api.model.admin.MigrationReportInstance;
+import org.kie.server.api.model.definition.QueryFilterSpec;
 import org.kie.server.api.model.instance.ProcessInstance;
 import org.kie.server.client.QueryServicesClient;
-import org.kie.server.client.admin.ProcessAdminServicesClient;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.arrayContainingInAnyOrder;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.Matchers.nullValue;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.fail;
+import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.anyInt;
 import static org.mockito.Mockito.anyList;
 import static org.mockito.Mockito.anyLong;
@@ -67,6 +85,8 @@ import static org.mockito.Mockito.when;
 @QuarkusTest
 class MigrationServiceImplTest {
 
+    private static final long TIMEOUT = 10;
+
     @Inject
     MigrationService migrationService;
 
@@ -79,6 +99,9 @@ class MigrationServiceImplTest {
     @InjectMock
     SchedulerService schedulerService;
 
+    @Inject
+    TransactionHelper txHelper;
+
     @BeforeEach
     void cleanUp() {
         migrationService.findAll().forEach(migration -> {
@@ -164,6 +187,225 @@ class MigrationServiceImplTest {
         migrationService.delete(migration.getId());
     }
 
+    @Test
+    void testCancelScheduledMigration()
+            throws InvalidMigrationException, PlanNotFoundException, MigrationNotFoundException {
+        Plan plan = new Plan()
+                .setSource(new ProcessRef().setContainerId("source-container")
+                        .setProcessId("source-process"))
+                .setTarget(new ProcessRef().setContainerId("target-container")
+                        .setProcessId("target-process"))
+                .setName("migrationPlan");
+        MigrationDefinition definition = new MigrationDefinition();
+        definition.setPlanId(11L);
+        definition.setKieServerId("foo");
+        definition.setExecution(new Execution().setType(Execution.ExecutionType.ASYNC)
+                .setScheduledStartTime(Instant.now().plus(1, ChronoUnit.MINUTES)));
+        when(kieService.hasKieServer(definition.getKieServerId())).thenReturn(Boolean.TRUE);
+        when(planService.get(11L)).thenReturn(plan);
+        when(kieService.existsProcessDefinition(definition.getKieServerId(), plan.getSource()))
+                .thenReturn(Boolean.TRUE);
+        when(kieService.existsProcessDefinition(definition.getKieServerId(), plan.getTarget()))
+                .thenReturn(Boolean.TRUE);
+        Migration migration = migrationService.submit(definition);
+
+        Migration cancelled = migrationService.cancel(migration.getId());
+
+        assertThat(cancelled.getStatus(), is(Execution.ExecutionStatus.CANCELLED));
+        assertThat(cancelled.getCancelledAt(), notNullValue());
+        migrationService.migrate(migrationService.get(migration.getId()));
+        assertThat(migrationService.get(migration.getId()).getStatus(), is(Execution.ExecutionStatus.CANCELLED));
+        assertThrows(InvalidMigrationException.class, () -> migrationService.cancel(migration.getId()));
+        migrationService.delete(migration.getId());
+    }
+
+    @Test
+    void testCancelRunningMigration() throws Exception {
+        // Given
+        Plan plan = new Plan()
+                .setSource(new ProcessRef().setContainerId("source-container")
+                        .setProcessId("source-process"))
+                .setTarget(new ProcessRef().setContainerId("target-container")
+                        .setProcessId("target-process"))
+                .setName("migrationPlan");
+        MigrationDefinition definition = new MigrationDefinition();
+        definition.setRequester("requester");
+        definition.setKieServerId("kie-server-1");
+        definition.setExecution(new Execution().setType(Execution.ExecutionType.ASYNC));
+        definition.setPlanId(11L);
+        definition.setProcessInstanceIds(new ArrayList<>(List.of(1L, 2L, 3L, 4L, 5L)));
+
+        when(planService.get(11L)).thenReturn(plan);
+        when(kieService.hasKieServer(definition.getKieServerId())).thenReturn(Boolean.TRUE);
+        when(kieService.existsProcessDefinition(eq(definition.getKieServerId()), eq(plan.getSource())))
+                .thenReturn(Boolean.TRUE);
+        when(kieService.existsProcessDefinition(eq(definition.getKieServerId()), eq(plan.getTarget())))
+                .thenReturn(Boolean.TRUE);
+        QueryServicesClient mockQueryServicesClient = mock(QueryServicesClient.class);
+        when(kieService.getQueryServicesClient(definition.getKieServerId()))
+                .thenReturn(mockQueryServicesClient);
+        KieAsyncClient mockAdminServicesClient = mock(KieAsyncClient.class);
+        when(kieService.getAsyncClient(definition.getKieServerId()))
+                .thenReturn(mockAdminServicesClient);
+        definition.getProcessInstanceIds().forEach(id -> {
+            ProcessInstance instance = new ProcessInstance();
+            instance.setId(id);
+            instance.setContainerId("source-container");
+            instance.setProcessId("source-process");
+            when(mockQueryServicesClient.findProcessInstanceById(id)).thenReturn(instance);
+        });
+        CountDownLatch inFlight = new CountDownLatch(1);
+        CountDownLatch cancelled = new CountDownLatch(1);
+        when(mockAdminServicesClient.migrateProcessInstance(anyString(), anyLong(), anyString(), anyString(), anyMap()))
+                .thenAnswer(invocation -> {
+                    Long id = invocation.getArgument(1);
+                    if (id == 2L) {
+                        // Instance 2 is being migrated when the migration is cancelled
+                        inFlight.countDown();
+                        cancelled.await(TIMEOUT, TimeUnit.SECONDS);
+                    }
+                    return CompletableFuture.completedFuture(createReport(id, true));
+                });
+        Migration migration = migrationService.submit(definition);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<Migration> result = executor.submit(() -> migrationService.migrate(migrationService.get(migration.getId())));
+
+        // When
+        assertThat(inFlight.await(TIMEOUT, TimeUnit.SECONDS), is(true));
+        assertThat(migrationService.cancel(migration.getId()).getStatus(), is(Execution.ExecutionStatus.CANCELLED));
+        cancelled.countDown();
+
+        // Then
+        assertThat(result.get(TIMEOUT, TimeUnit.SECONDS).getStatus(), is(Execution.ExecutionStatus.CANCELLED));
+        executor.shutdown();
+        Migration cancelledMigration = migrationService.get(migration.getId());
+        assertThat(cancelledMigration.getStatus(), is(Execution.ExecutionStatus.CANCELLED));
+        assertThat(cancelledMigration.getCancelledAt(), notNullValue());
+        assertThat(cancelledMigration.getProcessed(), is(2L));
+        assertThat(migrationService.getResults(migration.getId()).stream().map(MigrationReportDto::getProcessInstanceId).collect(Collectors.toList()),
+                containsInAnyOrder(1L, 2L));
+        verify(mockAdminServicesClient, times(2)).migrateProcessInstance(anyString(), anyLong(), anyString(), anyString(), anyMap());
+        migrationService.delete(migration.getId());
+    }
+
+    @Test
+    void testPauseAndResumeMigration()
+            throws InvalidMigrationException, PlanNotFoundException, MigrationNotFoundException {
+        Plan plan = new Plan()
+                .setSource(new ProcessRef().setContainerId("source-container")
+                        .setProcessId("source-process"))
+                .setTarget(new ProcessRef().setContainerId("target-container")
+                        .setProcessId("target-process"))
+                .setName("migrationPlan");
+        MigrationDefinition definition = new MigrationDefinition();
+        definition.setPlanId(11L);
+        definition.setKieServerId("foo");
+        definition.setExecution(new Execution().setType(Execution.ExecutionType.ASYNC)
+                .setScheduledStartTime(Instant.now().plus(1, ChronoUnit.MINUTES)));
+        when(kieService.hasKieServer(definition.getKieServerId())).thenReturn(Boolean.TRUE);
+        when(planService.get(11L)).thenReturn(plan);
+        when(kieService.existsProcessDefinition(definition.getKieServerId(), plan.getSource()))
+                .thenReturn(Boolean.TRUE);
+        when(kieService.existsProcessDefinition(definition.getKieServerId(), plan.getTarget()))
+                .thenReturn(Boolean.TRUE);
+        Migration migration = migrationService.submit(definition);
+
+        assertThat(migrationService.pause(migration.getId()).getStatus(), is(Execution.ExecutionStatus.PAUSED));
+        migrationService.migrate(migrationService.get(migration.getId()));
+        assertThat(migrationService.get(migration.getId()).getStatus(), is(Execution.ExecutionStatus.PAUSED));
+
+        assertThat(migrationService.resume(migration.getId()).getStatus(), is(Execution.ExecutionStatus.SCHEDULED));
+        verify(schedulerService, times(1)).scheduleMigration(any(Migration.class), any(Instant.class));
+        assertThrows(InvalidMigrationException.class, () -> migrationService.resume(migration.getId()));
+        migrationService.delete(migration.getId());
+    }
+
+    @Test
+    void testDeleteMigrationDeletesItsCallbacks()
+            throws InvalidMigrationException, PlanNotFoundException, MigrationNotFoundException {
+        Plan plan = new Plan()
+                .setSource(new ProcessRef().setContainerId("source-container")
+                        .setProcessId("source-process"))
+                .setTarget(new ProcessRef().setContainerId("target-container")
+                        .setProcessId("target-process"))
+                .setName("migrationPlan");
+        MigrationDefinition definition = new MigrationDefinition();
+        definition.setRequester("requester");
+        definition.setKieServerId("kie-server-1");
+        definition.setExecution(new Execution().setType(Execution.ExecutionType.ASYNC)
+                .setScheduledStartTime(Instant.now().plus(1, ChronoUnit.MINUTES)));
+        definition.setPlanId(11L);
+
+        when(planService.get(11L)).thenReturn(plan);
+        when(kieService.hasKieServer(definition.getKieServerId())).thenReturn(Boolean.TRUE);
+        when(kieService.existsProcessDefinition(eq(definition.getKieServerId()), eq(plan.getSource())))
+                .thenReturn(Boolean.TRUE);
+        when(kieService.existsProcessDefinition(eq(definition.getKieServerId()), eq(plan.getTarget())))
+                .thenReturn(Boolean.TRUE);
+        Migration migration = migrationService.submit(definition);
+        txHelper.withTransaction(() -> new MigrationCallback(migration.getId(), MigrationCallback.CallbackType.COMPLETION,
+                "http://localhost/callback", "{}").persist());
+
+        migrationService.delete(migration.getId());
+
+        assertThat(txHelper.withTransaction(() -> MigrationCallback.listByMigrationId(migration.getId())), empty());
+    }
+
+    @Test
+    void testResumeMigrationPausedByCrashedNode()
+            throws InvalidMigrationException, PlanNotFoundException, MigrationNotFoundException {
+        Plan plan = new Plan()
+                .setSource(new ProcessRef().setContainerId("source-container")
+                        .setProcessId("source-process"))
+                .setTarget(new ProcessRef().setContainerId("target-container")
+                        .setProcessId("target-process"))
+                .setName("migrationPlan");
+        MigrationDefinition definition = new MigrationDefinition();
+        definition.setRequester("requester");
+        definition.setKieServerId("kie-server-1");
+        definition.setExecution(new Execution().setType(Execution.ExecutionType.ASYNC)
+                .setScheduledStartTime(Instant.now().plus(1, ChronoUnit.MINUTES)));
+        definition.setPlanId(11L);
+
+        when(planService.get(11L)).thenReturn(plan);
+        when(kieService.hasKieServer(definition.getKieServerId())).thenReturn(Boolean.TRUE);
+        when(kieService.existsProcessDefinition(eq(definition.getKieServerId()), eq(plan.getSource())))
+                .thenReturn(Boolean.TRUE);
+        when(kieService.existsProcessDefinition(eq(definition.getKieServerId()), eq(plan.getTarget())))
+                .thenReturn(Boolean.TRUE);
+        Migration migration = migrationService.submit(definition);
+        migrationService.pause(migration.getId());
+
+        txHelper.withTransaction(() -> Migration.update("owner = ?1, leaseExpiresAt = ?2 where id = ?3",
+                "crashed-node", Instant.now().plus(1, ChronoUnit.MINUTES), migration.getId()));
+        assertThrows(InvalidMigrationException.class, () -> migrationService.resume(migration.getId()));
+
+        txHelper.withTransaction(() -> Migration.update("leaseExpiresAt = ?1 where id = ?2",
+                Instant.now().minus(1, ChronoUnit.MINUTES), migration.getId()));
+        assertThat(migrationService.resume(migration.getId()).getStatus(), is(Execution.ExecutionStatus.SCHEDULED));
+        migrationService.delete(migration.getId());
+    }
+
+    @Test
+    void testMigrationWaitsForExecutionWindow() throws InvalidMigrationException, MigrationNotFoundException {
+        LocalTime now = LocalTime.now();
+        MigrationDefinition definition = new MigrationDefinition();
+        definition.setPlanId(11L);
+        definition.setKieServerId("foo");
+        definition.setProcessInstanceIds(List.of(1L));
+        definition.setExecution(new Execution().setType(Execution.ExecutionType.SYNC)
+                .setWindowStart(now.plusHours(2))
+                .setWindowEnd(now.plusHours(3)));
+        when(kieService.hasKieServer(definition.getKieServerId())).thenReturn(Boolean.TRUE);
+
+        Migration migration = migrationService.submit(definition);
+
+        assertThat(migration.getStatus(), is(Execution.ExecutionStatus.SCHEDULED));
+        verify(schedulerService, times(1)).scheduleMigration(any(Migration.class), any(Instant.class));
+        verifyNoInteractions(planService);
+        migrationService.delete(migration.getId());
+    }
+
     @Test
     void testSubmitSyncMigration() throws PlanNotFoundException, InvalidKieServerException {
         // Given
@@ -190,8 +432,8 @@ class MigrationServiceImplTest {
         QueryServicesClient mockQueryServicesClient = mock(QueryServicesClient.class);
         when(kieService.getQueryServicesClient(definition.getKieServerId()))
                 .thenReturn(mockQueryServicesClient);
-        ProcessAdminServicesClient mockAdminServicesClient = mock(ProcessAdminServicesClient.class);
-        when(kieService.getProcessAdminServicesClient(definition.getKieServerId()))
+        KieAsyncClient mockAdminServicesClient = mock(KieAsyncClient.class);
+        when(kieService.getAsyncClient(definition.getKieServerId()))
                 .thenReturn(mockAdminServicesClient);
 
         List<ProcessInstance> instances = new ArrayList<>();
@@ -210,7 +452,7 @@ class MigrationServiceImplTest {
                     try {
                         when(mockAdminServicesClient.migrateProcessInstance(anyString(),
                                 anyLong(), anyString(),
-                                anyString(), anyMap())).thenReturn(r);
+                                anyString(), anyMap())).thenReturn(CompletableFuture.completedFuture(r));
 
                         // When
                         migrationService.submit(definition);
@@ -254,6 +496,616 @@ class MigrationServiceImplTest {
                 anyString(), anyMap());
     }
 
+    @Test
+    void testSubmitConcurrentMigration() throws PlanNotFoundException, InvalidKieServerException, InvalidMigrationException, MigrationNotFoundException {
+        // Given
+        Plan plan = new Plan()
+                .setSource(new ProcessRef().setContainerId("source-container")
+                        .setProcessId("source-process"))
+                .setTarget(new ProcessRef().setContainerId("target-container")
+                        .setProcessId("target-process"))
+                .setName("migrationPlan");
+        MigrationDefinition definition = new MigrationDefinition();
+        definition.setRequester("requester");
+        definition.setKieServerId("kie-server-1");
+        definition.setExecution(new Execution().setType(Execution.ExecutionType.SYNC).setConcurrency(4));
+        definition.setPlanId(11L);
+        List<Long> instanceIds = new ArrayList<>();
+        for (long i = 1; i <= 20; i++) {
+            instanceIds.add(i);
+        }
+        definition.setProcessInstanceIds(instanceIds);
+
+        when(planService.get(11L)).thenReturn(plan);
+        when(kieService.hasKieServer(definition.getKieServerId())).thenReturn(Boolean.TRUE);
+        when(kieService.existsProcessDefinition(eq(definition.getKieServerId()), eq(plan.getSource())))
+                .thenReturn(Boolean.TRUE);
+        when(kieService.existsProcessDefinition(eq(definition.getKieServerId()), eq(plan.getTarget())))
+                .thenReturn(Boolean.TRUE);
+        QueryServicesClient mockQueryServicesClient = mock(QueryServicesClient.class);
+        when(kieService.getQueryServicesClient(definition.getKieServerId()))
+                .thenReturn(mockQueryServicesClient);
+        KieAsyncClient mockAdminServicesClient = mock(KieAsyncClient.class);
+        when(kieService.getAsyncClient(definition.getKieServerId()))
+                .thenReturn(mockAdminServicesClient);
+        instanceIds.forEach(id -> {
+            ProcessInstance instance = new ProcessInstance();
+            instance.setId(id);
+            instance.setContainerId("source-container");
+            instance.setProcessId("source-process");
+            when(mockQueryServicesClient.findProcessInstanceById(id)).thenReturn(instance);
+            when(mockAdminServicesClient.migrateProcessInstance(anyString(), eq(id), anyString(), anyString(), anyMap()))
+                    .thenReturn(CompletableFuture.completedFuture(createReport(id, id != 7L)));
+        });
+
+        // When
+        Migration migration = migrationService.submit(definition);
+
+        // Then
+        assertThat(migration.getStatus(), is(Execution.ExecutionStatus.FAILED));
+        List<MigrationReportDto> results = migrationService.getResults(migration.getId());
+        assertThat(results, hasSize(instanceIds.size()));
+        assertThat(results.stream().map(MigrationReportDto::getProcessInstanceId).toArray(), arrayContainingInAnyOrder(instanceIds.toArray()));
+        assertThat(results.stream().filter(r -> !r.getSuccessful()).count(), is(1L));
+        assertThat(migration.getTotal(), is((long) instanceIds.size()));
+        assertThat(migration.getProcessed(), is((long) instanceIds.size()));
+        assertThat(migration.getSucceeded(), is(instanceIds.size() - 1L));
+        assertThat(migration.getFailed(), is(1L));
+        verify(mockAdminServicesClient, times(instanceIds.size())).migrateProcessInstance(anyString(), anyLong(), anyString(),
+                anyString(), anyMap());
+    }
+
+    @Test
+    void testRequestedConcurrencyIsNotExceeded() throws PlanNotFoundException, InvalidKieServerException, InvalidMigrationException {
+        // Given
+        Plan plan = new Plan()
+                .setSource(new ProcessRef().setContainerId("source-container")
+                        .setProcessId("source-process"))
+                .setTarget(new ProcessRef().setContainerId("target-container")
+                        .setProcessId("target-process"))
+                .setName("migrationPlan");
+        MigrationDefinition definition = new MigrationDefinition();
+        definition.setRequester("requester");
+        definition.setKieServerId("kie-server-1");
+        definition.setExecution(new Execution().setType(Execution.ExecutionType.SYNC).setConcurrency(1));
+        definition.setPlanId(11L);
+        List<Long> instanceIds = new ArrayList<>();
+        for (long i = 1; i <= 10; i++) {
+            instanceIds.add(i);
+        }
+        definition.setProcessInstanceIds(instanceIds);
+
+        when(planService.get(11L)).thenReturn(plan);
+        when(kieService.hasKieServer(definition.getKieServerId())).thenReturn(Boolean.TRUE);
+        when(kieService.getConfig(definition.getKieServerId()))
+                .thenReturn(new KieServerConfig().setMinConcurrency(2).setMaxConcurrency(8));
+        when(kieService.existsProcessDefinition(eq(definition.getKieServerId()), eq(plan.getSource())))
+                .thenReturn(Boolean.TRUE);
+        when(kieService.existsProcessDefinition(eq(definition.getKieServerId()), eq(plan.getTarget())))
+                .thenReturn(Boolean.TRUE);
+        QueryServicesClient mockQueryServicesClient = mock(QueryServicesClient.class);
+        when(kieService.getQueryServicesClient(definition.getKieServerId()))
+                .thenReturn(mockQueryServicesClient);
+        KieAsyncClient mockAdminServicesClient = mock(KieAsyncClient.class);
+        when(kieService.getAsyncClient(definition.getKieServerId()))
+                .thenReturn(mockAdminServicesClient);
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        instanceIds.forEach(id -> {
+            ProcessInstance instance = new ProcessInstance();
+            instance.setId(id);
+            instance.setContainerId("source-container");
+            instance.setProcessId("source-process");
+            when(mockQueryServicesClient.findProcessInstanceById(id)).thenReturn(instance);
+            when(mockAdminServicesClient.migrateProcessInstance(anyString(), eq(id), anyString(), anyString(), anyMap()))
+                    .thenAnswer(invocation -> {
+                        maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                        Thread.sleep(20);
+                        inFlight.decrementAndGet();
+                        return CompletableFuture.completedFuture(createReport(id, true));
+                    });
+        });
+
+        // When
+        Migration migration = migrationService.submit(definition);
+
+        // Then
+        assertThat(migration.getStatus(), is(Execution.ExecutionStatus.COMPLETED));
+        assertThat(maxInFlight.get(), is(1));
+        verify(mockAdminServicesClient, times(instanceIds.size())).migrateProcessInstance(anyString(), anyLong(), anyString(),
+                anyString(), anyMap());
+    }
+
+    @Test
+    void testSubmitChunkedMigration() throws PlanNotFoundException, InvalidKieServerException, InvalidMigrationException, MigrationNotFoundException {
+        // Given
+        Plan plan = new Plan()
+                .setSource(new ProcessRef().setContainerId("source-container")
+                        .setProcessId("source-process"))
+                .setTarget(new ProcessRef().setContainerId("target-container")
+                        .setProcessId("target-process"))
+                .setName("migrationPlan");
+        MigrationDefinition definition = new MigrationDefinition();
+        definition.setRequester("requester");
+        definition.setKieServerId("kie-server-1");
+        definition.setExecution(new Execution().setType(Execution.ExecutionType.SYNC).setChunkSize(3));
+        definition.setPlanId(11L);
+        definition.setProcessInstanceIds(new ArrayList<>(List.of(1L, 2L, 3L, 4L, 5L)));
+
+        when(planService.get(11L)).thenReturn(plan);
+        when(kieService.hasKieServer(definition.getKieServerId())).thenReturn(Boolean.TRUE);
+        when(kieService.existsProcessDefinition(eq(definition.getKieServerId()), eq(plan.getSource())))
+                .thenReturn(Boolean.TRUE);
+        when(kieService.existsProcessDefinition(eq(definition.getKieServerId()), eq(plan.getTarget())))
+                .thenReturn(Boolean.TRUE);
+        QueryServicesClient mockQueryServicesClient = mock(QueryServicesClient.class);
+        when(kieService.getQueryServicesClient(definition.getKieServerId()))
+                .thenReturn(mockQueryServicesClient);
+        KieAsyncClient mockAdminServicesClient = mock(KieAsyncClient.class);
+        when(kieService.getAsyncClient(definition.getKieServerId()))
+                .thenReturn(mockAdminServicesClient);
+        definition.getProcessInstanceIds().forEach(id -> {
+            ProcessInstance instance = new ProcessInstance();
+            instance.setId(id);
+            instance.setContainerId("source-container");
+            instance.setProcessId("source-process");
+            when(mockQueryServicesClient.findProcessInstanceById(id)).thenReturn(instance);
+        });
+        when(mockAdminServicesClient.migrateProcessInstances(anyString(), eq(List.of(1L, 2L, 3L)), anyString(), anyString(), anyMap()))
+                .thenReturn(CompletableFuture.completedFuture(List.of(createReport(1L, true), createReport(2L, true), createReport(3L, true))));
+        when(mockAdminServicesClient.migrateProcessInstances(anyString(), eq(List.of(4L, 5L)), anyString(), anyString(), anyMap()))
+                .thenThrow(new RuntimeException("Chunk failed"));
+        when(mockAdminServicesClient.migrateProcessInstance(anyString(), eq(4L), anyString(), anyString(), anyMap()))
+                .thenReturn(CompletableFuture.completedFuture(createReport(4L, true)));
+        when(mockAdminServicesClient.migrateProcessInstance(anyString(), eq(5L), anyString(), anyString(), anyMap()))
+                .thenReturn(CompletableFuture.completedFuture(createReport(5L, false)));
+
+        // When
+        Migration migration = migrationService.submit(definition);
+
+        // Then
+        assertThat(migration.getStatus(), is(Execution.ExecutionStatus.FAILED));
+        List<MigrationReportDto> results = migrationService.getResults(migration.getId());
+        assertThat(results, hasSize(5));
+        assertThat(results.stream().filter(r -> !r.getSuccessful()).map(MigrationReportDto::getProcessInstanceId).collect(Collectors.toList()),
+                contains(5L));
+        verify(mockAdminServicesClient, times(2)).migrateProcessInstances(anyString(), anyList(), anyString(), anyString(), anyMap());
+        verify(mockAdminServicesClient, times(2)).migrateProcessInstance(anyString(), anyLong(), anyString(), anyString(), anyMap());
+    }
+
+    @Test
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    void testSubmitMigrationLooksUpInstancesInBatches() throws PlanNotFoundException, InvalidKieServerException, InvalidMigrationException, MigrationNotFoundException {
+        // Given
+        Plan plan = new Plan()
+                .setSource(new ProcessRef().setContainerId("source-container")
+                        .setProcessId("source-process"))
+                .setTarget(new ProcessRef().setContainerId("target-container")
+                        .setProcessId("target-process"))
+                .setName("migrationPlan");
+        MigrationDefinition definition = new MigrationDefinition();
+        definition.setRequester("requester");
+        definition.setKieServerId("kie-server-1");
+        definition.setExecution(new Execution().setType(Execution.ExecutionType.SYNC).setChunkSize(3));
+        definition.setPlanId(11L);
+        definition.setProcessInstanceIds(new ArrayList<>(List.of(1L, 2L, 3L)));
+
+        when(planService.get(11L)).thenReturn(plan);
+        when(kieService.hasKieServer(definition.getKieServerId())).thenReturn(Boolean.TRUE);
+        when(kieService.registerQuery(eq(definition.getKieServerId()), anyString(), anyString())).thenReturn(Boolean.TRUE);
+        when(kieService.existsProcessDefinition(eq(definition.getKieServerId()), eq(plan.getSource())))
+                .thenReturn(Boolean.TRUE);
+        when(kieService.existsProcessDefinition(eq(definition.getKieServerId()), eq(plan.getTarget())))
+                .thenReturn(Boolean.TRUE);
+        QueryServicesClient mockQueryServicesClient = mock(QueryServicesClient.class);
+        when(kieService.getQueryServicesClient(definition.getKieServerId()))
+                .thenReturn(mockQueryServicesClient);
+        KieAsyncClient mockAdminServicesClient = mock(KieAsyncClient.class);
+        when(kieService.getAsyncClient(definition.getKieServerId()))
+                .thenReturn(mockAdminServicesClient);
+        when(mockQueryServicesClient.query(anyString(), anyString(), any(QueryFilterSpec.class), anyInt(), anyInt(), eq(List.class)))
+                .thenReturn((List) List.of(List.of(1, "source-container"), List.of(3, "source-container")));
+        when(mockAdminServicesClient.migrateProcessInstances(anyString(), eq(List.of(1L, 3L)), anyString(), anyString(), anyMap()))
+                .thenReturn(CompletableFuture.completedFuture(List.of(createReport(1L, true), createReport(3L, true))));
+
+        // When
+        Migration migration = migrationService.submit(definition);
+
+        // Then
+        assertThat(migration.getStatus(), is(Execution.ExecutionStatus.COMPLETED));
+        assertThat(migrationService.getResults(migration.getId()), hasSize(3));
+        verify(mockQueryServicesClient, times(1)).query(anyString(), anyString(), any(QueryFilterSpec.class), anyInt(), anyInt(), eq(List.class));
+        verify(mockQueryServicesClient, times(0)).findProcessInstanceById(anyLong());
+        verify(mockAdminServicesClient, times(0)).migrateProcessInstance(anyString(), anyLong(), anyString(), anyString(), anyMap());
+    }
+
+    @Test
+    void testAbortMigrationWhenFailuresExceedLimit() throws PlanNotFoundException, InvalidKieServerException, InvalidMigrationException, MigrationNotFoundException {
+        // Given
+        Plan plan = new Plan()
+                .setSource(new ProcessRef().setContainerId("source-container")
+                        .setProcessId("source-process"))
+                .setTarget(new ProcessRef().setContainerId("target-container")
+                        .setProcessId("target-process"))
+                .setName("migrationPlan");
+        MigrationDefinition definition = new MigrationDefinition();
+        definition.setRequester("requester");
+        definition.setKieServerId("kie-server-1");
+        definition.setExecution(new Execution().setType(Execution.ExecutionType.SYNC).setMaxFailures(1));
+        definition.setPlanId(11L);
+        definition.setProcessInstanceIds(new ArrayList<>(List.of(1L, 2L, 3L, 4L, 5L)));
+
+        when(planService.get(11L)).thenReturn(plan);
+        when(kieService.hasKieServer(definition.getKieServerId())).thenReturn(Boolean.TRUE);
+        when(kieService.existsProcessDefinition(eq(definition.getKieServerId()), eq(plan.getSource())))
+                .thenReturn(Boolean.TRUE);
+        when(kieService.existsProcessDefinition(eq(definition.getKieServerId()), eq(plan.getTarget())))
+                .thenReturn(Boolean.TRUE);
+        QueryServicesClient mockQueryServicesClient = mock(QueryServicesClient.class);
+        when(kieService.getQueryServicesClient(definition.getKieServerId()))
+                .thenReturn(mockQueryServicesClient);
+        KieAsyncClient mockAdminServicesClient = mock(KieAsyncClient.class);
+        when(kieService.getAsyncClient(definition.getKieServerId()))
+                .thenReturn(mockAdminServicesClient);
+        definition.getProcessInstanceIds().forEach(id -> {
+            ProcessInstance instance = new ProcessInstance();
+            instance.setId(id);
+            instance.setContainerId("source-container");
+            instance.setProcessId("source-process");
+            when(mockQueryServicesClient.findProcessInstanceById(id)).thenReturn(instance);
+        });
+        when(mockAdminServicesClient.migrateProcessInstance(anyString(), anyLong(), anyString(), anyString(), anyMap()))
+                .thenThrow(new RuntimeException("Bad node mapping"));
+
+        // When
+        Migration migration = migrationService.submit(definition);
+
+        // Then
+        Migration result = migrationService.get(migration.getId());
+        assertThat(result.getStatus(), is(Execution.ExecutionStatus.FAILED));
+        assertThat(result.getErrorMessage(), containsString("exceeding the maximum of 1 failures"));
+        assertThat(migrationService.getResults(migration.getId()), hasSize(2));
+        verify(mockAdminServicesClient, times(2)).migrateProcessInstance(anyString(), anyLong(), anyString(), anyString(), anyMap());
+        migrationService.delete(migration.getId());
+    }
+
+    @Test
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    void testAbortedMigrationSetsTheDiscoveredTotal() throws PlanNotFoundException, InvalidKieServerException, InvalidMigrationException, MigrationNotFoundException {
+        // Given
+        Plan plan = new Plan()
+                .setSource(new ProcessRef().setContainerId("source-container")
+                        .setProcessId("source-process"))
+                .setTarget(new ProcessRef().setContainerId("target-container")
+                        .setProcessId("target-process"))
+                .setName("migrationPlan");
+        MigrationDefinition definition = new MigrationDefinition();
+        definition.setRequester("requester");
+        definition.setKieServerId("kie-server-1");
+        definition.setExecution(new Execution().setType(Execution.ExecutionType.SYNC).setMaxFailures(1));
+        definition.setPlanId(11L);
+
+        when(planService.get(11L)).thenReturn(plan);
+        when(kieService.hasKieServer(definition.getKieServerId())).thenReturn(Boolean.TRUE);
+        when(kieService.existsProcessDefinition(eq(definition.getKieServerId()), eq(plan.getSource())))
+                .thenReturn(Boolean.TRUE);
+        when(kieService.existsProcessDefinition(eq(definition.getKieServerId()), eq(plan.getTarget())))
+                .thenReturn(Boolean.TRUE);
+        when(kieService.registerQuery(eq(definition.getKieServerId()), anyString(), anyString())).thenReturn(Boolean.TRUE);
+        QueryServicesClient mockQueryServicesClient = mock(QueryServicesClient.class);
+        when(kieService.getQueryServicesClient(definition.getKieServerId()))
+                .thenReturn(mockQueryServicesClient);
+        KieAsyncClient mockAdminServicesClient = mock(KieAsyncClient.class);
+        when(kieService.getAsyncClient(definition.getKieServerId()))
+                .thenReturn(mockAdminServicesClient);
+        when(mockQueryServicesClient.query(anyString(), anyString(), any(QueryFilterSpec.class), anyInt(), anyInt(), eq(List.class)))
+                .thenReturn((List) List.of(List.of(3, "source-process", "source-container"), List.of(4, "source-process", "source-container"),
+                        List.of(5, "source-process", "source-container"), List.of(6, "source-process", "source-container")));
+        when(mockAdminServicesClient.migrateProcessInstance(anyString(), anyLong(), anyString(), anyString(), anyMap()))
+                .thenThrow(new RuntimeException("Bad node mapping"));
+
+        // When
+        Migration migration = migrationService.submit(definition);
+
+        // Then
+        Migration result = migrationService.get(migration.getId());
+        assertThat(result.getStatus(), is(Execution.ExecutionStatus.FAILED));
+        assertThat(result.getTotal(), is(4L));
+        assertThat(result.getProcessed(), is(2L));
+        assertThat(result.getFailed(), is(2L));
+        migrationService.delete(migration.getId());
+    }
+
+    @Test
+    void testResumeMigrationSkipsMigratedInstances() throws PlanNotFoundException, InvalidKieServerException, InvalidMigrationException, MigrationNotFoundException {
+        // Given
+        Plan plan = new Plan()
+                .setSource(new ProcessRef().setContainerId("source-container")
+                        .setProcessId("source-process"))
+                .setTarget(new ProcessRef().setContainerId("target-container")
+                        .setProcessId("target-process"))
+                .setName("migrationPlan");
+        MigrationDefinition definition = new MigrationDefinition();
+        definition.setRequester("requester");
+        definition.setKieServerId("kie-server-1");
+        definition.setExecution(new Execution().setType(Execution.ExecutionType.ASYNC));
+        definition.setPlanId(11L);
+        definition.setProcessInstanceIds(new ArrayList<>(List.of(1L, 2L, 3L)));
+
+        when(planService.get(11L)).thenReturn(plan);
+        when(kieService.hasKieServer(definition.getKieServerId())).thenReturn(Boolean.TRUE);
+        when(kieService.existsProcessDefinition(eq(definition.getKieServerId()), eq(plan.getSource())))
+                .thenReturn(Boolean.TRUE);
+        when(kieService.existsProcessDefinition(eq(definition.getKieServerId()), eq(plan.getTarget())))
+                .thenReturn(Boolean.TRUE);
+        QueryServicesClient mockQueryServicesClient = mock(QueryServicesClient.class);
+        when(kieService.getQueryServicesClient(definition.getKieServerId()))
+                .thenReturn(mockQueryServicesClient);
+        KieAsyncClient mockAdminServicesClient = mock(KieAsyncClient.class);
+        when(kieService.getAsyncClient(definition.getKieServerId()))
+                .thenReturn(mockAdminServicesClient);
+        definition.getProcessInstanceIds().forEach(id -> {
+            ProcessInstance instance = new ProcessInstance();
+            instance.setId(id);
+            instance.setContainerId("source-container");
+            instance.setProcessId("source-process");
+            when(mockQueryServicesClient.findProcessInstanceById(id)).thenReturn(instance);
+            when(mockAdminServicesClient.migrateProcessInstance(anyString(), eq(id), anyString(), anyString(), anyMap()))
+                    .thenReturn(CompletableFuture.completedFuture(createReport(id, true)));
+        });
+        Migration migration = migrationService.submit(definition);
+        txHelper.withTransaction(() -> new MigrationReport(migration.getId(), createReport(2L, true)).persist());
+
+        // When
+        migrationService.migrate(migrationService.get(migration.getId()));
+
+        // Then
+        List<MigrationReportDto> results = migrationService.getResults(migration.getId());
+        assertThat(results, hasSize(3));
+        verify(mockAdminServicesClient, times(1)).migrateProcessInstance(anyString(), eq(1L), anyString(), anyString(), anyMap());
+        verify(mockAdminServicesClient, times(0)).migrateProcessInstance(anyString(), eq(2L), anyString(), anyString(), anyMap());
+        verify(mockAdminServicesClient, times(1)).migrateProcessInstance(anyString(), eq(3L), anyString(), anyString(), anyMap());
+    }
+
+    @Test
+    void testRetryFailedInstances() throws PlanNotFoundException, InvalidKieServerException, InvalidMigrationException, MigrationNotFoundException {
+        // Given
+        Plan plan = new Plan()
+                .setSource(new ProcessRef().setContainerId("source-container")
+                        .setProcessId("source-process"))
+                .setTarget(new ProcessRef().setContainerId("target-container")
+                        .setProcessId("target-process"))
+                .setName("migrationPlan");
+        MigrationDefinition definition = new MigrationDefinition();
+        definition.setRequester("requester");
+        definition.setKieServerId("kie-server-1");
+        definition.setExecution(new Execution().setType(Execution.ExecutionType.SYNC));
+        definition.setPlanId(11L);
+        definition.setProcessInstanceIds(new ArrayList<>(List.of(1L, 2L)));
+
+        when(planService.get(11L)).thenReturn(plan);
+        when(kieService.hasKieServer(definition.getKieServerId())).thenReturn(Boolean.TRUE);
+        when(kieService.existsProcessDefinition(eq(definition.getKieServerId()), eq(plan.getSource())))
+                .thenReturn(Boolean.TRUE);
+        when(kieService.existsProcessDefinition(eq(definition.getKieServerId()), eq(plan.getTarget())))
+                .thenReturn(Boolean.TRUE);
+        QueryServicesClient mockQueryServicesClient = mock(QueryServicesClient.class);
+        when(kieService.getQueryServicesClient(definition.getKieServerId()))
+                .thenReturn(mockQueryServicesClient);
+        KieAsyncClient mockAdminServicesClient = mock(KieAsyncClient.class);
+        when(kieService.getAsyncClient(definition.getKieServerId()))
+                .thenReturn(mockAdminServicesClient);
+        definition.getProcessInstanceIds().forEach(id -> {
+            ProcessInstance instance = new ProcessInstance();
+            instance.setId(id);
+            instance.setContainerId("source-container");
+            instance.setProcessId("source-process");
+            when(mockQueryServicesClient.findProcessInstanceById(id)).thenReturn(instance);
+        });
+        when(mockAdminServicesClient.migrateProcessInstance(anyString(), eq(1L), anyString(), anyString(), anyMap()))
+                .thenReturn(CompletableFuture.completedFuture(createReport(1L, true)));
+        when(mockAdminServicesClient.migrateProcessInstance(anyString(), eq(2L), anyString(), anyString(), anyMap()))
+                .thenReturn(CompletableFuture.completedFuture(createReport(2L, false)))
+                .thenReturn(CompletableFuture.completedFuture(createReport(2L, true)));
+        Migration migration = migrationService.submit(definition);
+        assertThat(migrationService.get(migration.getId()).getStatus(), is(Execution.ExecutionStatus.FAILED));
+        assertThat(migrationService.get(migration.getId()).getFailed(), is(1L));
+
+        // When
+        Migration retried = migrationService.retryFailed(migration.getId(), null);
+        migrationService.migrate(migrationService.get(migration.getId()));
+
+        // Then
+        assertThat(retried.getStatus(), is(Execution.ExecutionStatus.SCHEDULED));
+        assertThat(retried.getRetryAttempt(), is(1));
+        verify(schedulerService, times(1)).scheduleMigration(any(Migration.class), any(Instant.class));
+        Migration result = migrationService.get(migration.getId());
+        assertThat(result.getStatus(), is(Execution.ExecutionStatus.COMPLETED));
+        assertThat(result.getRetryAttempt(), nullValue());
+        assertThat(result.getProcessed(), is(2L));
+        assertThat(result.getSucceeded(), is(2L));
+        assertThat(result.getFailed(), is(0L));
+        assertThat(migrationService.getResults(migration.getId()), hasSize(3));
+        verify(mockAdminServicesClient, times(1)).migrateProcessInstance(anyString(), eq(1L), anyString(), anyString(), anyMap());
+        verify(mockAdminServicesClient, times(2)).migrateProcessInstance(anyString(), eq(2L), anyString(), anyString(), anyMap());
+        assertThrows(InvalidMigrationException.class, () -> migrationService.retryFailed(migration.getId(), null));
+        migrationService.delete(migration.getId());
+    }
+
+    @Test
+    void testRetryAbortedMigrationIncludesNeverAttemptedInstances() throws PlanNotFoundException, InvalidKieServerException, InvalidMigrationException, MigrationNotFoundException {
+        // Given
+        Plan plan = new Plan()
+                .setSource(new ProcessRef().setContainerId("source-container")
+                        .setProcessId("source-process"))
+                .setTarget(new ProcessRef().setContainerId("target-container")
+                        .setProcessId("target-process"))
+                .setName("migrationPlan");
+        MigrationDefinition definition = new MigrationDefinition();
+        definition.setRequester("requester");
+        definition.setKieServerId("kie-server-1");
+        definition.setExecution(new Execution().setType(Execution.ExecutionType.SYNC).setMaxFailures(1));
+        definition.setPlanId(11L);
+        definition.setProcessInstanceIds(new ArrayList<>(List.of(1L, 2L, 3L, 4L)));
+
+        when(planService.get(11L)).thenReturn(plan);
+        when(kieService.hasKieServer(definition.getKieServerId())).thenReturn(Boolean.TRUE);
+        when(kieService.existsProcessDefinition(eq(definition.getKieServerId()), eq(plan.getSource())))
+                .thenReturn(Boolean.TRUE);
+        when(kieService.existsProcessDefinition(eq(definition.getKieServerId()), eq(plan.getTarget())))
+                .thenReturn(Boolean.TRUE);
+        QueryServicesClient mockQueryServicesClient = mock(QueryServicesClient.class);
+        when(kieService.getQueryServicesClient(definition.getKieServerId()))
+                .thenReturn(mockQueryServicesClient);
+        KieAsyncClient mockAdminServicesClient = mock(KieAsyncClient.class);
+        when(kieService.getAsyncClient(definition.getKieServerId()))
+                .thenReturn(mockAdminServicesClient);
+        definition.getProcessInstanceIds().forEach(id -> {
+            ProcessInstance instance = new ProcessInstance();
+            instance.setId(id);
+            instance.setContainerId("source-container");
+            instance.setProcessId("source-process");
+            when(mockQueryServicesClient.findProcessInstanceById(id)).thenReturn(instance);
+        });
+        when(mockAdminServicesClient.migrateProcessInstance(anyString(), anyLong(), anyString(), anyString(), anyMap()))
+                .thenThrow(new RuntimeException("Bad node mapping"))
+                .thenThrow(new RuntimeException("Bad node mapping"))
+                .thenAnswer(invocation -> CompletableFuture.completedFuture(createReport(invocation.getArgument(1), true)));
+        Migration migration = migrationService.submit(definition);
+        assertThat(migrationService.get(migration.getId()).getStatus(), is(Execution.ExecutionStatus.FAILED));
+        assertThat(migrationService.getResults(migration.getId()), hasSize(2));
+
+        // When
+        migrationService.retryFailed(migration.getId(), null);
+        migrationService.migrate(migrationService.get(migration.getId()));
+
+        // Then
+        Migration result = migrationService.get(migration.getId());
+        assertThat(result.getStatus(), is(Execution.ExecutionStatus.COMPLETED));
+        assertThat(result.getProcessed(), is(4L));
+        assertThat(result.getSucceeded(), is(4L));
+        assertThat(result.getFailed(), is(0L));
+        assertThat(migrationService.getResults(migration.getId()), hasSize(6));
+        verify(mockAdminServicesClient, times(6)).migrateProcessInstance(anyString(), anyLong(), anyString(), anyString(), anyMap());
+        migrationService.delete(migration.getId());
+    }
+
+    @Test
+    void testMigrationUsesExecutionTimeoutsAndHedgedLookups() throws PlanNotFoundException, InvalidKieServerException, InvalidMigrationException, MigrationNotFoundException, InterruptedException {
+        // Given
+        Plan plan = new Plan()
+                .setSource(new ProcessRef().setContainerId("source-container")
+                        .setProcessId("source-process"))
+                .setTarget(new ProcessRef().setContainerId("target-container")
+                        .setProcessId("target-process"))
+                .setName("migrationPlan");
+        MigrationDefinition definition = new MigrationDefinition();
+        definition.setRequester("requester");
+        definition.setKieServerId("kie-server-1");
+        definition.setExecution(new Execution().setType(Execution.ExecutionType.SYNC)
+                .setQueryTimeout(Duration.ofSeconds(5))
+                .setAdminTimeout(Duration.ofSeconds(30))
+                .setHedgeDelay(Duration.ofMillis(50)));
+        definition.setPlanId(11L);
+        definition.setProcessInstanceIds(new ArrayList<>(List.of(1L)));
+
+        when(planService.get(11L)).thenReturn(plan);
+        when(kieService.hasKieServer(definition.getKieServerId())).thenReturn(Boolean.TRUE);
+        when(kieService.existsProcessDefinition(eq(definition.getKieServerId()), eq(plan.getSource())))
+                .thenReturn(Boolean.TRUE);
+        when(kieService.existsProcessDefinition(eq(definition.getKieServerId()), eq(plan.getTarget())))
+                .thenReturn(Boolean.TRUE);
+        QueryServicesClient mockQueryServicesClient = mock(QueryServicesClient.class);
+        when(kieService.getQueryServicesClient(definition.getKieServerId(), Duration.ofSeconds(5)))
+                .thenReturn(mockQueryServicesClient);
+        KieAsyncClient mockAdminServicesClient = mock(KieAsyncClient.class);
+        when(kieService.getAsyncClient(definition.getKieServerId(), Duration.ofSeconds(30)))
+                .thenReturn(mockAdminServicesClient);
+        ProcessInstance instance = new ProcessInstance();
+        instance.setId(1L);
+        instance.setContainerId("source-container");
+        instance.setProcessId("source-process");
+        AtomicInteger lookups = new AtomicInteger();
+        CountDownLatch stragglerCancelled = new CountDownLatch(1);
+        when(mockQueryServicesClient.findProcessInstanceById(1L)).thenAnswer(invocation -> {
+            if (lookups.incrementAndGet() == 1) {
+                // The first lookup is a straggler that only replies once cancelled
+                try {
+                    new CountDownLatch(1).await(TIMEOUT, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    stragglerCancelled.countDown();
+                    throw e;
+                }
+            }
+            return instance;
+        });
+        when(mockAdminServicesClient.migrateProcessInstance(anyString(), eq(1L), anyString(), anyString(), anyMap()))
+                .thenReturn(CompletableFuture.completedFuture(createReport(1L, true)));
+
+        // When
+        Migration migration = migrationService.submit(definition);
+
+        // Then
+        assertThat(migrationService.get(migration.getId()).getStatus(), is(Execution.ExecutionStatus.COMPLETED));
+        assertThat(stragglerCancelled.await(TIMEOUT, TimeUnit.SECONDS), is(true));
+        verify(mockQueryServicesClient, times(2)).findProcessInstanceById(1L);
+        verify(mockAdminServicesClient, times(1)).migrateProcessInstance(anyString(), eq(1L), anyString(), anyString(), anyMap());
+        migrationService.delete(migration.getId());
+    }
+
+    @Test
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    void testDiscoverInstancesWithServerSideFiltering() throws PlanNotFoundException, InvalidKieServerException, InvalidMigrationException, MigrationNotFoundException {
+        // Given
+        Plan plan = new Plan()
+                .setSource(new ProcessRef().setContainerId("source-container")
+                        .setProcessId("source-process"))
+                .setTarget(new ProcessRef().setContainerId("target-container")
+                        .setProcessId("target-process"))
+                .setName("migrationPlan");
+        MigrationDefinition definition = new MigrationDefinition();
+        definition.setRequester("requester");
+        definition.setKieServerId("kie-server-1");
+        definition.setExecution(new Execution().setType(Execution.ExecutionType.SYNC));
+        definition.setPlanId(11L);
+
+        when(planService.get(11L)).thenReturn(plan);
+        when(kieService.hasKieServer(definition.getKieServerId())).thenReturn(Boolean.TRUE);
+        when(kieService.registerQuery(eq(definition.getKieServerId()), anyString(), anyString())).thenReturn(Boolean.TRUE);
+        when(kieService.existsProcessDefinition(eq(definition.getKieServerId()), eq(plan.getSource())))
+                .thenReturn(Boolean.TRUE);
+        when(kieService.existsProcessDefinition(eq(definition.getKieServerId()), eq(plan.getTarget())))
+                .thenReturn(Boolean.TRUE);
+        QueryServicesClient mockQueryServicesClient = mock(QueryServicesClient.class);
+        when(kieService.getQueryServicesClient(definition.getKieServerId()))
+                .thenReturn(mockQueryServicesClient);
+        KieAsyncClient mockAdminServicesClient = mock(KieAsyncClient.class);
+        when(kieService.getAsyncClient(definition.getKieServerId()))
+                .thenReturn(mockAdminServicesClient);
+        when(mockQueryServicesClient.query(anyString(), anyString(), any(QueryFilterSpec.class), anyInt(), anyInt(), eq(List.class)))
+                .thenReturn((List) List.of(List.of(3, "source-process", "source-container"), List.of(4, "source-process", "source-container")));
+        List.of(3L, 4L).forEach(id -> {
+            ProcessInstance instance = new ProcessInstance();
+            instance.setId(id);
+            instance.setContainerId("source-container");
+            instance.setProcessId("source-process");
+            when(mockQueryServicesClient.findProcessInstanceById(id)).thenReturn(instance);
+            when(mockAdminServicesClient.migrateProcessInstance(anyString(), eq(id), anyString(), anyString(), anyMap()))
+                    .thenReturn(CompletableFuture.completedFuture(createReport(id, true)));
+        });
+
+        // When
+        Migration migration = migrationService.submit(definition);
+
+        // Then
+        assertThat(migration.getStatus(), is(Execution.ExecutionStatus.COMPLETED));
+        assertThat(migrationService.getResults(migration.getId()).stream().map(MigrationReportDto::getProcessInstanceId).collect(Collectors.toList()),
+                containsInAnyOrder(3L, 4L));
+        assertThat(migrationService.get(migration.getId()).getTotal(), is(2L));
+        verify(kieService, times(1)).registerQuery(eq(definition.getKieServerId()), eq("pim-active-process-instances"), anyString());
+        verify(mockQueryServicesClient, times(0)).findProcessInstancesByContainerId(anyString(), anyList(), anyInt(), anyInt());
+    }
+
     private MigrationReportInstance createReport(Long instanceId, boolean successful) {
         MigrationReportInstance report = new MigrationReportInstance();
         report.setStartDate(new Date());
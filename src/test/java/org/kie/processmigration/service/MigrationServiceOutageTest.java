@@ -0,0 +1,139 @@
+/*
+ * Copyright 2023 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.processmigration.service;
+
+import java.net.ConnectException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import javax.inject.Inject;
+
+import org.junit.jupiter.api.Test;
+import org.kie.processmigration.model.Execution;
+import org.kie.processmigration.model.Migration;
+import org.kie.processmigration.model.MigrationDefinition;
+import org.kie.processmigration.model.MigrationReportDto;
+import org.kie.processmigration.model.Plan;
+import org.kie.processmigration.model.ProcessRef;
+import org.kie.processmigration.model.exceptions.InvalidKieServerException;
+import org.kie.processmigration.model.exceptions.InvalidMigrationException;
+import org.kie.processmigration.model.exceptions.MigrationNotFoundException;
+import org.kie.processmigration.model.exceptions.PlanNotFoundException;
+import org.kie.processmigration.test.Profiles;
+import org.kie.server.api.model.admin.MigrationReportInstance;
+import org.kie.server.api.model.instance.ProcessInstance;
+import org.kie.server.client.QueryServicesClient;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+import io.quarkus.test.junit.mockito.InjectMock;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.anyMap;
+import static org.mockito.Mockito.anyString;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@QuarkusTest
+@TestProfile(Profiles.OutageProfile.class)
+class MigrationServiceOutageTest {
+
+    @Inject
+    MigrationService migrationService;
+
+    @InjectMock
+    PlanService planService;
+
+    @InjectMock
+    KieService kieService;
+
+    @InjectMock
+    SchedulerService schedulerService;
+
+    @Test
+    void testMigrationWaitsForUnreachableKieServer() throws PlanNotFoundException, InvalidKieServerException, InvalidMigrationException, MigrationNotFoundException {
+        // Given
+        Plan plan = new Plan()
+                .setSource(new ProcessRef().setContainerId("source-container")
+                        .setProcessId("source-process"))
+                .setTarget(new ProcessRef().setContainerId("target-container")
+                        .setProcessId("target-process"))
+                .setName("migrationPlan");
+        MigrationDefinition definition = new MigrationDefinition();
+        definition.setRequester("requester");
+        definition.setKieServerId("kie-server-1");
+        definition.setExecution(new Execution().setType(Execution.ExecutionType.SYNC));
+        definition.setPlanId(11L);
+        definition.setProcessInstanceIds(new ArrayList<>(List.of(1L, 2L)));
+
+        when(planService.get(11L)).thenReturn(plan);
+        when(kieService.hasKieServer(definition.getKieServerId())).thenReturn(Boolean.TRUE);
+        when(kieService.existsProcessDefinition(eq(definition.getKieServerId()), eq(plan.getSource())))
+                .thenReturn(Boolean.TRUE);
+        when(kieService.existsProcessDefinition(eq(definition.getKieServerId()), eq(plan.getTarget())))
+                .thenReturn(Boolean.TRUE);
+        when(kieService.isReachable(definition.getKieServerId())).thenReturn(Boolean.FALSE, Boolean.TRUE);
+        QueryServicesClient mockQueryServicesClient = mock(QueryServicesClient.class);
+        when(kieService.getQueryServicesClient(definition.getKieServerId()))
+                .thenReturn(mockQueryServicesClient);
+        KieAsyncClient mockAdminServicesClient = mock(KieAsyncClient.class);
+        when(kieService.getAsyncClient(definition.getKieServerId()))
+                .thenReturn(mockAdminServicesClient);
+        definition.getProcessInstanceIds().forEach(id -> {
+            ProcessInstance instance = new ProcessInstance();
+            instance.setId(id);
+            instance.setContainerId("source-container");
+            instance.setProcessId("source-process");
+            when(mockQueryServicesClient.findProcessInstanceById(id)).thenReturn(instance);
+        });
+        when(mockAdminServicesClient.migrateProcessInstance(anyString(), eq(1L), anyString(), anyString(), anyMap()))
+                .thenReturn(CompletableFuture.completedFuture(createReport(1L)));
+        when(mockAdminServicesClient.migrateProcessInstance(anyString(), eq(2L), anyString(), anyString(), anyMap()))
+                .thenReturn(CompletableFuture.failedFuture(new ConnectException("Connection refused")))
+                .thenReturn(CompletableFuture.completedFuture(createReport(2L)));
+
+        // When
+        Migration migration = migrationService.submit(definition);
+
+        // Then
+        assertThat(migration.getStatus(), is(Execution.ExecutionStatus.COMPLETED));
+        List<MigrationReportDto> results = migrationService.getResults(migration.getId());
+        assertThat(results, hasSize(2));
+        results.forEach(result -> assertThat(result.getSuccessful(), is(true)));
+        verify(mockAdminServicesClient, times(2)).migrateProcessInstance(anyString(), eq(2L), anyString(), anyString(), anyMap());
+        verify(kieService, atLeastOnce()).isReachable(definition.getKieServerId());
+        migrationService.delete(migration.getId());
+    }
+
+    private MigrationReportInstance createReport(Long instanceId) {
+        MigrationReportInstance report = new MigrationReportInstance();
+        report.setStartDate(new Date());
+        report.setEndDate(new Date());
+        report.setProcessInstanceId(instanceId);
+        report.setSuccessful(true);
+        report.setLogs(List.of("Migration went fine"));
+        return report;
+    }
+}
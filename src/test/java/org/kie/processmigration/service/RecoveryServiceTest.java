@@ -50,9 +50,18 @@ class RecoveryServiceTest {
         pendingMigrations.add(new Migration());
         when(migrationService.findPending()).thenReturn(pendingMigrations);
 
-        recoveryService.resumeMigrations();
+        recoveryService.resumeMigrations().join();
 
         verify(migrationService, times(2)).migrate(any(Migration.class));
     }
 
+    @Test
+    void testTakeOverStaleMigrations() throws InvalidMigrationException {
+        when(migrationService.findStale()).thenReturn(List.of(new Migration()));
+
+        recoveryService.takeOverStaleMigrations().join();
+
+        verify(migrationService, times(1)).migrate(any(Migration.class));
+    }
+
 }
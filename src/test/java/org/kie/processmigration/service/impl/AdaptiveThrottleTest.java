@@ -0,0 +1,139 @@
+/*
+ * Copyright 2023 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.processmigration.service.impl;
+
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.util.concurrent.CompletionException;
+
+import org.junit.jupiter.api.Test;
+import org.kie.server.api.exception.KieServicesHttpException;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+class AdaptiveThrottleTest {
+
+    private static final Long MIGRATION_ID = 4000L;
+
+    @Test
+    void testLimitIsIncreasedAfterALimitOfHealthyCalls() {
+        AdaptiveThrottle throttle = new AdaptiveThrottle(MIGRATION_ID, 2, 1, 4, null);
+
+        throttle.onSuccess(System.nanoTime(), 1);
+        assertThat(throttle.getLimit(), is(2));
+        throttle.onSuccess(System.nanoTime(), 1);
+        assertThat(throttle.getLimit(), is(3));
+
+        succeed(throttle, 2);
+        assertThat(throttle.getLimit(), is(3));
+        succeed(throttle, 1);
+        assertThat(throttle.getLimit(), is(4));
+
+        succeed(throttle, 10);
+        assertThat(throttle.getLimit(), is(4));
+    }
+
+    @Test
+    void testLimitIsHalvedOnOverload() {
+        AdaptiveThrottle throttle = new AdaptiveThrottle(MIGRATION_ID, 8, 1, 8, null);
+
+        throttle.onFailure(System.nanoTime(), new SocketTimeoutException("Read timed out"));
+        assertThat(throttle.getLimit(), is(4));
+        throttle.onFailure(System.nanoTime(), serverError(503));
+        assertThat(throttle.getLimit(), is(2));
+        throttle.onFailure(System.nanoTime(), new CompletionException(serverError(429)));
+        assertThat(throttle.getLimit(), is(1));
+    }
+
+    @Test
+    void testLimitIsNotDecreasedBelowTheMinimum() {
+        AdaptiveThrottle throttle = new AdaptiveThrottle(MIGRATION_ID, 6, 4, 8, null);
+
+        throttle.onFailure(System.nanoTime(), serverError(500));
+        assertThat(throttle.getLimit(), is(4));
+        throttle.onFailure(System.nanoTime(), serverError(500));
+        assertThat(throttle.getLimit(), is(4));
+    }
+
+    @Test
+    void testCallsStartedBeforeTheLastDecreaseDoNotDecreaseTheLimit() {
+        AdaptiveThrottle throttle = new AdaptiveThrottle(MIGRATION_ID, 8, 1, 8, null);
+        long startNanos = System.nanoTime();
+
+        throttle.onFailure(System.nanoTime(), serverError(503));
+        throttle.onFailure(startNanos, serverError(503));
+        throttle.onFailure(startNanos, serverError(503));
+
+        assertThat(throttle.getLimit(), is(4));
+    }
+
+    @Test
+    void testClientErrorsDoNotDecreaseTheLimit() {
+        AdaptiveThrottle throttle = new AdaptiveThrottle(MIGRATION_ID, 4, 1, 8, null);
+
+        throttle.onFailure(System.nanoTime(), serverError(404));
+        throttle.onFailure(System.nanoTime(), new IllegalStateException("Invalid process instance"));
+
+        assertThat(throttle.getLimit(), is(4));
+    }
+
+    @Test
+    void testSlowCallsDecreaseTheLimit() throws InterruptedException {
+        AdaptiveThrottle throttle = new AdaptiveThrottle(MIGRATION_ID, 4, 1, 8, Duration.ofMillis(50));
+        long startNanos = System.nanoTime();
+        Thread.sleep(100);
+
+        /* The latency is measured per migrated instance */
+        throttle.onSuccess(startNanos, 20);
+        assertThat(throttle.getLimit(), is(4));
+
+        throttle.onSuccess(startNanos, 1);
+        assertThat(throttle.getLimit(), is(2));
+    }
+
+    @Test
+    void testHealthyCallsAreCountedAgainAfterADecrease() {
+        AdaptiveThrottle throttle = new AdaptiveThrottle(MIGRATION_ID, 4, 1, 8, null);
+
+        succeed(throttle, 3);
+        throttle.onFailure(System.nanoTime(), serverError(503));
+        assertThat(throttle.getLimit(), is(2));
+
+        succeed(throttle, 1);
+        assertThat(throttle.getLimit(), is(2));
+        succeed(throttle, 1);
+        assertThat(throttle.getLimit(), is(3));
+    }
+
+    @Test
+    void testInitialLimitIsBounded() {
+        assertThat(new AdaptiveThrottle(MIGRATION_ID, 16, 1, 8, null).getLimit(), is(8));
+        assertThat(new AdaptiveThrottle(MIGRATION_ID, 1, 2, 8, null).getLimit(), is(2));
+        assertThat(new AdaptiveThrottle(MIGRATION_ID, 1, 4, 2, null).getMaxLimit(), is(4));
+    }
+
+    private static void succeed(AdaptiveThrottle throttle, int calls) {
+        for (int i = 0; i < calls; i++) {
+            throttle.onSuccess(System.nanoTime(), 1);
+        }
+    }
+
+    private static KieServicesHttpException serverError(int httpCode) {
+        return new KieServicesHttpException("Unexpected HTTP response code: " + httpCode, httpCode, "http://localhost", "");
+    }
+}
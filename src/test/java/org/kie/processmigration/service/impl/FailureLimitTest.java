@@ -0,0 +1,67 @@
+/*
+ * Copyright 2023 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.processmigration.service.impl;
+
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+
+class FailureLimitTest {
+
+    @Test
+    void testMaxFailures() {
+        FailureLimit limit = new FailureLimit(2, null, 10);
+
+        assertThat(limit.record(false), nullValue());
+        assertThat(limit.record(true), nullValue());
+        assertThat(limit.record(false), nullValue());
+        assertThat(limit.record(false), notNullValue());
+    }
+
+    @Test
+    void testFailuresLeaveTheWindow() {
+        FailureLimit limit = new FailureLimit(1, null, 3);
+
+        assertThat(limit.record(false), nullValue());
+        assertThat(limit.record(true), nullValue());
+        assertThat(limit.record(true), nullValue());
+        assertThat(limit.record(false), nullValue());
+        assertThat(limit.record(false), notNullValue());
+    }
+
+    @Test
+    void testMaxFailuresNotLowerThanTheWindow() {
+        FailureLimit limit = new FailureLimit(3, null, 2);
+
+        assertThat(limit.record(false), nullValue());
+        assertThat(limit.record(false), nullValue());
+        assertThat(limit.record(false), nullValue());
+        assertThat(limit.record(false), notNullValue());
+    }
+
+    @Test
+    void testMaxFailureRatioOnceTheWindowIsFull() {
+        FailureLimit limit = new FailureLimit(null, 0.5, 4);
+
+        assertThat(limit.record(false), nullValue());
+        assertThat(limit.record(false), nullValue());
+        assertThat(limit.record(true), nullValue());
+        assertThat(limit.record(false), notNullValue());
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2023 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.processmigration.service.impl;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class HedgedRequestsTest {
+
+    private static final long TIMEOUT = 10;
+    private static final Duration DELAY = Duration.ofMillis(50);
+
+    private final ExecutorService executor = new ThreadPoolExecutor(0, 2, 1, TimeUnit.SECONDS, new SynchronousQueue<>());
+
+    @AfterEach
+    void cleanUp() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testFastReplyIsNotHedged() throws Exception {
+        AtomicInteger requests = new AtomicInteger();
+
+        String reply = new HedgedRequests(1L, DELAY, executor).call(() -> "reply-" + requests.incrementAndGet());
+
+        assertThat(reply, is("reply-1"));
+        assertThat(requests.get(), is(1));
+    }
+
+    @Test
+    void testStragglerIsHedgedAndCancelled() throws Exception {
+        AtomicInteger requests = new AtomicInteger();
+        CountDownLatch stragglerCancelled = new CountDownLatch(1);
+
+        String reply = new HedgedRequests(1L, DELAY, executor).call(() -> {
+            int request = requests.incrementAndGet();
+            if (request == 1) {
+                try {
+                    new CountDownLatch(1).await(TIMEOUT, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    stragglerCancelled.countDown();
+                    throw e;
+                }
+            }
+            return "reply-" + request;
+        });
+
+        assertThat(reply, is("reply-2"));
+        assertThat(stragglerCancelled.await(TIMEOUT, TimeUnit.SECONDS), is(true));
+    }
+
+    @Test
+    void testFailureWaitsForTheOtherCopy() throws Exception {
+        AtomicInteger requests = new AtomicInteger();
+        CountDownLatch hedged = new CountDownLatch(1);
+
+        String reply = new HedgedRequests(1L, DELAY, executor).call(() -> {
+            if (requests.incrementAndGet() == 1) {
+                hedged.await(TIMEOUT, TimeUnit.SECONDS);
+                throw new IllegalStateException("Straggler failed");
+            }
+            hedged.countDown();
+            Thread.sleep(DELAY.toMillis());
+            return "reply";
+        });
+
+        assertThat(reply, is("reply"));
+    }
+
+    @Test
+    void testBothCopiesFail() {
+        HedgedRequests requests = new HedgedRequests(1L, DELAY, executor);
+
+        assertThrows(IllegalStateException.class, () -> requests.call(() -> {
+            Thread.sleep(DELAY.toMillis() * 2);
+            throw new IllegalStateException("Failed");
+        }));
+    }
+
+    @Test
+    void testRequestIsNotHedgedWithoutAvailableThreads() throws Exception {
+        ExecutorService busy = new ThreadPoolExecutor(0, 1, 1, TimeUnit.SECONDS, new SynchronousQueue<>());
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            busy.submit(() -> release.await(TIMEOUT, TimeUnit.SECONDS));
+            AtomicInteger requests = new AtomicInteger();
+
+            String reply = new HedgedRequests(1L, DELAY, busy).call(() -> "reply-" + requests.incrementAndGet());
+
+            assertThat(reply, is("reply-1"));
+            assertThat(requests.get(), is(1));
+        } finally {
+            release.countDown();
+            busy.shutdownNow();
+        }
+    }
+}
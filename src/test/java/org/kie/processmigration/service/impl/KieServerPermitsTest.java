@@ -0,0 +1,116 @@
+/*
+ * Copyright 2023 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.processmigration.service.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+class KieServerPermitsTest {
+
+    private static final Long FIRST_MIGRATION = 1L;
+    private static final Long SECOND_MIGRATION = 2L;
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void cleanUp() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testPermitsAreLimited() throws InterruptedException {
+        KieServerPermits permits = new KieServerPermits(2);
+        permits.register(FIRST_MIGRATION);
+        permits.acquire(FIRST_MIGRATION);
+        permits.acquire(FIRST_MIGRATION);
+
+        CountDownLatch acquired = acquireAsync(permits, FIRST_MIGRATION);
+        assertThat(acquired.await(100, TimeUnit.MILLISECONDS), is(false));
+        assertThat(permits.getInFlight(), is(2));
+
+        permits.release(FIRST_MIGRATION);
+        assertThat(acquired.await(1, TimeUnit.SECONDS), is(true));
+        assertThat(permits.getInFlight(), is(2));
+    }
+
+    @Test
+    void testIdlePermitsCanBeUsedByASingleMigration() throws InterruptedException {
+        KieServerPermits permits = new KieServerPermits(4);
+        permits.register(FIRST_MIGRATION);
+        permits.register(SECOND_MIGRATION);
+
+        for (int i = 0; i < 4; i++) {
+            permits.acquire(FIRST_MIGRATION);
+        }
+
+        assertThat(permits.getInFlight(), is(4));
+    }
+
+    @Test
+    void testWaitingMigrationsGetTheirFairShare() throws InterruptedException {
+        KieServerPermits permits = new KieServerPermits(4);
+        permits.register(FIRST_MIGRATION);
+        permits.register(SECOND_MIGRATION);
+        for (int i = 0; i < 4; i++) {
+            permits.acquire(FIRST_MIGRATION);
+        }
+
+        /* Both migrations compete for the permits released by the first one */
+        CountDownLatch firstAcquired = acquireAsync(permits, FIRST_MIGRATION);
+        List<CountDownLatch> secondAcquired = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            secondAcquired.add(acquireAsync(permits, SECOND_MIGRATION));
+        }
+        Thread.sleep(100);
+
+        permits.release(FIRST_MIGRATION);
+        permits.release(FIRST_MIGRATION);
+
+        for (CountDownLatch latch : secondAcquired) {
+            assertThat(latch.await(1, TimeUnit.SECONDS), is(true));
+        }
+        assertThat(firstAcquired.await(100, TimeUnit.MILLISECONDS), is(false));
+        assertThat(permits.getInFlight(), is(4));
+
+        /* Once the second migration has its share, the permits go back to the first one */
+        permits.release(FIRST_MIGRATION);
+        assertThat(firstAcquired.await(1, TimeUnit.SECONDS), is(true));
+    }
+
+    private CountDownLatch acquireAsync(KieServerPermits permits, Long migrationId) {
+        CountDownLatch acquired = new CountDownLatch(1);
+        executor.execute(() -> {
+            try {
+                permits.acquire(migrationId);
+                acquired.countDown();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        return acquired;
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2023 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.processmigration.service.impl;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import javax.inject.Inject;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.kie.processmigration.model.MigrationReport;
+import org.kie.processmigration.service.TransactionHelper;
+
+import io.quarkus.test.junit.QuarkusTest;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@QuarkusTest
+class MigrationReportBufferTest {
+
+    private static final Long MIGRATION_ID = 2000L;
+
+    @Inject
+    TransactionHelper txHelper;
+
+    @AfterEach
+    void cleanUp() {
+        txHelper.withTransaction(() -> MigrationReport.delete("migrationId", MIGRATION_ID));
+    }
+
+    @Test
+    void testReportsArePersistedInBatches() {
+        MigrationReportBuffer buffer = new MigrationReportBuffer(MIGRATION_ID, txHelper, 2, Duration.ofHours(1));
+
+        buffer.add(createReport(1L));
+        assertThat(countPersisted(), is(0L));
+        buffer.add(createReport(2L));
+        assertThat(countPersisted(), is(2L));
+        assertThat(buffer.size(), is(0));
+        buffer.add(createReport(3L));
+        assertThat(countPersisted(), is(2L));
+
+        buffer.close();
+        assertThat(countPersisted(), is(3L));
+    }
+
+    @Test
+    void testReportsArePersistedAfterMaxDelay() throws InterruptedException {
+        MigrationReportBuffer buffer = new MigrationReportBuffer(MIGRATION_ID, txHelper, 100, Duration.ofMillis(50));
+
+        buffer.add(createReport(1L));
+        buffer.flushIfExpired();
+        assertThat(countPersisted(), is(0L));
+        Thread.sleep(100);
+        buffer.flushIfExpired();
+        assertThat(countPersisted(), is(1L));
+    }
+
+    @Test
+    void testFailedBatchIsKeptForRetry() {
+        FailingTransactionHelper failingTxHelper = new FailingTransactionHelper(txHelper, 1);
+        MigrationReportBuffer buffer = new MigrationReportBuffer(MIGRATION_ID, failingTxHelper, 1, Duration.ofHours(1));
+
+        assertThrows(IllegalStateException.class, () -> buffer.add(createReport(1L)));
+        assertThat(buffer.size(), is(1));
+        // No more reports are accepted until the failed batch is persisted
+        assertThrows(IllegalStateException.class, () -> buffer.add(createReport(2L)));
+        assertThat(buffer.size(), is(1));
+
+        buffer.flush();
+        assertThat(countPersisted(), is(1L));
+        buffer.add(createReport(2L));
+        assertThat(countPersisted(), is(2L));
+    }
+
+    private long countPersisted() {
+        return txHelper.withTransaction(() -> MigrationReport.count("migrationId", MIGRATION_ID));
+    }
+
+    private static MigrationReport createReport(Long instanceId) {
+        return new MigrationReport()
+                .setMigrationId(MIGRATION_ID)
+                .setProcessInstanceId(instanceId)
+                .setStartDate(Instant.now())
+                .setEndDate(Instant.now())
+                .setSuccessful(Boolean.TRUE);
+    }
+
+    /*
+     * Fails the given number of transactions before delegating to the actual helper
+     */
+    static class FailingTransactionHelper extends TransactionHelper {
+
+        private final TransactionHelper delegate;
+        private int failures;
+
+        FailingTransactionHelper(TransactionHelper delegate, int failures) {
+            this.delegate = delegate;
+            this.failures = failures;
+        }
+
+        @Override
+        public void withTransaction(Runnable runnable) {
+            if (failures-- > 0) {
+                throw new IllegalStateException("Database unavailable");
+            }
+            delegate.withTransaction(runnable);
+        }
+    }
+}
@@ -0,0 +1,323 @@
+/*
+ * Copyright 2023 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.processmigration.service.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.kie.processmigration.model.ProcessRef;
+import org.kie.server.api.model.definition.QueryFilterSpec;
+import org.kie.server.api.model.definition.QueryParam;
+import org.kie.server.api.model.instance.ProcessInstance;
+import org.kie.server.client.QueryServicesClient;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ProcessInstanceDiscoveryTest {
+
+    private static final Long MIGRATION_ID = 3000L;
+    private static final String CONTAINER_ID = "source-container";
+    private static final String PROCESS_ID = "source-process";
+
+    private QueryServicesClient queryService;
+    private ProcessInstanceDiscovery discovery;
+
+    @BeforeEach
+    void setUp() {
+        queryService = mock(QueryServicesClient.class);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        if (discovery != null) {
+            discovery.close();
+        }
+    }
+
+    @Test
+    void testInstancesAreDiscoveredInPages() throws InterruptedException {
+        mockQuery(LongStream.rangeClosed(1, 5).boxed().collect(Collectors.toList()));
+        discovery = start(true, new LongHashSet(), 2, 2);
+
+        assertThat(drain(discovery), contains(1L, 2L, 3L, 4L, 5L));
+        assertThat(discovery.next(), nullValue());
+        verify(queryService, times(3)).query(anyString(), anyString(), any(QueryFilterSpec.class), eq(0), eq(2), eq(List.class));
+        verify(queryService, never()).findProcessInstancesByContainerId(anyString(), anyList(), anyInt(), anyInt());
+    }
+
+    @Test
+    void testOnlyPrefetchedPagesAreKeptInMemory() throws InterruptedException {
+        mockQuery(LongStream.rangeClosed(1, 10).boxed().collect(Collectors.toList()));
+        discovery = start(true, new LongHashSet(), 2, 1);
+
+        /* One page waits in the queue and the next one waits to be added to it */
+        verify(queryService, timeout(1000).times(2)).query(anyString(), anyString(), any(QueryFilterSpec.class), anyInt(), anyInt(), eq(List.class));
+        Thread.sleep(100);
+        verify(queryService, times(2)).query(anyString(), anyString(), any(QueryFilterSpec.class), anyInt(), anyInt(), eq(List.class));
+
+        /* Taking the first page lets the next one be fetched */
+        assertThat(discovery.next(), is(1L));
+        verify(queryService, timeout(1000).times(3)).query(anyString(), anyString(), any(QueryFilterSpec.class), anyInt(), anyInt(), eq(List.class));
+
+        assertThat(drain(discovery), contains(2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 10L));
+    }
+
+    @Test
+    void testExcludedInstancesAreSkipped() throws InterruptedException {
+        mockQuery(List.of(1L, 2L, 3L, 4L));
+        LongHashSet excluded = new LongHashSet();
+        excluded.add(2L);
+        excluded.add(3L);
+        discovery = start(true, excluded, 3, 2);
+
+        assertThat(drain(discovery), contains(1L, 4L));
+    }
+
+    @Test
+    void testInstancesAreFilteredLocallyWhenTheQueryIsNotRegistered() throws InterruptedException {
+        when(queryService.findProcessInstancesByContainerId(eq(CONTAINER_ID), anyList(), eq(0), eq(3)))
+                .thenReturn(List.of(instance(1L, PROCESS_ID), instance(2L, "other-process"), instance(3L, PROCESS_ID)));
+        when(queryService.findProcessInstancesByContainerId(eq(CONTAINER_ID), anyList(), eq(1), eq(3)))
+                .thenReturn(List.of(instance(4L, PROCESS_ID)));
+        discovery = start(false, new LongHashSet(), 3, 2);
+
+        assertThat(drain(discovery), contains(1L, 3L, 4L));
+        verify(queryService, never()).query(anyString(), anyString(), any(QueryFilterSpec.class), anyInt(), anyInt(), eq(List.class));
+    }
+
+    @Test
+    void testInstancesAreFilteredLocallyWhenTheQueryFails() throws InterruptedException {
+        when(queryService.query(anyString(), anyString(), any(QueryFilterSpec.class), anyInt(), anyInt(), eq(List.class)))
+                .thenThrow(new IllegalStateException("Query not found"));
+        when(queryService.findProcessInstancesByContainerId(eq(CONTAINER_ID), anyList(), eq(0), eq(3)))
+                .thenReturn(List.of(instance(1L, PROCESS_ID), instance(2L, PROCESS_ID)));
+        discovery = start(true, new LongHashSet(), 3, 2);
+
+        assertThat(drain(discovery), contains(1L, 2L));
+    }
+
+    @Test
+    void testFailureIsThrownAfterTheDiscoveredInstances() throws InterruptedException {
+        when(queryService.query(anyString(), anyString(), any(QueryFilterSpec.class), anyInt(), anyInt(), eq(List.class)))
+                .thenReturn(rows(List.of(1L, 2L)))
+                .thenThrow(new IllegalStateException("KIE Server unavailable"));
+        discovery = start(true, new LongHashSet(), 2, 2);
+
+        assertThat(discovery.next(), is(1L));
+        assertThat(discovery.next(), is(2L));
+        IllegalStateException e = assertThrows(IllegalStateException.class, discovery::next);
+        assertThat(e.getMessage(), is("KIE Server unavailable"));
+        verify(queryService, never()).findProcessInstancesByContainerId(anyString(), anyList(), anyInt(), anyInt());
+    }
+
+    @Test
+    void testCloseStopsTheDiscovery() throws InterruptedException {
+        mockQuery(LongStream.rangeClosed(1, 10).boxed().collect(Collectors.toList()));
+        discovery = start(true, new LongHashSet(), 2, 1);
+        verify(queryService, timeout(1000).times(2)).query(anyString(), anyString(), any(QueryFilterSpec.class), anyInt(), anyInt(), eq(List.class));
+
+        discovery.close();
+        Thread.sleep(100);
+
+        verify(queryService, times(2)).query(anyString(), anyString(), any(QueryFilterSpec.class), anyInt(), anyInt(), eq(List.class));
+    }
+
+    @Test
+    void testPagesStartAfterTheLastDiscoveredInstance() throws InterruptedException {
+        mockQuery(List.of(3L, 7L, 8L, 12L, 20L));
+        discovery = start(true, new LongHashSet(), 2, 2);
+
+        assertThat(drain(discovery), contains(3L, 7L, 8L, 12L, 20L));
+        ArgumentCaptor<QueryFilterSpec> filterSpecs = ArgumentCaptor.forClass(QueryFilterSpec.class);
+        verify(queryService, times(3)).query(eq(ProcessInstanceDiscovery.QUERY_NAME), eq(QueryServicesClient.QUERY_MAP_RAW),
+                filterSpecs.capture(), eq(0), eq(2), eq(List.class));
+        assertThat(filterSpecs.getAllValues().stream().map(ProcessInstanceDiscoveryTest::getLastInstanceId).collect(Collectors.toList()),
+                contains(-1L, 7L, 12L));
+        filterSpecs.getAllValues().forEach(filterSpec -> {
+            assertThat(filterSpec.getOrderBy(), is("processInstanceId"));
+            assertThat(filterSpec.isAscending(), is(true));
+        });
+    }
+
+    @Test
+    void testEmptyLastPageEndsTheDiscovery() throws InterruptedException {
+        mockQuery(List.of(1L, 2L, 3L, 4L));
+        discovery = start(true, new LongHashSet(), 2, 2);
+
+        assertThat(drain(discovery), contains(1L, 2L, 3L, 4L));
+        ArgumentCaptor<QueryFilterSpec> filterSpecs = ArgumentCaptor.forClass(QueryFilterSpec.class);
+        verify(queryService, times(3)).query(anyString(), anyString(), filterSpecs.capture(), anyInt(), anyInt(), eq(List.class));
+        assertThat(getLastInstanceId(filterSpecs.getValue()), is(4L));
+    }
+
+    @Test
+    void testEmptyFirstPageEndsTheDiscovery() throws InterruptedException {
+        mockQuery(List.of());
+        discovery = start(true, new LongHashSet(), 2, 2);
+
+        assertThat(discovery.next(), nullValue());
+        verify(queryService, times(1)).query(anyString(), anyString(), any(QueryFilterSpec.class), anyInt(), anyInt(), eq(List.class));
+    }
+
+    @Test
+    void testCompletedInstancesDoNotShiftThePages() throws InterruptedException {
+        List<Long> active = new CopyOnWriteArrayList<>(List.of(1L, 2L, 3L, 4L, 5L));
+        mockQuery(active);
+        discovery = start(true, new LongHashSet(), 2, 1);
+
+        assertThat(discovery.next(), is(1L));
+        assertThat(discovery.next(), is(2L));
+        /* The first page has been migrated meanwhile */
+        active.removeAll(List.of(1L, 2L));
+
+        assertThat(drain(discovery), contains(3L, 4L, 5L));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testDuplicateRowsAreDiscoveredOnce() throws InterruptedException {
+        when(queryService.query(anyString(), anyString(), any(QueryFilterSpec.class), anyInt(), anyInt(), eq(List.class)))
+                .thenReturn(rows(List.of(1L, 2L, 2L)))
+                .thenReturn(rows(List.of(3L)));
+        discovery = start(true, new LongHashSet(), 3, 2);
+
+        assertThat(drain(discovery), contains(1L, 2L, 3L));
+    }
+
+    @Test
+    void testShiftedPagesAreNotRequestedWhenFilteringLocally() throws InterruptedException {
+        AtomicBoolean migrated = new AtomicBoolean();
+        when(queryService.findProcessInstancesByContainerId(eq(CONTAINER_ID), anyList(), eq(0), eq(3)))
+                .thenReturn(List.of(instance(1L, PROCESS_ID), instance(2L, PROCESS_ID), instance(3L, PROCESS_ID)));
+        /* Once instance 1 is migrated, instance 4 moves to the first page and the second one comes back shifted down */
+        when(queryService.findProcessInstancesByContainerId(eq(CONTAINER_ID), anyList(), eq(1), eq(3)))
+                .thenAnswer(invocation -> migrated.get() ?
+                        List.of(instance(5L, PROCESS_ID)) :
+                        List.of(instance(4L, PROCESS_ID), instance(5L, PROCESS_ID)));
+        discovery = start(false, new LongHashSet(), 3, 1);
+
+        assertThat(discovery.next(), is(1L));
+        migrated.set(true);
+
+        assertThat(drain(discovery), contains(2L, 3L, 4L, 5L));
+        verify(queryService, times(1)).findProcessInstancesByContainerId(eq(CONTAINER_ID), anyList(), eq(1), eq(3));
+    }
+
+    @Test
+    void testMigratedInstancesDoNotShiftThePagesWhenFilteringLocally() throws InterruptedException {
+        List<Long> active = new CopyOnWriteArrayList<>(List.of(1L, 2L, 3L, 4L, 5L));
+        when(queryService.findProcessInstancesByContainerId(eq(CONTAINER_ID), anyList(), anyInt(), anyInt())).thenAnswer(invocation -> {
+            int page = invocation.getArgument(2);
+            int pageSize = invocation.getArgument(3);
+            return active.stream()
+                    .skip((long) page * pageSize)
+                    .limit(pageSize)
+                    .map(id -> instance(id, PROCESS_ID))
+                    .collect(Collectors.toList());
+        });
+        discovery = start(false, new LongHashSet(), 2, 1);
+
+        /* Every instance supplied is migrated, so the following ones move to an earlier page */
+        List<Long> discovered = new ArrayList<>();
+        for (Long id = discovery.next(); id != null; id = discovery.next()) {
+            discovered.add(id);
+            active.remove(id);
+        }
+
+        assertThat(discovered, contains(1L, 2L, 3L, 4L, 5L));
+        assertThat(discovery.getDiscoveredTotal(), is(5L));
+    }
+
+    private ProcessInstanceDiscovery start(boolean registered, LongHashSet excluded, int pageSize, int prefetchPages) {
+        return new ProcessInstanceDiscovery(MIGRATION_ID, queryService, HedgedRequests.none(), new ProcessRef()
+                .setContainerId(CONTAINER_ID)
+                .setProcessId(PROCESS_ID), () -> registered, excluded, pageSize, prefetchPages, Executors.defaultThreadFactory()).start();
+    }
+
+    /*
+     * Answers the custom query with the instances whose id is greater than the requested one, as the KIE Server does
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private void mockQuery(List<Long> instanceIds) {
+        when(queryService.query(anyString(), anyString(), any(QueryFilterSpec.class), anyInt(), anyInt(), eq(List.class)))
+                .thenAnswer(invocation -> {
+                    QueryFilterSpec filterSpec = invocation.getArgument(2);
+                    int pageSize = invocation.getArgument(4);
+                    long lastInstanceId = getLastInstanceId(filterSpec);
+                    return rows(instanceIds.stream()
+                            .filter(id -> id > lastInstanceId)
+                            .limit(pageSize)
+                            .collect(Collectors.toList()));
+                });
+    }
+
+    static long getLastInstanceId(QueryFilterSpec filterSpec) {
+        for (QueryParam param : filterSpec.getParameters()) {
+            if ("processInstanceId".equals(param.getColumn())) {
+                return ((Number) param.getValue().get(0)).longValue();
+            }
+        }
+        throw new IllegalArgumentException("Missing processInstanceId parameter");
+    }
+
+    @SuppressWarnings("rawtypes")
+    static List rows(List<Long> instanceIds) {
+        return instanceIds.stream()
+                .map(id -> List.of(id, PROCESS_ID, CONTAINER_ID))
+                .collect(Collectors.toList());
+    }
+
+    static ProcessInstance instance(Long id, String processId) {
+        ProcessInstance instance = new ProcessInstance();
+        instance.setId(id);
+        instance.setContainerId(CONTAINER_ID);
+        instance.setProcessId(processId);
+        return instance;
+    }
+
+    static List<Long> drain(ProcessInstanceSource source) throws InterruptedException {
+        List<Long> instanceIds = new ArrayList<>();
+        for (Long id = source.next(); id != null; id = source.next()) {
+            instanceIds.add(id);
+        }
+        return instanceIds;
+    }
+}
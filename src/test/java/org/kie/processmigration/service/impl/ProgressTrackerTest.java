@@ -0,0 +1,148 @@
+/*
+ * Copyright 2023 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.processmigration.service.impl;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+import org.kie.processmigration.model.Execution.ExecutionStatus;
+import org.kie.processmigration.model.MigrationProgress;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+
+class ProgressTrackerTest {
+
+    private static final Long MIGRATION_ID = 1L;
+    private static final URI CALLBACK_URL = URI.create("http://localhost/callback");
+    private static final Duration INTERVAL = Duration.ofMillis(50);
+    private static final Duration LONG_INTERVAL = Duration.ofHours(1);
+
+    @Test
+    void testIntervalGating() throws InterruptedException {
+        ProgressTracker tracker = new ProgressTracker(MIGRATION_ID, CALLBACK_URL, null, INTERVAL, null, Duration.ZERO);
+        tracker.record(true);
+
+        assertThat(tracker.next(), nullValue());
+        assertThat(tracker.isCountDue(), is(false));
+        Thread.sleep(INTERVAL.toMillis() * 2);
+        MigrationProgress progress = tracker.next();
+        assertThat(progress, notNullValue());
+        assertThat(progress.getMigrationId(), is(MIGRATION_ID));
+        assertThat(progress.getStatus(), is(ExecutionStatus.STARTED));
+        assertThat(progress.getProcessed(), is(1L));
+        assertThat(tracker.next(), nullValue());
+    }
+
+    @Test
+    void testEveryGating() {
+        ProgressTracker tracker = new ProgressTracker(MIGRATION_ID, CALLBACK_URL, null, null, 3, Duration.ZERO);
+        tracker.record(true);
+        tracker.record(false);
+
+        assertThat(tracker.isCountDue(), is(false));
+        assertThat(tracker.next(), nullValue());
+        tracker.record(true);
+        assertThat(tracker.isCountDue(), is(true));
+        MigrationProgress progress = tracker.next();
+        assertThat(progress.getProcessed(), is(3L));
+        assertThat(progress.getSucceeded(), is(2L));
+        assertThat(progress.getFailed(), is(1L));
+        assertThat(tracker.isCountDue(), is(false));
+        assertThat(tracker.next(), nullValue());
+    }
+
+    @Test
+    void testMinIntervalGating() {
+        ProgressTracker tracker = new ProgressTracker(MIGRATION_ID, CALLBACK_URL, null, INTERVAL, 1, LONG_INTERVAL);
+        tracker.record(true);
+        tracker.record(true);
+
+        assertThat(tracker.canReport(), is(false));
+        assertThat(tracker.isCountDue(), is(false));
+        assertThat(tracker.next(), nullValue());
+    }
+
+    @Test
+    void testThroughputAndEstimatedCompletion() throws InterruptedException {
+        ProgressTracker tracker = new ProgressTracker(MIGRATION_ID, CALLBACK_URL, 10L, null, 4, Duration.ZERO);
+        Thread.sleep(INTERVAL.toMillis());
+        for (int i = 0; i < 4; i++) {
+            tracker.record(true);
+        }
+
+        MigrationProgress progress = tracker.next();
+        assertThat(progress.getTotal(), is(10L));
+        assertThat(progress.getThroughput(), greaterThan(0.0));
+        assertThat(progress.getThroughput(), lessThanOrEqualTo(4 / (INTERVAL.toMillis() / 1000.0)));
+        assertThat(progress.getEstimatedCompletion(),
+                is(progress.getReportedAt().plusMillis((long) (6 * 1000 / progress.getThroughput()))));
+    }
+
+    @Test
+    void testNoEstimatedCompletionWithoutTotal() {
+        ProgressTracker tracker = new ProgressTracker(MIGRATION_ID, CALLBACK_URL, null, null, 1, Duration.ZERO);
+        tracker.record(true);
+
+        MigrationProgress progress = tracker.next();
+        assertThat(progress.getTotal(), nullValue());
+        assertThat(progress.getEstimatedCompletion(), nullValue());
+    }
+
+    @Test
+    void testEstimatedCompletionOnceTheTotalIsDiscovered() throws InterruptedException {
+        ProgressTracker tracker = new ProgressTracker(MIGRATION_ID, CALLBACK_URL, null, null, 1, Duration.ZERO);
+        AtomicReference<Long> discoveredTotal = new AtomicReference<>();
+        tracker.trackTotal(discoveredTotal::get);
+        Thread.sleep(INTERVAL.toMillis());
+        tracker.record(true);
+
+        MigrationProgress progress = tracker.next();
+        assertThat(progress.getTotal(), nullValue());
+        assertThat(progress.getEstimatedCompletion(), nullValue());
+
+        discoveredTotal.set(10L);
+        tracker.record(true);
+        progress = tracker.next();
+        assertThat(progress.getTotal(), is(10L));
+        assertThat(progress.getEstimatedCompletion(),
+                is(progress.getReportedAt().plusMillis((long) (8 * 1000 / progress.getThroughput()))));
+    }
+
+    @Test
+    void testStartFromPreviousExecution() throws InterruptedException {
+        ProgressTracker tracker = new ProgressTracker(MIGRATION_ID, CALLBACK_URL, 10L, null, 2, Duration.ZERO);
+        tracker.startFrom(5, 1);
+        Thread.sleep(INTERVAL.toMillis());
+
+        assertThat(tracker.next(), nullValue());
+        tracker.record(true);
+        tracker.record(false);
+        MigrationProgress progress = tracker.next();
+        assertThat(progress.getProcessed(), is(8L));
+        assertThat(progress.getSucceeded(), is(6L));
+        assertThat(progress.getFailed(), is(2L));
+        // Only the instances migrated by this execution count for the throughput
+        assertThat(progress.getThroughput(), lessThanOrEqualTo(2 / (INTERVAL.toMillis() / 1000.0)));
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2023 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.processmigration.service.impl;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class WorkerThreadsTest {
+
+    private static final long TIMEOUT = 10;
+    private static final int VIRTUAL_THREADS_VERSION = 21;
+
+    @Test
+    void testPlatformThreadsByDefault() throws InterruptedException {
+        WorkerThreads workerThreads = createWorkerThreads(false);
+
+        assertThat(workerThreads.isVirtual(), is(false));
+        assertRunsTasks(workerThreads);
+    }
+
+    @Test
+    void testFallbackToPlatformThreadsWithoutVirtualThreadsSupport() throws InterruptedException {
+        assumeTrue(Runtime.version().feature() < VIRTUAL_THREADS_VERSION);
+
+        WorkerThreads workerThreads = createWorkerThreads(true);
+
+        assertThat(workerThreads.isVirtual(), is(false));
+        assertRunsTasks(workerThreads);
+    }
+
+    @Test
+    void testVirtualThreads() throws Exception {
+        assumeTrue(Runtime.version().feature() >= VIRTUAL_THREADS_VERSION);
+
+        WorkerThreads workerThreads = createWorkerThreads(true);
+
+        assertThat(workerThreads.isVirtual(), is(true));
+        Thread thread = workerThreads.getThreadFactory().newThread(() -> {
+        });
+        assertThat(Thread.class.getMethod("isVirtual").invoke(thread), is(true));
+        assertRunsTasks(workerThreads);
+    }
+
+    private static WorkerThreads createWorkerThreads(boolean virtualThreads) {
+        WorkerThreads workerThreads = new WorkerThreads();
+        workerThreads.virtualThreads = virtualThreads;
+        workerThreads.init();
+        return workerThreads;
+    }
+
+    private static void assertRunsTasks(WorkerThreads workerThreads) throws InterruptedException {
+        assertThat(workerThreads.getThreadFactory(), notNullValue());
+        CountDownLatch done = new CountDownLatch(1);
+        workerThreads.getThreadFactory().newThread(done::countDown).start();
+        assertThat(done.await(TIMEOUT, TimeUnit.SECONDS), is(true));
+    }
+}
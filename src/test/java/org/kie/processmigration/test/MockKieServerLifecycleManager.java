@@ -33,6 +33,8 @@ import org.kie.server.api.model.KieServerInfo;
 import org.kie.server.api.model.KieServiceResponse;
 import org.kie.server.api.model.ReleaseId;
 import org.kie.server.api.model.ServiceResponse;
+import org.kie.server.api.model.admin.MigrationReportInstance;
+import org.kie.server.api.model.admin.MigrationReportInstanceList;
 import org.kie.server.api.model.definition.NodeDefinition;
 import org.kie.server.api.model.definition.ProcessDefinition;
 import org.kie.server.api.model.definition.ProcessDefinitionList;
@@ -50,12 +52,14 @@ import io.quarkus.test.common.QuarkusTestResourceLifecycleManager;
 import lombok.SneakyThrows;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.configureFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.equalToJson;
 import static com.github.tomakehurst.wiremock.client.WireMock.forbidden;
 import static com.github.tomakehurst.wiremock.client.WireMock.get;
 import static com.github.tomakehurst.wiremock.client.WireMock.notFound;
 import static com.github.tomakehurst.wiremock.client.WireMock.ok;
 import static com.github.tomakehurst.wiremock.client.WireMock.okJson;
 import static com.github.tomakehurst.wiremock.client.WireMock.okXml;
+import static com.github.tomakehurst.wiremock.client.WireMock.put;
 import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
 import static com.github.tomakehurst.wiremock.client.WireMock.unauthorized;
 import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
@@ -115,6 +119,10 @@ public class MockKieServerLifecycleManager implements QuarkusTestResourceLifecyc
         kieservers.put("kieservers[1].host", server2Response.getResult().getLocation());
         kieservers.put("kieservers[1].username", "admin");
         kieservers.put("kieservers[1].password", "admin123");
+        kieservers.put("kieservers[1].min-concurrency", "2");
+        kieservers.put("kieservers[1].max-concurrency", "8");
+        kieservers.put("kieservers[1].target-latency", "2S");
+        kieservers.put("kieservers[1].migration-permits", "4");
         kieservers.put("kieservers[2].host", wireMockServer.baseUrl() + "/not-found/services/rest/server");
         kieservers.put("kieservers[2].username", "unused");
         kieservers.put("kieservers[2].password", "unused");
@@ -241,6 +249,23 @@ public class MockKieServerLifecycleManager implements QuarkusTestResourceLifecyc
                 .withQueryParam("status", new EqualToPattern("0"))
                 .withQueryParam("status", new EqualToPattern("4"))
                 .willReturn(okJson(mapper.writeValueAsString(instances))));
+
+        MigrationReportInstance report = new MigrationReportInstance();
+        report.setProcessInstanceId(9L);
+        report.setSuccessful(true);
+        stubFor(put(urlPathEqualTo("/kie-server-2/services/rest/server/admin/containers/example-1.0.0/processes/instances/9"))
+                .withBasicAuth("admin", "admin123")
+                .withQueryParam("targetContainerId", new EqualToPattern("example-1.0.1"))
+                .withQueryParam("targetProcessId", new EqualToPattern("process2"))
+                .withRequestBody(equalToJson("{\"node1\": \"node2\"}"))
+                .willReturn(okJson(mapper.writeValueAsString(report))));
+        stubFor(put(urlPathEqualTo("/kie-server-2/services/rest/server/admin/containers/example-1.0.0/processes/instances"))
+                .withBasicAuth("admin", "admin123")
+                .withQueryParam("pInstanceId", new EqualToPattern("9"))
+                .withQueryParam("targetContainerId", new EqualToPattern("example-1.0.1"))
+                .withQueryParam("targetProcessId", new EqualToPattern("process2"))
+                .withRequestBody(equalToJson("{}"))
+                .willReturn(okJson(mapper.writeValueAsString(new MigrationReportInstanceList(new MigrationReportInstance[]{report})))));
     }
 
     private void stubCountQuery(ServiceResponse<KieServerInfo> response, String containerId, int count) {
@@ -18,6 +18,7 @@ package org.kie.processmigration.test;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 import io.quarkus.test.junit.QuarkusTestProfile;
 
@@ -29,4 +30,31 @@ public class Profiles {
             return Collections.singletonList(new TestResourceEntry(MockKieServerLifecycleManager.class));
         }
     }
+
+    public static class ClusterProfile implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of(
+                    "pim.cluster.enabled", "true",
+                    "pim.cluster.chunk-size", "2",
+                    "pim.cluster.poll-interval", "PT0.1S");
+        }
+    }
+
+    public static class CallbackProfile implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of(
+                    "pim.callbacks.poll-interval", "PT0.1S",
+                    "pim.callbacks.backoff", "PT0.1S",
+                    "pim.callbacks.max-attempts", "3");
+        }
+    }
+
+    public static class OutageProfile implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of("pim.migration.outage-check-interval", "PT0.1S");
+        }
+    }
 }
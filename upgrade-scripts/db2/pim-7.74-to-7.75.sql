@@ -0,0 +1,72 @@
+alter table migrations add column concurrency integer;
+
+alter table migrations add column chunk_size integer;
+
+create table migration_chunks (
+    migration_id bigint not null,
+    chunk_index integer not null,
+    instance_ids clob(255),
+    lease_expires_at timestamp,
+    owner varchar(255),
+    status integer,
+    primary key (migration_id, chunk_index)
+);
+
+create index IDX_MigrationChunks_Status on migration_chunks (status);
+
+alter table migrations add column owner varchar(255);
+
+alter table migrations add column lease_expires_at timestamp;
+
+alter table migrations add column window_start time;
+
+alter table migrations add column window_end time;
+
+alter table migrations add column max_failures integer;
+
+alter table migrations add column max_failure_ratio double;
+
+alter table migrations add column retry_attempt integer;
+
+alter table migrations add column retry_max_attempts integer;
+
+alter table migrations add column retry_backoff bigint;
+
+alter table migrations add column query_timeout bigint;
+
+alter table migrations add column admin_timeout bigint;
+
+alter table migrations add column hedge_delay bigint;
+
+create table migration_callbacks (
+    id varchar(255) not null,
+    migration_id bigint,
+    url varchar(255),
+    payload clob(255),
+    status integer,
+    attempts integer,
+    created_at timestamp,
+    next_attempt_at timestamp,
+    delivered_at timestamp,
+    last_error varchar(255),
+    owner varchar(255),
+    lease_expires_at timestamp,
+    callback_type integer,
+    primary key (id)
+);
+
+create index IDX_MigrationCallbacks_Status on migration_callbacks (status);
+
+create index IDX_MigrationCallbacks_Id on migration_callbacks (migration_id);
+
+alter table migrations add column progress_interval bigint;
+
+alter table migrations add column progress_every integer;
+
+alter table migrations add column total bigint;
+
+alter table migrations add column processed bigint;
+
+alter table migrations add column succeeded bigint;
+
+alter table migrations add column failed bigint;
@@ -0,0 +1,72 @@
+alter table migrations add concurrency int;
+
+alter table migrations add chunk_size int;
+
+create table migration_chunks (
+    migration_id bigint not null,
+    chunk_index int not null,
+    instance_ids varchar(MAX),
+    lease_expires_at datetime2,
+    owner varchar(255),
+    status int,
+    primary key (migration_id, chunk_index)
+);
+
+create index IDX_MigrationChunks_Status on migration_chunks (status);
+
+alter table migrations add owner varchar(255);
+
+alter table migrations add lease_expires_at datetime2;
+
+alter table migrations add window_start time;
+
+alter table migrations add window_end time;
+
+alter table migrations add max_failures int;
+
+alter table migrations add max_failure_ratio float;
+
+alter table migrations add retry_attempt int;
+
+alter table migrations add retry_max_attempts int;
+
+alter table migrations add retry_backoff bigint;
+
+alter table migrations add query_timeout bigint;
+
+alter table migrations add admin_timeout bigint;
+
+alter table migrations add hedge_delay bigint;
+
+create table migration_callbacks (
+    id varchar(255) not null,
+    migration_id bigint,
+    url varchar(255),
+    payload varchar(MAX),
+    status int,
+    attempts int,
+    created_at datetime2,
+    next_attempt_at datetime2,
+    delivered_at datetime2,
+    last_error varchar(255),
+    owner varchar(255),
+    lease_expires_at datetime2,
+    callback_type int,
+    primary key (id)
+);
+
+create index IDX_MigrationCallbacks_Status on migration_callbacks (status);
+
+create index IDX_MigrationCallbacks_Id on migration_callbacks (migration_id);
+
+alter table migrations add progress_interval bigint;
+
+alter table migrations add progress_every int;
+
+alter table migrations add total bigint;
+
+alter table migrations add processed bigint;
+
+alter table migrations add succeeded bigint;
+
+alter table migrations add failed bigint;
@@ -0,0 +1,72 @@
+alter table migrations add concurrency number(10,0);
+
+alter table migrations add chunk_size number(10,0);
+
+create table migration_chunks (
+    migration_id number(19,0) not null,
+    chunk_index number(10,0) not null,
+    instance_ids clob,
+    lease_expires_at timestamp,
+    owner varchar2(255 char),
+    status number(10,0),
+    primary key (migration_id, chunk_index)
+);
+
+create index IDX_MigrationChunks_Status on migration_chunks (status);
+
+alter table migrations add owner varchar2(255 char);
+
+alter table migrations add lease_expires_at timestamp;
+
+alter table migrations add window_start timestamp;
+
+alter table migrations add window_end timestamp;
+
+alter table migrations add max_failures number(10,0);
+
+alter table migrations add max_failure_ratio double precision;
+
+alter table migrations add retry_attempt number(10,0);
+
+alter table migrations add retry_max_attempts number(10,0);
+
+alter table migrations add retry_backoff number(19,0);
+
+alter table migrations add query_timeout number(19,0);
+
+alter table migrations add admin_timeout number(19,0);
+
+alter table migrations add hedge_delay number(19,0);
+
+create table migration_callbacks (
+    id varchar2(255 char) not null,
+    migration_id number(19,0),
+    url varchar2(255 char),
+    payload clob,
+    status number(10,0),
+    attempts number(10,0),
+    created_at timestamp,
+    next_attempt_at timestamp,
+    delivered_at timestamp,
+    last_error varchar2(255 char),
+    owner varchar2(255 char),
+    lease_expires_at timestamp,
+    callback_type number(10,0),
+    primary key (id)
+);
+
+create index IDX_MigrationCallbacks_Status on migration_callbacks (status);
+
+create index IDX_MigrationCallbacks_Id on migration_callbacks (migration_id);
+
+alter table migrations add progress_interval number(19,0);
+
+alter table migrations add progress_every number(10,0);
+
+alter table migrations add total number(19,0);
+
+alter table migrations add processed number(19,0);
+
+alter table migrations add succeeded number(19,0);
+
+alter table migrations add failed number(19,0);
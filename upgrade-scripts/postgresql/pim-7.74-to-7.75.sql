@@ -0,0 +1,72 @@
+alter table migrations add column concurrency int4;
+
+alter table migrations add column chunk_size int4;
+
+create table migration_chunks (
+    migration_id int8 not null,
+    chunk_index int4 not null,
+    instance_ids text,
+    lease_expires_at timestamp,
+    owner varchar(255),
+    status int4,
+    primary key (migration_id, chunk_index)
+);
+
+create index IDX_MigrationChunks_Status on migration_chunks (status);
+
+alter table migrations add column owner varchar(255);
+
+alter table migrations add column lease_expires_at timestamp;
+
+alter table migrations add column window_start time;
+
+alter table migrations add column window_end time;
+
+alter table migrations add column max_failures int4;
+
+alter table migrations add column max_failure_ratio float8;
+
+alter table migrations add column retry_attempt int4;
+
+alter table migrations add column retry_max_attempts int4;
+
+alter table migrations add column retry_backoff int8;
+
+alter table migrations add column query_timeout int8;
+
+alter table migrations add column admin_timeout int8;
+
+alter table migrations add column hedge_delay int8;
+
+create table migration_callbacks (
+    id varchar(255) not null,
+    migration_id int8,
+    url varchar(255),
+    payload text,
+    status int4,
+    attempts int4,
+    created_at timestamp,
+    next_attempt_at timestamp,
+    delivered_at timestamp,
+    last_error varchar(255),
+    owner varchar(255),
+    lease_expires_at timestamp,
+    callback_type int4,
+    primary key (id)
+);
+
+create index IDX_MigrationCallbacks_Status on migration_callbacks (status);
+
+create index IDX_MigrationCallbacks_Id on migration_callbacks (migration_id);
+
+alter table migrations add column progress_interval int8;
+
+alter table migrations add column progress_every int4;
+
+alter table migrations add column total int8;
+
+alter table migrations add column processed int8;
+
+alter table migrations add column succeeded int8;
+
+alter table migrations add column failed int8;